@@ -0,0 +1,149 @@
+package com.nvlad.yii2support.common;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.elements.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Alias definitions: alias => target. Target is another alias ("@vendor/bower-asset"), absolute path
+ * or path relative to directory of defining file. Later definitions of a file override earlier ones.
+ * Collects "Yii::setAlias()" and "setAliases()" calls, "alias" entries of "vendor/yiisoft/extensions.php"
+ * and "BaseYii::$aliases". Only config and bootstrap files are indexed, "aliases" sections of application configs
+ * are served by {@link com.nvlad.yii2support.configurations.YiiConfigModel}.
+ */
+public class AliasIndex extends FileBasedIndexExtension<String, String> {
+    public static final ID<String, String> identity = ID.create("Yii2Support.AliasIndex");
+
+    @NotNull
+    @Override
+    public ID<String, String> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            final CharSequence text = inputData.getContentAsText();
+            if (!StringUtil.contains(text, "setAlias") && !StringUtil.contains(text, "alias")) {
+                return Collections.emptyMap();
+            }
+
+            final PsiElement file = inputData.getPsiFile();
+            final Map<String, String> result = new HashMap<>();
+            for (MethodReference reference : PsiTreeUtil.findChildrenOfType(file, MethodReference.class)) {
+                final PsiElement[] parameters = reference.getParameters();
+                if ("setAlias".equals(reference.getName()) && parameters.length > 1 && parameters[0] instanceof StringLiteralExpression) {
+                    addAlias(result, ((StringLiteralExpression) parameters[0]).getContents(), parameters[1]);
+                } else if ("setAliases".equals(reference.getName()) && parameters.length > 0 && parameters[0] instanceof ArrayCreationExpression) {
+                    addAliases(result, (ArrayCreationExpression) parameters[0]);
+                }
+            }
+
+            for (ArrayHashElement element : PsiTreeUtil.findChildrenOfType(file, ArrayHashElement.class)) {
+                final PhpPsiElement key = element.getKey();
+                if (key instanceof StringLiteralExpression && element.getValue() instanceof ArrayCreationExpression) {
+                    final String name = ((StringLiteralExpression) key).getContents();
+                    if (name.equals("alias")) {
+                        addAliases(result, (ArrayCreationExpression) element.getValue());
+                    }
+                }
+            }
+
+            for (Field field : PsiTreeUtil.findChildrenOfType(file, Field.class)) {
+                if ("aliases".equals(field.getName()) && field.getDefaultValue() instanceof ArrayCreationExpression) {
+                    addAliases(result, (ArrayCreationExpression) field.getDefaultValue());
+                }
+            }
+
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE && isAliasSource(file.getPath());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Tracker for caches built from alias index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    /**
+     * Alias name as Yii stores it: starts with "@", without trailing "/".
+     */
+    @Nullable
+    public static String normalizeAlias(@NotNull String alias) {
+        final String result = StringUtil.trimEnd(alias.trim(), "/");
+        return result.length() > 1 && result.startsWith("@") ? result : null;
+    }
+
+    /**
+     * Files where aliases are defined: config and bootstrap files of applications,
+     * "yiisoft/extensions.php" and "BaseYii.php" of vendor.
+     */
+    static boolean isAliasSource(@NotNull String path) {
+        if (path.contains("/vendor/")) {
+            return path.endsWith("/yiisoft/extensions.php") || path.endsWith("/yiisoft/yii2/BaseYii.php");
+        }
+
+        return path.contains("/config/") || path.endsWith("/bootstrap.php");
+    }
+
+    private static void addAliases(@NotNull Map<String, String> result, @NotNull ArrayCreationExpression aliases) {
+        for (ArrayHashElement element : aliases.getHashElements()) {
+            if (element.getKey() instanceof StringLiteralExpression) {
+                addAlias(result, ((StringLiteralExpression) element.getKey()).getContents(), element.getValue());
+            }
+        }
+    }
+
+    private static void addAlias(@NotNull Map<String, String> result, @NotNull String alias, @Nullable PsiElement value) {
+        final String name = normalizeAlias(alias);
+        final String target = PhpUtil.getRelativePath(value);
+        if (name != null && target != null && !target.contains("://")) {
+            result.put(name, target);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.nvlad.yii2support.common;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoized superclass chains of PHP classes: class FQN to set of FQNs of class and all its parents
+ * and bit mask of {@link YiiClassRole}. Cached per project until stub indexes change, so edits which
+ * do not change declarations keep the cache.
+ */
+public class ClassHierarchy {
+    private static final int MAX_DEPTH = 100;
+    private static final Ancestry EMPTY = new Ancestry(Collections.emptySet(), 0);
+    private static final Map<String, Integer> roleMasks = new HashMap<>();
+
+    static {
+        for (YiiClassRole role : YiiClassRole.values()) {
+            for (String className : role.classNames) {
+                roleMasks.put(className, role.mask);
+            }
+        }
+    }
+
+    /**
+     * True when class FQN equals to given class or one of its parents.
+     */
+    public static boolean isInheritsOrEqual(@Nullable PhpClass phpClass, @Nullable String classFQN) {
+        if (phpClass == null || classFQN == null) {
+            return false;
+        }
+
+        if (!classFQN.startsWith("\\")) {
+            classFQN = "\\" + classFQN;
+        }
+
+        return getAncestry(phpClass).ancestors.contains(classFQN);
+    }
+
+    public static boolean hasRole(@Nullable PhpClass phpClass, @NotNull YiiClassRole role) {
+        return phpClass != null && (getAncestry(phpClass).roles & role.mask) != 0;
+    }
+
+    public static boolean hasAnyRole(@Nullable PhpClass phpClass, @NotNull YiiClassRole... roles) {
+        return phpClass != null && (getAncestry(phpClass).roles & YiiClassRole.mask(roles)) != 0;
+    }
+
+    /**
+     * FQN of class and FQNs of all its parents.
+     */
+    @NotNull
+    public static Set<String> getAncestors(@NotNull PhpClass phpClass) {
+        return getAncestry(phpClass).ancestors;
+    }
+
+    @NotNull
+    private static Ancestry getAncestry(@NotNull PhpClass phpClass) {
+        final ConcurrentMap<String, Ancestry> cache = getCache(phpClass.getProject());
+        final Ancestry cached = cache.get(phpClass.getFQN());
+        if (cached != null) {
+            return cached;
+        }
+
+        // collect not cached part of superclass chain, then build ancestries from the top
+        final List<PhpClass> chain = new ArrayList<>();
+        final Set<String> visited = new HashSet<>();
+        Ancestry base = EMPTY;
+        PhpClass current = phpClass;
+        while (current != null && chain.size() < MAX_DEPTH && visited.add(current.getFQN())) {
+            final Ancestry ancestry = cache.get(current.getFQN());
+            if (ancestry != null) {
+                base = ancestry;
+                break;
+            }
+
+            chain.add(current);
+            current = current.getSuperClass();
+        }
+
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            final String fqn = chain.get(i).getFQN();
+            final Set<String> ancestors = new HashSet<>(base.ancestors.size() + 1);
+            ancestors.addAll(base.ancestors);
+            ancestors.add(fqn);
+
+            final Ancestry ancestry = new Ancestry(Collections.unmodifiableSet(ancestors), base.roles | roleMasks.getOrDefault(fqn, 0));
+            final Ancestry previous = cache.putIfAbsent(fqn, ancestry);
+            base = previous == null ? ancestry : previous;
+        }
+
+        return base;
+    }
+
+    @NotNull
+    private static ConcurrentMap<String, Ancestry> getCache(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+                new ConcurrentHashMap<>(),
+                StubIndex.getInstance().getStubIndexModificationTracker(project)
+        ));
+    }
+
+    private static class Ancestry {
+        @NotNull
+        final Set<String> ancestors;
+        final int roles;
+
+        Ancestry(@NotNull Set<String> ancestors, int roles) {
+            this.ancestors = ancestors;
+            this.roles = roles;
+        }
+    }
+}
@@ -146,43 +146,23 @@ public class ClassUtils {
         return null;
     }
 
+    /**
+     * Checks class or its parents FQN, see {@link ClassHierarchy}.
+     */
     public static boolean isClassInheritsOrEqual(PhpClass classObject, String className, PhpIndex index) {
-        PhpClass phpClass = ClassUtils.getClass(index, className);
-
-        return isClassInheritsOrEqual(classObject, phpClass, 100);
+        return ClassHierarchy.isInheritsOrEqual(classObject, className);
     }
 
     public static boolean isClassInheritsOrEqual(PhpClass classObject, PhpClass superClass, int recursionLimit) {
-        if (classObject == null || superClass == null) {
-            return false;
-        }
-
-        if (classObject.isEquivalentTo(superClass)) {
-            return true;
-        }
-        if (recursionLimit < 1)
-            return false;
-
-        return isClassInheritsOrEqual(classObject.getSuperClass(), superClass, recursionLimit--);
+        return superClass != null && ClassHierarchy.isInheritsOrEqual(classObject, superClass.getFQN());
     }
 
     public static boolean isClassInherit(PhpClass classObject, String parentClassName, PhpIndex index) {
-        PhpClass phpClass = ClassUtils.getClass(index, parentClassName);
-
-        return isClassInherit(classObject, phpClass);
+        return ClassHierarchy.isInheritsOrEqual(classObject, parentClassName);
     }
 
     public static boolean isClassInherit(PhpClass classObject, PhpClass superClass) {
-        if (classObject == null || superClass == null) {
-            return false;
-        }
-
-//        PhpClass clazz = classObject.getSuperClass();
-        if (classObject.isEquivalentTo(superClass)) {
-            return true;
-        }
-
-        return isClassInherit(classObject.getSuperClass(), superClass);
+        return superClass != null && ClassHierarchy.isInheritsOrEqual(classObject, superClass.getFQN());
     }
 
     public static String getAsPropertyName(Method method) {
@@ -1,32 +1,27 @@
 package com.nvlad.yii2support.common;
 
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
-import com.intellij.database.model.DasColumn;
-import com.intellij.database.model.DasObject;
-import com.intellij.database.model.DasTable;
-import com.intellij.database.model.RawConnectionConfig;
-import com.intellij.database.psi.*;
-import com.intellij.ide.TypePresentationService;
+import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.util.containers.JBIterable;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocComment;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocProperty;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.tags.PhpDocPropertyTag;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.lang.psi.elements.impl.ClassConstImpl;
 import com.jetbrains.php.lang.psi.elements.impl.StringLiteralExpressionImpl;
+import com.nvlad.yii2support.database.ActiveRecordTables;
+import com.nvlad.yii2support.database.ColumnInfo;
+import com.nvlad.yii2support.database.SchemaSnapshot;
+import com.nvlad.yii2support.database.SqlTokenizer;
 import com.nvlad.yii2support.database.TableInfo;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,8 +31,7 @@ import java.util.regex.Pattern;
 public class DatabaseUtils {
 
     public static boolean HasConnections(Project project) {
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        return facade.getDataSources().size() > 0;
+        return !SchemaSnapshot.getInstance(project).isEmpty();
     }
 
     @Nullable
@@ -46,48 +40,32 @@ public class DatabaseUtils {
         if (table == null || table.isEmpty())
             return list;
 
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        List<DbDataSource> dataSources = facade.getDataSources();
-
-        // Code to test tests :)
-        //dataSources.clear();
-        //dataSources.add(new TestDataSource(project));
-
-        String prefixedTable = AddTablePrefix(table, true, project);
-
-        for (DbDataSource source : dataSources) {
-            for (Object item : source.getModel().traverser().filter(DasTable.class)) {
-                if (item instanceof DasTable && (((DasTable) item).getName().equals(prefixedTable) || ((DasTable) item).getName().equals(table))) {
-                    TableInfo tableInfo = new TableInfo((DasTable) item);
-                    for (DasColumn column : tableInfo.getColumns()) {
-                        list.add(DatabaseUtils.buildLookup(column, true, project));
-                    }
-                }
+        for (TableInfo tableInfo : findTables(table, project)) {
+            for (ColumnInfo column : tableInfo.getColumns()) {
+                list.add(DatabaseUtils.buildLookup(column, tableInfo, true, project));
             }
         }
         return list;
     }
 
     public static ArrayList<LookupElementBuilder> getLookupItemsTables(Project project, PhpExpression position) {
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        List<DbDataSource> dataSources = facade.getDataSources();
-
-        // Code to test tests :)
-        //dataSources.clear();
-        //dataSources.add(new TestDataSource(project));
-
         ArrayList<LookupElementBuilder> list = new ArrayList<>();
-        for (DbDataSource source : dataSources) {
-            JBIterable<DasTable> filtered = source.getModel().traverser().filter(DasTable.class);
-             for (Object item : filtered) {
-                if (item instanceof DasTable) {
-                    list.add(DatabaseUtils.buildLookup(item, true, project));
-                }
-            }
+        for (TableInfo tableInfo : SchemaSnapshot.getInstance(project).getTables()) {
+            list.add(DatabaseUtils.buildLookup(tableInfo, true, project));
         }
         return list;
     }
 
+    /**
+     * Tables by name with table prefix applied, or by name as is.
+     */
+    @NotNull
+    public static List<TableInfo> findTables(String table, Project project) {
+        final SchemaSnapshot snapshot = SchemaSnapshot.getInstance(project);
+        final List<TableInfo> tables = snapshot.findTables(AddTablePrefix(table, true, project), null);
+        return tables.isEmpty() ? snapshot.findTables(table, null) : tables;
+    }
+
     public static ArrayList<LookupElementBuilder> getLookupItemsByAnnotations(PhpClass phpClass, PhpExpression position) {
         if (phpClass == null)
             return null;
@@ -106,18 +84,47 @@ public class DatabaseUtils {
         return extractParamsFromCondition(condition, true);
     }
 
+    /**
+     * Parameters of SQL condition text, see {@link SqlTokenizer}.
+     */
     public static String[] extractParamsFromCondition(String condition, boolean includeColon) {
-        LinkedHashSet<String> matches = new LinkedHashSet<>();
-        String pattern = "(?<![:\\[])(:[^\\W\\d]\\w+)";
-        Pattern r = Pattern.compile(pattern);
-        Matcher m = r.matcher(condition);
-        while (m.find()) {
-            String param = m.group(1);
-            if (! includeColon)
-                param = param.replace(":", "");
-            matches.add(param);
+        final Set<String> params = SqlTokenizer.getParams(condition);
+        final String[] result = new String[params.size()];
+        int i = 0;
+        for (String param : params) {
+            result[i++] = includeColon ? param : param.substring(1);
+        }
+        return result;
+    }
+
+    /**
+     * Parameters of condition passed as string literal or concatenation of literals.
+     */
+    public static String[] extractParamsFromCondition(PsiElement element, boolean includeColon) {
+        return extractParamsFromCondition(getConditionText(element), includeColon);
+    }
+
+    /**
+     * SQL text of string literal, or literals of concatenation joined with "?" in place of other expressions.
+     */
+    @NotNull
+    public static String getConditionText(PsiElement element) {
+        if (element instanceof StringLiteralExpression) {
+            return ((StringLiteralExpression) element).getContents();
         }
-        return matches.toArray(new String[0]);
+
+        if (element instanceof ConcatenationExpression) {
+            final PsiElement left = ((ConcatenationExpression) element).getLeftOperand();
+            final PsiElement right = ((ConcatenationExpression) element).getRightOperand();
+            return getConcatenationOperandText(left) + getConcatenationOperandText(right);
+        }
+
+        return "";
+    }
+
+    @NotNull
+    private static String getConcatenationOperandText(PsiElement operand) {
+        return operand instanceof ConcatenationExpression || operand instanceof StringLiteralExpression ? getConditionText(operand) : "?";
     }
 
     public static String RemoveTablePrefix(String table, Project project) {
@@ -143,10 +150,6 @@ public class DatabaseUtils {
     public static LookupElementBuilder buildLookup(Object field, boolean showSchema, Project project) {
         String lookupString = "-";
 
-        if (field instanceof DasObject) {
-            lookupString = ((DasObject) field).getName();
-            lookupString = RemoveTablePrefix(lookupString, project);
-        }
         if (field instanceof Field) {
             lookupString = ((Field) field).getName();
         }
@@ -160,57 +163,57 @@ public class DatabaseUtils {
             builder = builder.withTypeText(((PhpDocProperty) field).getType().toString())
                     .withIcon(((PhpDocProperty) field).getIcon());
         }
-        if (field instanceof DasColumn) {
-            DasColumn column = (DasColumn) field;
-            builder = builder.withTypeText(column.getDasType().toDataType().typeName, true);
-            if (column.getDasParent() != null && showSchema && column.getDasParent().getDasParent() != null) {
-                builder = builder.withTailText(" (" + column.getDasParent().getDasParent().getName() + "." + RemoveTablePrefix(column.getDasParent().getName(), project) + ")", true);
-            }
-            if (column instanceof DasColumn)
-                builder = builder.withIcon(TypePresentationService.getService().getIcon(field));
-            if (column instanceof DbColumnImpl)
-                builder = builder.withIcon(((DbColumnImpl) column).getIcon());
-        }
-        if (field instanceof DasTable) {
-            DasTable table = (DasTable) field;
-            DasObject tableSchema = table.getDasParent();
-            if (tableSchema != null) {
-                if (tableSchema instanceof DbNamespaceImpl) {
-                    Object dataSource = tableSchema.getDasParent();
-                   // DbDataSourceImpl dataSource = (DbDataSourceImpl) ((DbNamespaceImpl) tableSchema).getDbParent();
-                    if (dataSource instanceof DbDataSourceImpl) {
-                        builder = builder.withTypeText(((DbDataSourceImpl)dataSource).getName(), true);
-                    }
-                    if (dataSource instanceof DbDataSourceImpl) {
-                        builder = builder.withTypeText(((DbDataSourceImpl)dataSource).getName(), true);
-                    }
-                }
-            }
-            if (showSchema && tableSchema != null) {
-                builder = builder.withTailText(" (" + table.getDasParent().getName() + ")", true);
-            }
-            if (table instanceof DasTable)
-                builder = builder.withIcon(TypePresentationService.getService().getIcon(table));
-            if (table instanceof DbElement)
-                builder = builder.withIcon(((DbElement) table).getIcon());
-
-            builder = builder.withInsertHandler((insertionContext, lookupElement) -> {
-                if (Yii2SupportSettings.getInstance(project).insertWithTablePrefix) {
-                    Document document = insertionContext.getDocument();
-                    int insertPosition = insertionContext.getSelectionEndOffset();
-                    document.insertString(insertPosition - lookupElement.getLookupString().length(), "{{%");
-                    document.insertString(insertPosition + 3, "}}");
-                    insertionContext.getEditor().getCaretModel().getCurrentCaret().moveToOffset(insertPosition + 5);
-                }
-            });
-        }
 
+        return builder;
+    }
+
+    @NotNull
+    public static LookupElementBuilder buildLookup(ColumnInfo column, TableInfo table, boolean showSchema, Project project) {
+        LookupElementBuilder builder = LookupElementBuilder.create(column, column.getName())
+                .withTypeText(column.getType(), true)
+                .withIcon(AllIcons.Nodes.DataColumn);
+        if (showSchema && table.getSchemaName() != null) {
+            builder = builder.withTailText(" (" + table.getSchemaName() + "." + RemoveTablePrefix(table.getTableName(), project) + ")", true);
+        }
 
         return builder;
     }
 
+    @NotNull
+    public static LookupElementBuilder buildLookup(TableInfo table, boolean showSchema, Project project) {
+        LookupElementBuilder builder = LookupElementBuilder.create(table, RemoveTablePrefix(table.getTableName(), project))
+                .withIcon(AllIcons.Nodes.DataTables);
+        if (table.getDataSourceName() != null) {
+            builder = builder.withTypeText(table.getDataSourceName(), true);
+        }
+        if (showSchema && table.getSchemaName() != null) {
+            builder = builder.withTailText(" (" + table.getSchemaName() + ")", true);
+        }
+
+        return builder.withInsertHandler((insertionContext, lookupElement) -> {
+            if (Yii2SupportSettings.getInstance(project).insertWithTablePrefix) {
+                Document document = insertionContext.getDocument();
+                int insertPosition = insertionContext.getSelectionEndOffset();
+                document.insertString(insertPosition - lookupElement.getLookupString().length(), "{{%");
+                document.insertString(insertPosition + 3, "}}");
+                insertionContext.getEditor().getCaretModel().getCurrentCaret().moveToOffset(insertPosition + 5);
+            }
+        });
+    }
+
+    /**
+     * Table of ActiveRecord class with table prefix applied, null for other classes.
+     */
     @Nullable
     public static String getTableByActiveRecordClass(PhpClass phpClass) {
+        final String table = ActiveRecordTables.getInstance(phpClass.getProject()).getTable(phpClass.getFQN());
+        return table != null ? table : getTableByTableNameMethod(phpClass);
+    }
+
+    /**
+     * Table from "tableName()" PSI, for classes which are not resolved by {@link ActiveRecordTables}.
+     */
+    private static String getTableByTableNameMethod(PhpClass phpClass) {
         Method method = phpClass.findMethodByName("tableName");
         if (method != null) {
             Collection<PhpReturn> returns = PsiTreeUtil.findChildrenOfType(method, PhpReturn.class);
@@ -278,41 +281,18 @@ public class DatabaseUtils {
     }
 
     public static boolean isTableExists(String table, Project project) {
-        if(table == null)
-            return false;
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        List<DbDataSource> dataSources = facade.getDataSources();
-        table = ClassUtils.removeQuotes(table);
-
-        for (DbDataSource source : dataSources) {
-            for (Object item : source.getModel().traverser().filter(DasTable.class)) {
-                if (item instanceof DasTable && ((DasTable) item).getName().equals(table)) {
-                   return true;
-                }
-            }
-        }
-        return false;
+        return SchemaSnapshot.getInstance(project).isTableExists(table);
     }
 
     public static ArrayList<String> getColumnsByTable(String table, Project project) {
-        String prefixedTable = AddTablePrefix(table, true, project);
-
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        List<DbDataSource> dataSources = facade.getDataSources();
-
         ArrayList<String> list = new ArrayList<>();
         if(table == null)
             return list;
-        table = ClassUtils.removeQuotes(prefixedTable);
-        for (DbDataSource source : dataSources) {
-            for (Object item : source.getModel().traverser().filter(DasTable.class)) {
-
-                if (item instanceof DasTable && ((DasTable) item).getName().equals(prefixedTable)) {
-                    TableInfo tableInfo = new TableInfo((DasTable) item);
-                    for (DasColumn column : tableInfo.getColumns()) {
-                        list.add(ClassUtils.removeQuotes(column.getName()));
-                    }
-                }
+
+        String prefixedTable = AddTablePrefix(table, true, project);
+        for (TableInfo tableInfo : SchemaSnapshot.getInstance(project).findTables(prefixedTable, null)) {
+            for (ColumnInfo column : tableInfo.getColumns()) {
+                list.add(ClassUtils.removeQuotes(column.getName()));
             }
         }
         return list;
@@ -333,65 +313,37 @@ public class DatabaseUtils {
     public static ArrayList<PhpDocPropertyTag> getUnusedProperties(String table, List<PhpDocPropertyTag> propertyTags, PhpClass phpClass) {
         ArrayList<PhpDocPropertyTag> unusedProperties = new ArrayList<>();
 
-        ArrayList<String> columns = getColumnsByTable(table, phpClass.getProject());
+        Set<String> columns = new HashSet<>(getColumnsByTable(table, phpClass.getProject()));
         for (PhpDocPropertyTag tag : propertyTags) {
             PhpDocProperty property = tag.getProperty();
-            if (!isPropertyUsed(property, columns, phpClass ))
+            if (property != null && !columns.contains(property.getName()) && !ClassUtils.isFieldExists(phpClass, property.getName(), true))
                 unusedProperties.add(tag);
         }
         return unusedProperties;
     }
 
     public static ArrayList<VirtualProperty> getNotDeclaredColumns(String table, Collection<Field> fields, Project project) {
-
-        DbPsiFacade facade = DbPsiFacade.getInstance(project);
-        List<DbDataSource> dataSources = facade.getDataSources();
-
         final ArrayList<VirtualProperty> result = new ArrayList<>();
         if (table == null)
             return result;
-        String preferredDataSourceId = Yii2SupportSettings.getInstance(project).dataSourceId;
-        for (DbDataSource source : dataSources) {
-            if(!preferredDataSourceId.isEmpty() && !preferredDataSourceId.equals(source.getUniqueId())){
-                continue;
-            }
-            for (DasTable item : source.getModel().traverser().filter(DasTable.class)) {
-                table = ClassUtils.removeQuotes(table);
-                if (item != null && item.getName().equals(table)) {
-
-                    // In some cases Idea give tables from another databases. Extracting database name from URL and comparing with actual one.
-                    DasObject db = item.getDasParent();
-                    if(db != null && source.getConnectionConfig() != null){
-                        String dbUrl = source.getConnectionConfig().getUrl();
-                        if(!dbUrl.endsWith("/")
-                                && !dbUrl.substring(dbUrl.lastIndexOf('/')+1).equals(db.getName()))
-                        {
-                            continue;
-                        }
-                    }
-
-                    TableInfo tableInfo = new TableInfo(item);
 
-                    for (DasColumn column : tableInfo.getColumns()) {
-                        boolean found = false;
-                        PhpDocProperty prevProperty = null;
-                        for (Field field : fields) {
-
-                            if (field != null && field.getName().equals(column.getName())) {
-                                found = true;
-                                break;
-                            }
-                        }
-                        if (!found) {
-                            VirtualProperty newItem = new VirtualProperty(column.getName(),
-                                    column.getDasType().toDataType().typeName,
-                                    column.getDasType().toDataType().typeName,
-                                    column.getComment(),
-                                     null);
-                            result.add(newItem);
-                        }
-                    }
+        final Set<String> fieldNames = new HashSet<>();
+        for (Field field : fields) {
+            if (field != null) {
+                fieldNames.add(field.getName());
+            }
+        }
 
+        String preferredDataSourceId = Yii2SupportSettings.getInstance(project).dataSourceId;
+        for (TableInfo tableInfo : SchemaSnapshot.getInstance(project).findTables(table, preferredDataSourceId)) {
+            for (ColumnInfo column : tableInfo.getColumns()) {
+                if (!fieldNames.contains(column.getName())) {
+                    VirtualProperty newItem = new VirtualProperty(column.getName(),
+                            column.getType(),
+                            column.getType(),
+                            column.getComment(),
+                            null);
+                    result.add(newItem);
                 }
             }
         }
@@ -1,6 +1,8 @@
 package com.nvlad.yii2support.common;
 
 import com.intellij.psi.PsiElement;
+import com.intellij.util.ArrayUtil;
+import com.jetbrains.php.lang.psi.elements.FieldReference;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.jetbrains.php.lang.psi.elements.Parameter;
 import com.jetbrains.php.lang.psi.elements.ParameterList;
@@ -64,4 +66,26 @@ public class MethodUtils {
         }
         return false;
     }
+
+    /**
+     * "Yii::$container->method()" call with at least one parameter.
+     */
+    public static boolean isYiiContainerMethod(PsiElement psiElement, String... methodNames) {
+        if (!(psiElement instanceof MethodReference) || ((MethodReference) psiElement).getParameters().length == 0) {
+            return false;
+        }
+
+        final MethodReference reference = (MethodReference) psiElement;
+        if (!ArrayUtil.contains(reference.getName(), methodNames)) {
+            return false;
+        }
+
+        final PhpExpression container = reference.getClassReference();
+        if (!(container instanceof FieldReference) || !"container".equals(container.getName())) {
+            return false;
+        }
+
+        final PhpExpression yii = ((FieldReference) container).getClassReference();
+        return yii != null && "Yii".equals(yii.getName());
+    }
 }
@@ -1,11 +1,13 @@
 package com.nvlad.yii2support.common;
 
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.impl.source.tree.LeafPsiElement;
-import com.jetbrains.php.lang.psi.elements.ArrayCreationExpression;
-import com.jetbrains.php.lang.psi.elements.ArrayHashElement;
-import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.lang.psi.elements.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -14,6 +16,8 @@ import java.util.HashSet;
  * Created by NVlad on 23.01.2017.
  */
 public class PhpUtil {
+    private static final int MAX_PATH_DEPTH = 20;
+
     @NotNull
     public static Collection<String> getArrayKeys(ArrayCreationExpression array) {
         final HashSet<String> result = new HashSet<>();
@@ -45,4 +49,99 @@ public class PhpUtil {
 
         return "";
     }
+
+    /**
+     * Path of expression relative to directory of its file: "__DIR__ . '/params.php'" gives "params.php",
+     * "dirname(__DIR__) . '/config'" gives "../config". String literals are returned as is,
+     * top level variables are followed. Null when expression can not be evaluated.
+     */
+    @Nullable
+    public static String getRelativePath(@Nullable PsiElement element) {
+        return getRelativePath(element, 0);
+    }
+
+    @Nullable
+    private static String getRelativePath(@Nullable PsiElement element, int depth) {
+        while (element instanceof ParenthesizedExpression) {
+            element = ((ParenthesizedExpression) element).getArgument();
+        }
+
+        if (element == null || depth > MAX_PATH_DEPTH) {
+            return null;
+        }
+
+        if (element instanceof StringLiteralExpression) {
+            return ((StringLiteralExpression) element).getContents();
+        }
+
+        if (element instanceof ConstantReference && "__DIR__".equals(((ConstantReference) element).getName())) {
+            return "";
+        }
+
+        if (element instanceof Variable) {
+            return getRelativePath(getLastAssignedValue((Variable) element), depth + 1);
+        }
+
+        if (element instanceof BinaryExpression) {
+            final BinaryExpression concatenation = (BinaryExpression) element;
+            final PsiElement operation = concatenation.getOperation();
+            if (operation == null || !".".equals(operation.getText())) {
+                return null;
+            }
+
+            final String left = getRelativePath(concatenation.getLeftOperand(), depth + 1);
+            final String right = getRelativePath(concatenation.getRightOperand(), depth + 1);
+            if (left == null || right == null) {
+                return null;
+            }
+
+            return left.isEmpty() ? StringUtil.trimStart(right, "/") : left + right;
+        }
+
+        if (element instanceof FunctionReference && !(element instanceof MethodReference)
+                && "dirname".equals(((FunctionReference) element).getName())) {
+            final PsiElement[] parameters = ((FunctionReference) element).getParameters();
+            if (parameters.length == 0 || (parameters.length > 1 && !StringUtil.isNotNegativeNumber(parameters[1].getText()))) {
+                return null;
+            }
+
+            final String path = getRelativePath(parameters[0], depth + 1);
+            if (path == null) {
+                return null;
+            }
+
+            final int levels = parameters.length > 1 ? Integer.parseInt(parameters[1].getText()) : 1;
+            final String parent = StringUtil.repeat("/..", levels);
+            return path.isEmpty() ? parent.substring(1) : path + parent;
+        }
+
+        return null;
+    }
+
+    /**
+     * Value of last top level assignment to variable before its usage.
+     */
+    @Nullable
+    private static PsiElement getLastAssignedValue(@NotNull Variable variable) {
+        final PsiFile file = variable.getContainingFile();
+        final String name = variable.getName();
+        PsiElement result = null;
+        for (AssignmentExpression assignment : PsiTreeUtil.findChildrenOfType(file, AssignmentExpression.class)) {
+            final PhpPsiElement value = assignment.getValue();
+            if (value == null) {
+                continue;
+            }
+
+            if (value.getTextRange().getEndOffset() > variable.getTextOffset()) {
+                break;
+            }
+
+            if (assignment.getVariable() instanceof Variable && name.equals(((Variable) assignment.getVariable()).getName())
+                    && PsiTreeUtil.getParentOfType(assignment, Function.class) == null) {
+                result = value;
+            }
+        }
+
+        return result;
+    }
 }
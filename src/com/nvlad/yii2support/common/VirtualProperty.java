@@ -1,6 +1,6 @@
 package com.nvlad.yii2support.common;
 
-import org.jetbrains.annotations.NotNull;
+import com.nvlad.yii2support.database.ColumnInfo;
 
 /**
  * Created by oleg on 06.04.2017.
@@ -45,7 +45,7 @@ public class VirtualProperty {
 
     public VirtualProperty(String name, String typeName, String typeFull, String comment, String prevColumn) {
         this.name = name;
-        this.type = DbTypeToSql(typeName);
+        this.type = ColumnInfo.toPhpType(typeName);
 
         this.comment = comment != null ? comment : "";
         if (! typeName.contains("text")) {
@@ -54,26 +54,4 @@ public class VirtualProperty {
 
         this.prevColumn = prevColumn;
     }
-
-    @NotNull
-    private String DbTypeToSql(String type) {
-        switch (type.toUpperCase()) {
-            case "INT": return "int";
-            case "TINYINT": return "bool";
-            case "BOOLEAN": return "bool";
-            case "BIGINT": return "int";
-            case "SMALLINT": return "int";
-            case "NUMERIC": return "int";
-            case "MEDIUMINT": return "int";
-            case "SMALLSERIAL": return "int";
-            case "SERIAL": return "int";
-            case "BIGSERIAL": return "int";
-            case "FLOAT": return "float";
-            case "REAL": return "float";
-            case "DOUBLE PRECISION": return "float";
-            case "DOUBLE": return "float";
-            case "TIMESTAMP": return "int";
-        }
-        return "string";
-    }
 }
@@ -1,99 +1,368 @@
 package com.nvlad.yii2support.common;
 
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.configurations.ConfigIndex;
+import com.nvlad.yii2support.configurations.YiiConfigModel;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Project service resolving Yii aliases. Aliases come from "aliases" sections of {@link YiiConfigModel}
+ * and {@link AliasIndex} (which take precedence) and from settings, "@app" without explicit definition is the application of context file.
+ * <p>
+ * Aliases of each Yii root are kept in a prefix trie by path segments, so the longest matching alias
+ * is found in O(alias depth). Tries and resolved paths are dropped after settings, alias or config index change.
+ */
 public class YiiAlias {
-    private static Map<Project, YiiAlias> yiiProjectAliasMap = new HashMap<>();
+    private static final String APP_ALIAS = "@app";
+    private static final String CONSOLE_APP_ALIAS = "@yii2support-console-command-app-root";
+    private static final String NOT_RESOLVED = "";
+    private static final int MAX_DEPTH = 10;
 
     public static YiiAlias getInstance(Project project) {
-        if (!yiiProjectAliasMap.containsKey(project)) {
-            yiiProjectAliasMap.put(project, new YiiAlias(project));
-        }
+        return ServiceManager.getService(project, YiiAlias.class);
+    }
 
-        return yiiProjectAliasMap.get(project);
+    public static void reset(Project project) {
+        final YiiAlias yiiAlias = project.getServiceIfCreated(YiiAlias.class);
+        if (yiiAlias != null) {
+            yiiAlias.reset();
+        }
     }
 
     private final Project myProject;
-    private final Map<String, String> myAliasMap;
-    private final Map<String, String> myResolvedAliasCache;
+    private final Map<String, AliasTrie> myTries = new ConcurrentHashMap<>();
+    private final Map<String, String> myResolvedAliasCache = new ConcurrentHashMap<>();
+    private volatile long myIndexStamp = -1;
 
-    protected YiiAlias(Project project) {
+    public YiiAlias(Project project) {
         myProject = project;
-        myAliasMap = new HashMap<>(new WeakHashMap<>(Yii2SupportSettings.getInstance(project).aliasMap));
-        myResolvedAliasCache = new HashMap<>();
     }
 
-    @Nullable
-    public String getAlias(@NotNull String alias, boolean console) {
-        return aliasFromMap(myAliasMap, alias, console);
+    public void reset() {
+        myTries.clear();
+        myResolvedAliasCache.clear();
     }
 
+    /**
+     * Path relative to primary Yii root (absolute for paths outside of it).
+     */
     @Nullable
     public String resolveAlias(@NotNull String alias, boolean console) {
-        String path = myResolvedAliasCache.get(alias);
-        if (path != null) {
-            return path;
+        return resolveAlias(alias, console, null);
+    }
+
+    /**
+     * Path relative to Yii root containing context file or to context Yii root itself (absolute for paths outside of it),
+     * "@app" is the application of context file. Values without "@" are treated as paths relative to Yii root.
+     */
+    @Nullable
+    public String resolveAlias(@NotNull String alias, boolean console, @Nullable VirtualFile context) {
+        if (!alias.startsWith("@")) {
+            return alias.replaceFirst("^/+", "");
         }
 
-        path = getAlias(alias, console);
-        if (path == null) {
-            return null;
+        final String path = resolvePath(alias, console, context);
+        final VirtualFile yiiRoot = getYiiRoot(context);
+        if (path == null || yiiRoot == null) {
+            return path;
         }
 
-        //myResolvedAliasCache.put(alias, StringUtils.stripStart(path, "/"));
-        myResolvedAliasCache.put(alias, path.replaceFirst("^/+", ""));
+        final String rootPath = yiiRoot.getPath();
+        if (path.equals(rootPath)) {
+            return "";
+        }
 
-        return myResolvedAliasCache.get(alias);
+        return path.startsWith(rootPath + "/") ? path.substring(rootPath.length() + 1) : path;
     }
 
     public VirtualFile resolveVirtualFile(@NotNull String alias, boolean console) {
-        String path = resolveAlias(alias, console);
+        return resolveVirtualFile(alias, console, null);
+    }
+
+    /**
+     * Resolves alias relative to Yii root containing context file (primary root when context is null).
+     */
+    @Nullable
+    public VirtualFile resolveVirtualFile(@NotNull String alias, boolean console, @Nullable VirtualFile context) {
+        final String path = resolvePath(alias, console, context);
         if (path == null) {
             return null;
         }
 
-        path = YiiApplicationUtils.getYiiRootPath(myProject) + "/" + path;
+        final VirtualFile yiiRoot = getYiiRoot(context);
+        return yiiRoot == null ? LocalFileSystem.getInstance().findFileByPath(path) : yiiRoot.getFileSystem().findFileByPath(path);
+    }
+
+    /**
+     * Absolute path of alias, file may not exist. Values without "@" are treated as paths relative to Yii root.
+     */
+    @Nullable
+    public String resolvePath(@NotNull String alias, boolean console, @Nullable VirtualFile context) {
+        final VirtualFile yiiRoot = getYiiRoot(context);
+        final String rootPath = yiiRoot == null ? null : yiiRoot.getPath();
+        if (!alias.startsWith("@")) {
+            return rootPath == null ? null : joinPath(rootPath, alias);
+        }
+
+        final YiiApplicationLayout.Owner application = context == null ? null : YiiApplicationLayout.getInstance(myProject).getApplication(context);
+        final String applicationPath = application == null ? null : application.directory.getPath();
+
+        checkIndexStamp();
+        final String cacheKey = (console ? "1" : "0") + rootPath + '\n' + applicationPath + '\n' + alias;
+        String path = myResolvedAliasCache.get(cacheKey);
+        if (path == null) {
+            final AliasTrie trie = getTrie(rootPath);
+            if (trie == null) {
+                // indexes are not ready, resolve by settings only and do not cache
+                final String result = resolve(buildTrie(rootPath, false), alias, console, applicationPath, 0);
+                return result == null ? null : FileUtil.toCanonicalPath(result);
+            }
+
+            path = resolve(trie, alias, console, applicationPath, 0);
+            path = path == null ? NOT_RESOLVED : FileUtil.toCanonicalPath(path);
+            myResolvedAliasCache.put(cacheKey, path);
+        }
 
-        return myProject.getBaseDir().getFileSystem().findFileByPath(path);
+        return path.equals(NOT_RESOLVED) ? null : path;
     }
 
     @Nullable
-    private String aliasFromMap(@NotNull Map<String, String> aliasMap, @NotNull String alias, boolean console) {
+    private static String resolve(@NotNull AliasTrie trie, @NotNull String alias, boolean console, @Nullable String applicationPath, int depth) {
         if (!alias.startsWith("@")) {
             return alias;
         }
 
-        if (console && alias.startsWith("@app/")) {
-             alias = "@yii2support-console-command-app-root" + alias.substring(4);
+        if (depth > MAX_DEPTH) {
+            return null;
+        }
+
+        final boolean appAlias = alias.equals(APP_ALIAS) || alias.startsWith(APP_ALIAS + "/");
+        if (console && appAlias) {
+            final String consoleAlias = CONSOLE_APP_ALIAS + alias.substring(APP_ALIAS.length());
+            final String resolved = resolveByTrie(trie, consoleAlias, console, applicationPath, depth);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+
+        final String resolved = resolveByTrie(trie, alias, console, applicationPath, depth);
+        if (resolved == null && appAlias && applicationPath != null) {
+            return applicationPath + alias.substring(APP_ALIAS.length());
+        }
+
+        return resolved;
+    }
+
+    @Nullable
+    private static String resolveByTrie(@NotNull AliasTrie trie, @NotNull String alias, boolean console, @Nullable String applicationPath, int depth) {
+        final AliasTrie match = trie.findLongestPrefix(alias);
+        if (match == null) {
+            return null;
+        }
+
+        return resolve(trie, match.target + alias.substring(match.length), console, applicationPath, depth + 1);
+    }
+
+    private void checkIndexStamp() {
+        final long stamp = AliasIndex.getModificationTracker(myProject).getModificationCount()
+                + ConfigIndex.getModificationTracker(myProject).getModificationCount();
+        if (stamp != myIndexStamp) {
+            reset();
+            myIndexStamp = stamp;
+        }
+    }
+
+    @Nullable
+    private VirtualFile getYiiRoot(@Nullable VirtualFile context) {
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(myProject);
+        if (context != null && context.isDirectory() && layout.getRoots().contains(context)) {
+            return context;
+        }
+
+        final VirtualFile yiiRoot = context == null ? null : layout.getRoot(context);
+        return yiiRoot == null ? layout.getRoot() : yiiRoot;
+    }
+
+    /**
+     * Trie of Yii root, null while indexes are not ready.
+     */
+    @Nullable
+    private AliasTrie getTrie(@Nullable String rootPath) {
+        final String key = rootPath == null ? "" : rootPath;
+        AliasTrie trie = myTries.get(key);
+        if (trie == null) {
+            try {
+                trie = buildTrie(rootPath, true);
+            } catch (IndexNotReadyException e) {
+                return null;
+            }
+
+            myTries.put(key, trie);
+        }
+
+        return trie;
+    }
+
+    @NotNull
+    private AliasTrie buildTrie(@Nullable String rootPath, boolean withIndex) {
+        final AliasTrie trie = new AliasTrie();
+        if (withIndex) {
+            addConfigAliases(trie, rootPath);
+            addIndexAliases(trie, rootPath);
         }
 
-        String value = aliasMap.get(alias);
-        if (value != null) {
-            return aliasFromMap(aliasMap, alias, console);
+        for (Map.Entry<String, String> entry : Yii2SupportSettings.getInstance(myProject).aliasMap.entrySet()) {
+            final String alias = AliasIndex.normalizeAlias(entry.getKey());
+            final String target = entry.getValue().startsWith("@") || rootPath == null ? entry.getValue() : joinPath(rootPath, entry.getValue());
+            if (alias != null && (rootPath != null || target.startsWith("@"))) {
+                trie.put(alias, target);
+            }
         }
 
-        String foundAlias = null;
-        for (String aliasKey : aliasMap.keySet()) {
-            if (alias.startsWith(aliasKey)) {
-                if (foundAlias == null || aliasKey.length() > foundAlias.length()) {
-                    foundAlias = aliasKey;
+        return trie;
+    }
+
+    /**
+     * "aliases" sections of application configs of this root, "-local" configs are already merged last.
+     */
+    private void addConfigAliases(@NotNull AliasTrie trie, @Nullable String rootPath) {
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(myProject);
+        for (YiiApplicationLayout.Owner application : layout.getApplications()) {
+            final VirtualFile applicationRoot = layout.getRoot(application.directory);
+            if (applicationRoot == null || !applicationRoot.getPath().equals(rootPath)) {
+                continue;
+            }
+
+            for (Map.Entry<String, YiiConfigModel.ConfigEntry> entry : YiiConfigModel.getInstance(myProject, application).getAliases().entrySet()) {
+                final String alias = AliasIndex.normalizeAlias(entry.getKey());
+                if (alias != null && !entry.getValue().value.contains("://")) {
+                    trie.put(alias, toAbsoluteTarget(entry.getValue().value, entry.getValue().file));
                 }
             }
         }
+    }
 
-        if (foundAlias == null) {
-            return null;
+    /**
+     * Definitions of this root are preferred, "-local" configs over others as they are merged last.
+     * Definitions outside of Yii roots (vendor) are used when root has none, definitions of other roots are skipped.
+     */
+    private void addIndexAliases(@NotNull AliasTrie trie, @Nullable String rootPath) {
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(myProject);
+        final GlobalSearchScope scope = GlobalSearchScope.allScope(myProject);
+        final List<String> aliases = new ArrayList<>(fileBasedIndex.getAllKeys(AliasIndex.identity, myProject));
+        for (String alias : aliases) {
+            final String[] targets = new String[3];
+            fileBasedIndex.processValues(AliasIndex.identity, alias, null, (file, target) -> {
+                final VirtualFile fileRoot = layout.getRoot(file);
+                final String fileRootPath = fileRoot == null ? null : fileRoot.getPath();
+                final int priority;
+                if (fileRoot == null) {
+                    priority = 2;
+                } else if (Objects.equals(fileRootPath, rootPath)) {
+                    priority = file.getNameWithoutExtension().endsWith("-local") ? 0 : 1;
+                } else {
+                    return true;
+                }
+
+                if (targets[priority] == null) {
+                    targets[priority] = toAbsoluteTarget(target, file);
+                }
+
+                return targets[0] == null;
+            }, scope);
+
+            for (String target : targets) {
+                if (target != null) {
+                    trie.put(alias, target);
+                    break;
+                }
+            }
         }
+    }
+
+    @NotNull
+    private static String toAbsoluteTarget(@NotNull String target, @NotNull VirtualFile file) {
+        if (target.startsWith("@") || target.startsWith("/") || file.getParent() == null) {
+            return target;
+        }
+
+        return FileUtil.toCanonicalPath(joinPath(file.getParent().getPath(), target));
+    }
+
+    @NotNull
+    private static String joinPath(@NotNull String directory, @NotNull String path) {
+        final String relativePath = StringUtil.trimStart(path, "/");
+        return relativePath.isEmpty() ? directory : StringUtil.trimEnd(directory, "/") + "/" + relativePath;
+    }
+
+    /**
+     * Aliases split by "/": "@yii/bootstrap" is stored as "@yii" -> "bootstrap".
+     */
+    private static class AliasTrie {
+        private Map<String, AliasTrie> children;
+        private String target;
+        private int length;
+
+        /**
+         * Adds alias unless already defined, so earlier (index) definitions win.
+         */
+        private void put(@NotNull String alias, @NotNull String target) {
+            AliasTrie node = this;
+            for (String segment : StringUtil.split(alias, "/")) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+
+                node = node.children.computeIfAbsent(segment, k -> new AliasTrie());
+            }
 
-        value = alias.replace(foundAlias, aliasMap.get(foundAlias));
-        return aliasFromMap(aliasMap, value, console);
+            if (node.target == null) {
+                node.target = target;
+                node.length = alias.length();
+            }
+        }
+
+        /**
+         * Node of the longest alias which is equal to value or followed by "/" in it.
+         */
+        @Nullable
+        private AliasTrie findLongestPrefix(@NotNull String value) {
+            AliasTrie result = null;
+            AliasTrie node = this;
+            int start = 0;
+            while (node.children != null && start < value.length()) {
+                int end = value.indexOf('/', start);
+                if (end == -1) {
+                    end = value.length();
+                }
+
+                node = node.children.get(value.substring(start, end));
+                if (node == null) {
+                    break;
+                }
+
+                if (node.target != null) {
+                    result = node;
+                }
+
+                start = end + 1;
+            }
+
+            return result;
+        }
     }
 }
@@ -0,0 +1,609 @@
+package com.nvlad.yii2support.common;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Application layout of Yii roots of project: root directory, template, applications and (nested) modules.
+ * Detected once and kept as immutable path trie per root, so owner of file is found in O(path depth).
+ * Changed parts of trie are rebuilt on VFS events, whole layout is rebuilt after root or template change.
+ * <p>
+ * First root is configured by "Yii Root Path" setting, additional roots have application names
+ * qualified by root path, so views and render calls of different roots never match.
+ */
+public class YiiApplicationLayout implements Disposable {
+    private static final String MODULES_DIRECTORY = "modules";
+    private static final String BASIC_APPLICATION = "app";
+
+    private final Project myProject;
+    private final Object myLock = new Object();
+    private volatile List<Layout> myLayouts;
+
+    public YiiApplicationLayout(Project project) {
+        myProject = project;
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                processEvents(events);
+            }
+        });
+    }
+
+    public static YiiApplicationLayout getInstance(Project project) {
+        return ServiceManager.getService(project, YiiApplicationLayout.class);
+    }
+
+    /**
+     * Primary Yii root.
+     */
+    @Nullable
+    public VirtualFile getRoot() {
+        return getLayouts().get(0).root;
+    }
+
+    /**
+     * Yii root containing file (the nearest one for nested roots).
+     */
+    @Nullable
+    public VirtualFile getRoot(@NotNull VirtualFile file) {
+        return getRoot(file.getPath());
+    }
+
+    @Nullable
+    public VirtualFile getRoot(@NotNull String path) {
+        final Layout layout = findLayout(getLayouts(), path);
+        return layout == null ? null : layout.root;
+    }
+
+    @NotNull
+    public List<VirtualFile> getRoots() {
+        final List<VirtualFile> result = new ArrayList<>();
+        for (Layout layout : getLayouts()) {
+            if (layout.root != null) {
+                result.add(layout.root);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Template of primary Yii root.
+     */
+    @NotNull
+    public YiiApplicationTemplate getTemplate() {
+        return getLayouts().get(0).template;
+    }
+
+    @NotNull
+    public YiiApplicationTemplate getTemplate(@NotNull VirtualFile root) {
+        for (Layout layout : getLayouts()) {
+            if (root.equals(layout.root)) {
+                return layout.template;
+            }
+        }
+
+        return YiiApplicationTemplate.Unknown;
+    }
+
+    /**
+     * True for primary root with single "app" application (root contains "controllers" directory).
+     */
+    public boolean isSingleApplication() {
+        return getLayouts().get(0).singleApplication;
+    }
+
+    @NotNull
+    public Collection<Owner> getApplications() {
+        final List<Owner> result = new ArrayList<>();
+        for (Layout layout : getLayouts()) {
+            if (layout.trie.owner != null) {
+                result.add(layout.trie.owner);
+            } else if (layout.trie.children != null) {
+                for (Node node : layout.trie.children.values()) {
+                    if (node.owner != null) {
+                        result.add(node.owner);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @NotNull
+    public Collection<Owner> getModules() {
+        final List<Owner> result = new ArrayList<>();
+        for (Layout layout : getLayouts()) {
+            collectModules(layout.trie, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Application or module containing file, null for files outside of Yii roots.
+     */
+    @Nullable
+    public Owner getOwner(@NotNull VirtualFile file) {
+        return getOwner(file.getPath());
+    }
+
+    /**
+     * Owner of path, file may not exist.
+     */
+    @Nullable
+    public Owner getOwner(@NotNull String path) {
+        final Layout layout = findLayout(getLayouts(), path);
+        return layout == null ? null : layout.getOwner(path);
+    }
+
+    /**
+     * Application or module by name, see {@link #getApplicationName(VirtualFile)}.
+     */
+    @Nullable
+    public Owner findOwner(@NotNull String name) {
+        for (Owner owner : getApplications()) {
+            if (owner.name.equals(name)) {
+                return owner;
+            }
+        }
+
+        for (Owner owner : getModules()) {
+            if (owner.name.equals(name)) {
+                return owner;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Application containing file, modules belong to their application. Null for files outside of applications.
+     */
+    @Nullable
+    public Owner getApplication(@NotNull VirtualFile file) {
+        final String path = file.getPath();
+        final Layout layout = findLayout(getLayouts(), path);
+        return layout == null ? null : layout.getApplication(path);
+    }
+
+    /**
+     * Application name used by view and render call indexes: "app" for single application layouts,
+     * otherwise application directory name or module path relative to Yii root ("backend/modules/admin").
+     * Names of additional roots are prefixed with root path.
+     */
+    @NotNull
+    public String getApplicationName(@NotNull VirtualFile file) {
+        return getApplicationName(file.getPath());
+    }
+
+    @NotNull
+    public String getApplicationName(@NotNull String path) {
+        final List<Layout> layouts = getLayouts();
+        Layout layout = findLayout(layouts, path);
+        if (layout == null) {
+            layout = layouts.get(0);
+        }
+
+        if (layout.root == null || !layout.root.isValid()) {
+            return "";
+        }
+
+        if (layout.singleApplication) {
+            return layout.qualifier + BASIC_APPLICATION;
+        }
+
+        final Owner owner = layout.getOwner(path);
+        return owner == null ? "" : owner.name;
+    }
+
+    /**
+     * Scope of Yii root containing file, so index lookups do not scan other roots.
+     */
+    @NotNull
+    public GlobalSearchScope getSearchScope(@Nullable VirtualFile file) {
+        final List<Layout> layouts = getLayouts();
+        final Layout layout = file != null && layouts.size() > 1 ? findLayout(layouts, file.getPath()) : null;
+        if (layout == null || layout.root == null) {
+            return GlobalSearchScope.projectScope(myProject);
+        }
+
+        return GlobalSearchScopesCore.directoryScope(myProject, layout.root, true);
+    }
+
+    public void reset() {
+        synchronized (myLock) {
+            myLayouts = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        reset();
+    }
+
+    @NotNull
+    private List<Layout> getLayouts() {
+        List<Layout> layouts = myLayouts;
+        if (layouts == null) {
+            synchronized (myLock) {
+                layouts = myLayouts;
+                if (layouts == null) {
+                    layouts = buildLayouts();
+                    myLayouts = layouts;
+                }
+            }
+        }
+
+        return layouts;
+    }
+
+    @NotNull
+    private List<Layout> buildLayouts() {
+        final Yii2SupportSettings settings = Yii2SupportSettings.getInstance(myProject);
+        final List<Layout> layouts = new ArrayList<>();
+        final Set<VirtualFile> roots = new HashSet<>();
+        final VirtualFile primaryRoot = YiiApplicationUtils.findYiiRootVirtualFile(myProject, settings.yiiRootPath);
+        layouts.add(buildLayout(primaryRoot, ""));
+        if (primaryRoot != null) {
+            roots.add(primaryRoot);
+        }
+
+        final VirtualFile baseDir = myProject.getBaseDir();
+        for (String path : settings.additionalYiiRootPaths) {
+            if (StringUtil.isEmptyOrSpaces(path)) {
+                continue;
+            }
+
+            final VirtualFile root = YiiApplicationUtils.findYiiRootVirtualFile(myProject, path.trim());
+            if (root != null && root.isDirectory() && roots.add(root)) {
+                final String relativePath = baseDir == null ? null : VfsUtilCore.getRelativePath(root, baseDir, '/');
+                layouts.add(buildLayout(root, (relativePath == null ? root.getPath() : relativePath) + ":"));
+            }
+        }
+
+        return Collections.unmodifiableList(layouts);
+    }
+
+    @Nullable
+    private static Layout findLayout(@NotNull List<Layout> layouts, @NotNull String path) {
+        Layout result = null;
+        for (Layout layout : layouts) {
+            if (layout.root != null && isUnder(path, layout.root.getPath())
+                    && (result == null || layout.root.getPath().length() > result.root.getPath().length())) {
+                result = layout;
+            }
+        }
+
+        return result;
+    }
+
+    private void processEvents(@NotNull List<? extends VFileEvent> events) {
+        final List<Layout> layouts = myLayouts;
+        if (layouts == null || myProject.isDisposed()) {
+            return;
+        }
+
+        final Set<String> changedPaths = new LinkedHashSet<>();
+        for (VFileEvent event : events) {
+            if (event instanceof VFileCreateEvent || event instanceof VFileDeleteEvent || event instanceof VFileCopyEvent) {
+                changedPaths.add(event.getPath());
+            } else if (event instanceof VFileMoveEvent) {
+                changedPaths.add(((VFileMoveEvent) event).getOldPath());
+                changedPaths.add(((VFileMoveEvent) event).getNewPath());
+            } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                changedPaths.add(((VFilePropertyChangeEvent) event).getOldPath());
+                changedPaths.add(((VFilePropertyChangeEvent) event).getNewPath());
+            }
+        }
+
+        if (changedPaths.isEmpty()) {
+            return;
+        }
+
+        final List<Layout> result = new ArrayList<>(layouts.size());
+        boolean changed = false;
+        for (Layout layout : layouts) {
+            if (layout.root == null) {
+                result.add(layout);
+                continue;
+            }
+
+            final Set<String> changedOwners = new LinkedHashSet<>();
+            if (!layout.root.isValid() || !layout.collectChangedOwners(changedPaths, changedOwners)) {
+                reset();
+                return;
+            }
+
+            if (changedOwners.isEmpty()) {
+                result.add(layout);
+            } else {
+                result.add(layout.withRescannedOwners(changedOwners));
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            synchronized (myLock) {
+                if (myLayouts == layouts) {
+                    myLayouts = Collections.unmodifiableList(result);
+                }
+            }
+        }
+    }
+
+    private static boolean isUnder(@NotNull String path, @NotNull String directoryPath) {
+        if (directoryPath.endsWith("/")) {
+            return path.length() > directoryPath.length() && path.startsWith(directoryPath);
+        }
+
+        return path.length() > directoryPath.length() + 1 && path.startsWith(directoryPath) && path.charAt(directoryPath.length()) == '/';
+    }
+
+    private static void collectModules(@NotNull Node node, @NotNull List<Owner> result) {
+        if (node.children == null) {
+            return;
+        }
+
+        for (Node child : node.children.values()) {
+            if (child.owner != null && child.owner.module != null) {
+                result.add(child.owner);
+            }
+
+            collectModules(child, result);
+        }
+    }
+
+    @NotNull
+    private static Layout buildLayout(@Nullable VirtualFile root, @NotNull String qualifier) {
+        if (root == null || !root.isValid()) {
+            return new Layout(null, qualifier, YiiApplicationTemplate.Unknown, false, Node.EMPTY);
+        }
+
+        final YiiApplicationTemplate template = YiiApplicationUtils.getAppTemplate(root);
+        if (root.findChild("controllers") != null) {
+            final Layout layout = new Layout(root, qualifier, template, true, Node.EMPTY);
+            final Owner owner = new Owner(qualifier + BASIC_APPLICATION, BASIC_APPLICATION, null, "", root);
+            return layout.withTrie(new Node(owner, layout.scanModules(owner, "")));
+        }
+
+        final Layout layout = new Layout(root, qualifier, template, false, Node.EMPTY);
+        final Map<String, Node> applications = new HashMap<>();
+        for (VirtualFile directory : root.getChildren()) {
+            if (!directory.isDirectory() || directory.getName().startsWith(".")) {
+                continue;
+            }
+
+            final String name = directory.getName();
+            final Owner owner = new Owner(qualifier + name, name, null, name, directory);
+            applications.put(name, new Node(owner, layout.scanModules(owner, name + "/")));
+        }
+
+        return layout.withTrie(new Node(null, applications));
+    }
+
+    /**
+     * Application or module.
+     */
+    public static class Owner {
+        /**
+         * Name used as application of views and render calls.
+         */
+        @NotNull
+        public final String name;
+        @NotNull
+        public final String application;
+        /**
+         * Module id, nested module ids are separated by "/", null for application.
+         */
+        @Nullable
+        public final String module;
+        /**
+         * Path of "@app" directory of owner relative to Yii root, empty for single application layouts.
+         */
+        @NotNull
+        public final String basePath;
+        @NotNull
+        public final VirtualFile directory;
+
+        private Owner(@NotNull String name, @NotNull String application, @Nullable String module, @NotNull String basePath, @NotNull VirtualFile directory) {
+            this.name = name;
+            this.application = application;
+            this.module = module;
+            this.basePath = basePath;
+            this.directory = directory;
+        }
+    }
+
+    private static class Node {
+        private static final Node EMPTY = new Node(null, Collections.emptyMap());
+
+        @Nullable
+        private final Owner owner;
+        @Nullable
+        private final Map<String, Node> children;
+
+        private Node(@Nullable Owner owner, @NotNull Map<String, Node> children) {
+            this.owner = owner;
+            this.children = children.isEmpty() ? null : children;
+        }
+
+        @Nullable
+        private Node getChild(@NotNull String name) {
+            return children == null ? null : children.get(name);
+        }
+    }
+
+    private static class Layout {
+        @Nullable
+        private final VirtualFile root;
+        @NotNull
+        private final String qualifier;
+        @NotNull
+        private final YiiApplicationTemplate template;
+        private final boolean singleApplication;
+        @NotNull
+        private final Node trie;
+
+        private Layout(@Nullable VirtualFile root, @NotNull String qualifier, @NotNull YiiApplicationTemplate template, boolean singleApplication, @NotNull Node trie) {
+            this.root = root;
+            this.qualifier = qualifier;
+            this.template = template;
+            this.singleApplication = singleApplication;
+            this.trie = trie;
+        }
+
+        @NotNull
+        private Layout withTrie(@NotNull Node trie) {
+            return new Layout(root, qualifier, template, singleApplication, trie);
+        }
+
+        @Nullable
+        private Owner getOwner(@NotNull String path) {
+            if (root == null) {
+                return null;
+            }
+
+            final String rootPath = root.getPath();
+            Node node = trie;
+            Owner owner = node.owner;
+            int start = rootPath.endsWith("/") ? rootPath.length() : rootPath.length() + 1;
+            int slashPosition;
+            while (node != null && (slashPosition = path.indexOf('/', start)) != -1) {
+                node = node.getChild(path.substring(start, slashPosition));
+                if (node != null && node.owner != null) {
+                    owner = node.owner;
+                }
+
+                start = slashPosition + 1;
+            }
+
+            return owner;
+        }
+
+        @Nullable
+        private Owner getApplication(@NotNull String path) {
+            if (root == null || trie.owner != null) {
+                return trie.owner;
+            }
+
+            final String rootPath = root.getPath();
+            final int start = rootPath.endsWith("/") ? rootPath.length() : rootPath.length() + 1;
+            final int slashPosition = path.indexOf('/', start);
+            final Node node = slashPosition == -1 ? null : trie.getChild(path.substring(start, slashPosition));
+            return node == null ? null : node.owner;
+        }
+
+        /**
+         * Collects paths of owners (relative to root) with changed modules,
+         * returns false when root, applications or template may be changed.
+         */
+        private boolean collectChangedOwners(@NotNull Collection<String> changedPaths, @NotNull Set<String> changedOwners) {
+            final String rootPath = Objects.requireNonNull(root).getPath();
+            for (String path : changedPaths) {
+                if (rootPath.equals(path) || isUnder(rootPath, path)) {
+                    return false;
+                }
+
+                if (!isUnder(path, rootPath)) {
+                    continue;
+                }
+
+                final List<String> segments = StringUtil.split(path.substring(rootPath.length()), "/");
+                final int count = segments.size();
+                if (count == 1 || (count <= 3 && segments.get(0).equals("common") && segments.get(1).equals("migrations"))) {
+                    // application directories and template markers
+                    return false;
+                }
+
+                if (segments.get(count - 1).equals(MODULES_DIRECTORY)) {
+                    changedOwners.add(StringUtil.join(segments.subList(0, count - 1), "/"));
+                } else if (segments.get(count - 2).equals(MODULES_DIRECTORY)) {
+                    changedOwners.add(StringUtil.join(segments.subList(0, count - 2), "/"));
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Copy of layout with modules of given owners (paths relative to root) scanned again,
+         * unchanged nodes are shared with this layout.
+         */
+        @NotNull
+        private Layout withRescannedOwners(@NotNull Collection<String> ownerPaths) {
+            Node trie = this.trie;
+            for (String ownerPath : ownerPaths) {
+                trie = rescan(trie, Objects.requireNonNull(root), ownerPath.isEmpty() ? Collections.emptyList() : StringUtil.split(ownerPath, "/"), 0);
+            }
+
+            return withTrie(trie);
+        }
+
+        @NotNull
+        private Node rescan(@NotNull Node node, @NotNull VirtualFile directory, @NotNull List<String> segments, int index) {
+            if (index == segments.size()) {
+                if (node.owner == null) {
+                    return node;
+                }
+
+                final String relativePath = segments.isEmpty() ? "" : StringUtil.join(segments, "/") + "/";
+                return new Node(node.owner, scanModules(node.owner, relativePath));
+            }
+
+            final String name = segments.get(index);
+            final Node child = node.getChild(name);
+            final VirtualFile childDirectory = directory.findChild(name);
+            if (child == null || childDirectory == null) {
+                // owner was not known or was removed, nothing to rescan
+                return node;
+            }
+
+            final Map<String, Node> children = new HashMap<>(node.children);
+            children.put(name, rescan(child, childDirectory, segments, index + 1));
+            return new Node(node.owner, children);
+        }
+
+        /**
+         * Children of owner trie node: "modules" node with module nodes, which may contain nested modules.
+         */
+        @NotNull
+        private Map<String, Node> scanModules(@NotNull Owner parent, @NotNull String relativePath) {
+            final VirtualFile modulesDirectory = parent.directory.findChild(MODULES_DIRECTORY);
+            if (modulesDirectory == null || !modulesDirectory.isDirectory()) {
+                return Collections.emptyMap();
+            }
+
+            final Map<String, Node> modules = new HashMap<>();
+            for (VirtualFile moduleDirectory : modulesDirectory.getChildren()) {
+                if (!moduleDirectory.isDirectory()) {
+                    continue;
+                }
+
+                final String modulePath = relativePath + MODULES_DIRECTORY + "/" + moduleDirectory.getName();
+                final String moduleId = parent.module == null ? moduleDirectory.getName() : parent.module + "/" + moduleDirectory.getName();
+                final Owner owner = singleApplication
+                        ? new Owner(parent.name, parent.application, moduleId, "", moduleDirectory)
+                        : new Owner(qualifier + modulePath, parent.application, moduleId, modulePath, moduleDirectory);
+                modules.put(moduleDirectory.getName(), new Node(owner, scanModules(owner, modulePath + "/")));
+            }
+
+            return modules.isEmpty() ? Collections.emptyMap() : Collections.singletonMap(MODULES_DIRECTORY, new Node(null, modules));
+        }
+    }
+}
@@ -5,18 +5,12 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
-import com.nvlad.yii2support.utils.Yii2SupportSettings;
-import com.nvlad.yii2support.views.util.ViewUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class YiiApplicationUtils {
-    private static Map<Project, VirtualFile> yiiRootPaths = new HashMap<>();
-
     @Nullable
     public static String getYiiRootPath(Project project) {
         VirtualFile yiiRoot = getYiiRootVirtualFile(project);
@@ -32,7 +26,10 @@ public class YiiApplicationUtils {
     }
 
     public static void resetYiiRootPath(Project project) {
-        yiiRootPaths.remove(project);
+        final YiiApplicationLayout layout = project.getServiceIfCreated(YiiApplicationLayout.class);
+        if (layout != null) {
+            layout.reset();
+        }
     }
 
     @NotNull
@@ -42,41 +39,15 @@ public class YiiApplicationUtils {
 
     @NotNull
     public static String getApplicationName(@NotNull VirtualFile file, @NotNull Project project) {
-        VirtualFile yiiRoot = getYiiRootVirtualFile(project);
-        if (yiiRoot == null || !yiiRoot.isValid()) {
-            return "";
-        }
-
-        if (yiiRoot.findChild("controllers") == null) {
-            final String fileUrl = file.getUrl();
-            if (!fileUrl.startsWith(yiiRoot.getUrl())) {
-                return "";
-            }
-
-            int yiiRootLength = yiiRoot.getUrl().length();
-            int slashIndex = fileUrl.indexOf("/", yiiRootLength + 1);
-            if (slashIndex == -1) {
-                return "";
-            }
-
-            String appName = fileUrl.substring(yiiRootLength + 1, slashIndex);
-            String moduleName = ViewUtil.getModuleName(fileUrl.substring(yiiRootLength + 1));
-            if(moduleName != null){
-                return moduleName;
-            }
-
-            return appName;
-        }
-
-        return "app";
+        return YiiApplicationLayout.getInstance(project).getApplicationName(file);
     }
 
     public static YiiApplicationTemplate getAppTemplate(Project project) {
-        return getAppTemplate(getYiiRootVirtualFile(project));
+        return YiiApplicationLayout.getInstance(project).getTemplate();
     }
 
     public static YiiApplicationTemplate getAppTemplate(Project project, String path) {
-        return getAppTemplate(getYiiRootVirtualFile(project, path));
+        return getAppTemplate(findYiiRootVirtualFile(project, path));
     }
 
     public static YiiApplicationTemplate getAppTemplate(@Nullable VirtualFile yiiRoot) {
@@ -105,16 +76,14 @@ public class YiiApplicationUtils {
 
     @Nullable
     public static VirtualFile getYiiRootVirtualFile(Project project) {
-        return getYiiRootVirtualFile(project, Yii2SupportSettings.getInstance(project).yiiRootPath);
-
+        return YiiApplicationLayout.getInstance(project).getRoot();
     }
 
+    /**
+     * Finds Yii root by path from settings (absolute or relative to project base directory), without caching.
+     */
     @Nullable
-    public static VirtualFile getYiiRootVirtualFile(Project project, String path) {
-        if (yiiRootPaths.containsKey(project)) {
-            return yiiRootPaths.get(project);
-        }
-
+    public static VirtualFile findYiiRootVirtualFile(Project project, String path) {
         VirtualFile yiiRootPath;
         if (path == null) {
             yiiRootPath = project.getBaseDir();
@@ -142,8 +111,6 @@ public class YiiApplicationUtils {
             }
         }
 
-        yiiRootPaths.put(project, yiiRootPath);
-
         return yiiRootPath;
     }
 }
@@ -0,0 +1,40 @@
+package com.nvlad.yii2support.common;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Well-known Yii base classes, ancestry of class is stored as bit mask of roles in {@link ClassHierarchy}.
+ */
+public enum YiiClassRole {
+    BaseObject("\\yii\\base\\BaseObject", "\\yii\\base\\Object"),
+    Model("\\yii\\base\\Model"),
+    Controller("\\yii\\base\\Controller"),
+    View("\\yii\\base\\View"),
+    Widget("\\yii\\base\\Widget"),
+    BaseMailer("\\yii\\mail\\BaseMailer"),
+    ActiveField("\\yii\\widgets\\ActiveField"),
+    BaseActiveRecord("\\yii\\db\\BaseActiveRecord"),
+    ActiveRecord("\\yii\\db\\ActiveRecord"),
+    ActiveQuery("\\yii\\db\\ActiveQuery"),
+    Query("\\yii\\db\\Query"),
+    Command("\\yii\\db\\Command"),
+    Connection("\\yii\\db\\Connection"),
+    Migration("\\yii\\db\\Migration");
+
+    final String[] classNames;
+    final int mask;
+
+    YiiClassRole(@NotNull String... classNames) {
+        this.classNames = classNames;
+        this.mask = 1 << ordinal();
+    }
+
+    public static int mask(@NotNull YiiClassRole... roles) {
+        int result = 0;
+        for (YiiClassRole role : roles) {
+            result |= role.mask;
+        }
+
+        return result;
+    }
+}
@@ -7,6 +7,7 @@ import com.intellij.execution.process.ProcessHandler;
 import com.intellij.openapi.application.ApplicationInfo;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.PathMappingSettings;
 import com.jetbrains.php.config.commandLine.PhpCommandSettings;
@@ -39,10 +40,17 @@ public class YiiCommandLineUtil {
     }
 
     public static GeneralCommandLine create(Project project, String command, List<String> parameters) throws ExecutionException {
+        return create(project, null, command, parameters);
+    }
+
+    /**
+     * Command line of console script of Yii root (primary root when null), running in the root directory.
+     */
+    public static GeneralCommandLine create(Project project, @Nullable VirtualFile yiiRoot, String command, List<String> parameters) throws ExecutionException {
         parameters.add("--color");
 
-        String yiiRootPath = YiiApplicationUtils.getYiiRootPath(project);
-        PhpCommandSettings commandSettings = commandSettings(project, command, parameters);
+        String yiiRootPath = yiiRoot == null ? YiiApplicationUtils.getYiiRootPath(project) : yiiRoot.getPath();
+        PhpCommandSettings commandSettings = commandSettings(project, yiiRoot, command, parameters);
         GeneralCommandLine commandLine = commandSettings.createGeneralCommandLine();
         commandLine.setWorkDirectory(yiiRootPath);
 
@@ -51,10 +59,19 @@ public class YiiCommandLineUtil {
 
     @Nullable
     public static ProcessHandler configureHandler(Project project, String command, List<String> parameters) throws ExecutionException {
+        return configureHandler(project, null, command, parameters);
+    }
+
+    @Nullable
+    public static ProcessHandler configureHandler(Project project, @Nullable VirtualFile yiiRoot, String command, List<String> parameters) throws ExecutionException {
         parameters.add("--color");
 
-        PhpCommandSettings commandSettings = commandSettings(project, command, parameters);
+        PhpCommandSettings commandSettings = commandSettings(project, yiiRoot, command, parameters);
         GeneralCommandLine commandLine = commandSettings.createGeneralCommandLine();
+        if (yiiRoot != null) {
+            commandLine.setWorkDirectory(yiiRoot.getPath());
+        }
+
         if (commandSettings.isRemote()) {
             PhpRemoteInterpreterManager interpreterManager = PhpRemoteInterpreterManager.getInstance();
             if (interpreterManager == null) {
@@ -95,13 +112,25 @@ public class YiiCommandLineUtil {
         throw new NoSuchMethodException("getRemoteProcessHandler");
     }
 
-    private static PhpCommandSettings commandSettings(Project project, String command, List<String> parameters) throws ExecutionException {
-        String yiiRootPath = YiiApplicationUtils.getYiiRootPath(project);
+    /**
+     * Path of console script of Yii root.
+     */
+    public static String getConsoleScript(Project project, VirtualFile yiiRoot) {
+        if (YiiApplicationLayout.getInstance(project).getTemplate(yiiRoot) == YiiApplicationTemplate.StarterKit) {
+            return yiiRoot.getPath() + "/console/yii";
+        }
+
+        return yiiRoot.getPath() + "/yii";
+    }
+
+    private static PhpCommandSettings commandSettings(Project project, @Nullable VirtualFile yiiRoot, String command, List<String> parameters) throws ExecutionException {
         PhpCommandSettings commandSettings = PhpCommandSettingsBuilder.create(project, false);
-        if (YiiApplicationUtils.getAppTemplate(project) == YiiApplicationTemplate.StarterKit) {
-            commandSettings.setScript(yiiRootPath + "/console/yii");
-        } else {
-            commandSettings.setScript(yiiRootPath + "/yii");
+        if (yiiRoot == null) {
+            yiiRoot = YiiApplicationUtils.getYiiRootVirtualFile(project);
+        }
+
+        if (yiiRoot != null) {
+            commandSettings.setScript(getConsoleScript(project, yiiRoot));
         }
 
         commandSettings.addArgument(command);
@@ -0,0 +1,21 @@
+package com.nvlad.yii2support.common;
+
+import com.intellij.openapi.project.Project;
+import com.nvlad.yii2support.utils.Yii2SupportSettingsListener;
+
+/**
+ * Drops cached Yii root and aliases after settings change.
+ */
+public class YiiSettingsListener implements Yii2SupportSettingsListener {
+    private final Project myProject;
+
+    public YiiSettingsListener(Project project) {
+        myProject = project;
+    }
+
+    @Override
+    public void settingsChanged() {
+        YiiApplicationUtils.resetYiiRootPath(myProject);
+        YiiAlias.reset(myProject);
+    }
+}
@@ -0,0 +1,111 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable view of components of {@link YiiConfigModel}: component name to class FQNs, per application.
+ * Built once per config index modification stamp and shared by type provider and completion.
+ */
+public class ComponentsSnapshot {
+    private final Map<String, Map<String, Set<String>>> myApplications;
+    private final Map<String, Set<String>> myAll;
+
+    private ComponentsSnapshot(@NotNull Map<String, Map<String, Set<String>>> applications, @NotNull Map<String, Set<String>> all) {
+        myApplications = applications;
+        myAll = all;
+    }
+
+    @NotNull
+    public static ComponentsSnapshot getInstance(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(build(project),
+                        ConfigIndex.getModificationTracker(project),
+                        Yii2SupportSettings.getInstance(project).getModificationTracker()));
+    }
+
+    /**
+     * Components available in application, "common" ones are merged into application config.
+     * Falls back to components of all applications when application is unknown or has none.
+     */
+    @NotNull
+    public Map<String, Set<String>> getComponents(@Nullable String application) {
+        if (StringUtil.isEmpty(application)) {
+            return myAll;
+        }
+
+        final Map<String, Set<String>> components = myApplications.get(getApplication(application));
+        return components == null || components.isEmpty() ? myAll : components;
+    }
+
+    /**
+     * Class FQNs (with leading "\") of component.
+     */
+    @NotNull
+    public Set<String> getClasses(@NotNull String component, @Nullable String application) {
+        final Set<String> classes = getComponents(application).get(component);
+        if (classes == null) {
+            return application == null ? Collections.emptySet() : getClasses(component, null);
+        }
+
+        return classes;
+    }
+
+    @NotNull
+    private static ComponentsSnapshot build(@NotNull Project project) {
+        final Map<String, Map<String, Set<String>>> applications = new HashMap<>();
+        final Map<String, Set<String>> all = new HashMap<>();
+        for (YiiApplicationLayout.Owner application : YiiApplicationLayout.getInstance(project).getApplications()) {
+            final YiiConfigModel model = YiiConfigModel.getInstance(project, application);
+            final Map<String, Set<String>> components = new HashMap<>();
+            for (String component : model.getComponents().keySet()) {
+                final String fqn = normalizeClassName(model.getComponentClass(component));
+                if (fqn != null) {
+                    components.computeIfAbsent(component, k -> new LinkedHashSet<>()).add(fqn);
+                    all.computeIfAbsent(component, k -> new LinkedHashSet<>()).add(fqn);
+                }
+            }
+
+            applications.put(application.name, freeze(components));
+        }
+
+        return new ComponentsSnapshot(Collections.unmodifiableMap(applications), freeze(all));
+    }
+
+    @NotNull
+    private static Map<String, Set<String>> freeze(@NotNull Map<String, Set<String>> components) {
+        final Map<String, Set<String>> result = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : components.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Application part of owner name: "backend" for "backend/modules/admin", root qualifier is kept.
+     */
+    @NotNull
+    private static String getApplication(@NotNull String owner) {
+        final int slashPosition = owner.indexOf('/', owner.lastIndexOf(':') + 1);
+        return slashPosition == -1 ? owner : owner.substring(0, slashPosition);
+    }
+
+    @Nullable
+    private static String normalizeClassName(@Nullable String className) {
+        if (StringUtil.isEmptyOrSpaces(className)) {
+            return null;
+        }
+
+        final String fqn = className.trim().replace("\\\\", "\\");
+        return fqn.startsWith("\\") ? fqn : "\\" + fqn;
+    }
+}
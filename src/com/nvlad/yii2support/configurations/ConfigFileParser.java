@@ -0,0 +1,300 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.PhpUtil;
+import com.nvlad.yii2support.configurations.entities.ConfigFile;
+import com.nvlad.yii2support.configurations.entities.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Flattens config array returned by php file into {@link ConfigFile}.
+ * Understands nested arrays, "require" of other files, array_merge()/ArrayHelper::merge(),
+ * top level variables and "$config['key'][] = ..." modifications of returned variable.
+ * Values and includes are numbered in evaluation order, which is the order merge applies them.
+ */
+public class ConfigFileParser {
+    private static final int MAX_DEPTH = 20;
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    private final ConfigFile myResult = new ConfigFile();
+    private final Map<String, List<PsiElement>> myVariables = new HashMap<>();
+    private int myListItemCount;
+    private int myOrder;
+
+    private ConfigFileParser() {
+    }
+
+    @NotNull
+    public static ConfigFile parse(@NotNull PsiFile file) {
+        final ConfigFileParser parser = new ConfigFileParser();
+        if (file instanceof PhpFile) {
+            parser.parseFile(file);
+        }
+
+        return parser.myResult;
+    }
+
+    private void parseFile(@NotNull PsiFile file) {
+        final List<AssignmentExpression> modifications = new ArrayList<>();
+        for (AssignmentExpression assignment : PsiTreeUtil.findChildrenOfType(file, AssignmentExpression.class)) {
+            if (PsiTreeUtil.getParentOfType(assignment, Function.class) != null) {
+                continue;
+            }
+
+            final PhpPsiElement variable = assignment.getVariable();
+            if (variable instanceof Variable) {
+                myVariables.computeIfAbsent(((Variable) variable).getName(), k -> new ArrayList<>()).add(assignment.getValue());
+            } else if (variable instanceof ArrayAccessExpression) {
+                modifications.add(assignment);
+            }
+        }
+
+        for (PhpReturn phpReturn : PsiTreeUtil.findChildrenOfType(file, PhpReturn.class)) {
+            if (PsiTreeUtil.getParentOfType(phpReturn, Function.class) != null) {
+                continue;
+            }
+
+            final PsiElement argument = phpReturn.getArgument();
+            evaluate(argument, "", 0);
+            if (argument instanceof Variable) {
+                for (AssignmentExpression assignment : modifications) {
+                    final String path = getModifiedPath((ArrayAccessExpression) assignment.getVariable(), ((Variable) argument).getName());
+                    if (path != null) {
+                        evaluate(assignment.getValue(), path, 0);
+                    }
+                }
+            }
+
+            break;
+        }
+    }
+
+    private void evaluate(@Nullable PsiElement element, @NotNull String path, int depth) {
+        if (element == null || depth > MAX_DEPTH) {
+            return;
+        }
+
+        if (element instanceof ParenthesizedExpression) {
+            evaluate(((ParenthesizedExpression) element).getArgument(), path, depth + 1);
+            return;
+        }
+
+        if (element instanceof ArrayCreationExpression) {
+            evaluateArray((ArrayCreationExpression) element, path, depth);
+            return;
+        }
+
+        if (element instanceof Include) {
+            final String includePath = getIncludePath(((Include) element).getArgument());
+            if (includePath != null) {
+                myResult.includes.add(new ConfigFile.Include(path, includePath, myOrder++));
+            }
+
+            return;
+        }
+
+        if (element instanceof Variable) {
+            // last assignment before usage, "$config = ArrayHelper::merge($config, [...])" refers to previous ones
+            final List<PsiElement> values = myVariables.get(((Variable) element).getName());
+            PsiElement lastValue = null;
+            if (values != null) {
+                for (PsiElement value : values) {
+                    if (value != null && value.getTextRange().getEndOffset() <= element.getTextOffset()) {
+                        lastValue = value;
+                    }
+                }
+            }
+
+            if (lastValue != null) {
+                evaluate(lastValue, path, depth + 1);
+                return;
+            }
+        }
+
+        if (isMergeCall(element)) {
+            for (PsiElement parameter : ((FunctionReference) element).getParameters()) {
+                evaluate(parameter, path, depth + 1);
+            }
+
+            return;
+        }
+
+        if (!path.isEmpty()) {
+            putValue(path, createValue(element));
+        }
+    }
+
+    private void evaluateArray(@NotNull ArrayCreationExpression array, @NotNull String path, int depth) {
+        boolean empty = true;
+        for (PsiElement child : array.getChildren()) {
+            if (child instanceof ArrayHashElement) {
+                final String key = getKey(((ArrayHashElement) child).getKey());
+                if (key != null) {
+                    evaluate(((ArrayHashElement) child).getValue(), ConfigFile.append(path, key), depth + 1);
+                    empty = false;
+                }
+            } else if (child instanceof PhpPsiElement) {
+                evaluate(((PhpPsiElement) child).getFirstPsiChild(), ConfigFile.append(path, nextListItem()), depth + 1);
+                empty = false;
+            }
+        }
+
+        if (empty && !path.isEmpty()) {
+            putValue(path, new ConfigValue("[]", "array", array.getTextOffset()));
+        }
+    }
+
+    private void putValue(@NotNull String path, @NotNull ConfigValue value) {
+        value.order = myOrder++;
+        myResult.entries.put(path, value);
+    }
+
+    /**
+     * Path of "$config['a']['b'][] = ..." assignment to variable, null for other variables.
+     */
+    @Nullable
+    private String getModifiedPath(@NotNull ArrayAccessExpression expression, @NotNull String variableName) {
+        final List<String> segments = new ArrayList<>();
+        PsiElement element = expression;
+        while (element instanceof ArrayAccessExpression) {
+            final ArrayIndex index = ((ArrayAccessExpression) element).getIndex();
+            final PsiElement indexValue = index == null ? null : index.getValue();
+            if (indexValue == null) {
+                segments.add(nextListItem());
+            } else {
+                final String key = getKey(indexValue);
+                if (key == null) {
+                    return null;
+                }
+
+                segments.add(key);
+            }
+
+            element = ((ArrayAccessExpression) element).getValue();
+        }
+
+        if (!(element instanceof Variable) || !variableName.equals(((Variable) element).getName())) {
+            return null;
+        }
+
+        Collections.reverse(segments);
+        return ConfigFile.path(segments.toArray(new String[0]));
+    }
+
+    @NotNull
+    private String nextListItem() {
+        return ConfigFile.LIST_ITEM + myListItemCount++;
+    }
+
+    private static boolean isMergeCall(@NotNull PsiElement element) {
+        if (element instanceof MethodReference) {
+            final PhpExpression classReference = ((MethodReference) element).getClassReference();
+            return "merge".equals(((MethodReference) element).getName())
+                    && classReference != null && "ArrayHelper".equals(classReference.getName());
+        }
+
+        if (element instanceof FunctionReference) {
+            final String name = ((FunctionReference) element).getName();
+            return "array_merge".equals(name) || "array_merge_recursive".equals(name) || "array_replace_recursive".equals(name);
+        }
+
+        return false;
+    }
+
+    @Nullable
+    private static String getKey(@Nullable PsiElement key) {
+        if (key instanceof StringLiteralExpression) {
+            return ((StringLiteralExpression) key).getContents();
+        }
+
+        if (key instanceof ClassConstantReference) {
+            return getClassName((ClassConstantReference) key);
+        }
+
+        if (key instanceof PhpExpression && StringUtil.isNotNegativeNumber(key.getText())) {
+            return key.getText();
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static String getClassName(@NotNull ClassConstantReference reference) {
+        final PhpExpression classReference = reference.getClassReference();
+        if (!"class".equals(reference.getName()) || !(classReference instanceof ClassReference)) {
+            return null;
+        }
+
+        return ((ClassReference) classReference).getFQN();
+    }
+
+    /**
+     * Include path relative to directory of config file, null for absolute paths and aliases.
+     */
+    @Nullable
+    private static String getIncludePath(@Nullable PsiElement argument) {
+        final String path = PhpUtil.getRelativePath(argument);
+        if (path == null || path.startsWith("/") || path.startsWith("@") || path.contains("://")) {
+            return null;
+        }
+
+        return path;
+    }
+
+    @NotNull
+    private static ConfigValue createValue(@NotNull PsiElement element) {
+        final int offset = element.getTextOffset();
+        if (element instanceof StringLiteralExpression) {
+            return new ConfigValue(((StringLiteralExpression) element).getContents(), "string", offset);
+        }
+
+        if (element instanceof ClassConstantReference) {
+            final String className = getClassName((ClassConstantReference) element);
+            if (className != null) {
+                return new ConfigValue(className, "string", offset);
+            }
+        }
+
+        if (element instanceof Function) {
+            return new ConfigValue("function", "\\Closure", offset);
+        }
+
+        if (element instanceof BinaryExpression || element instanceof FunctionReference || element instanceof ConstantReference) {
+            // "dirname(__DIR__) . '/runtime'" => "../runtime", relative to directory of config file
+            final String path = PhpUtil.getRelativePath(element);
+            if (path != null) {
+                return new ConfigValue(path, "string", offset);
+            }
+        }
+
+        final String text = StringUtil.first(element.getText(), MAX_VALUE_LENGTH, true);
+        if (element instanceof ConstantReference) {
+            final String name = StringUtil.toLowerCase(((ConstantReference) element).getName());
+            if ("true".equals(name) || "false".equals(name)) {
+                return new ConfigValue(text, "bool", offset);
+            }
+
+            if ("null".equals(name)) {
+                return new ConfigValue(text, "null", offset);
+            }
+        }
+
+        if (element instanceof PhpExpression && StringUtil.isNotNegativeNumber(StringUtil.trimStart(text, "-"))) {
+            return new ConfigValue(text, "int", offset);
+        }
+
+        if (element instanceof PhpExpression && text.matches("-?[0-9]*\\.[0-9]+")) {
+            return new ConfigValue(text, "float", offset);
+        }
+
+        return new ConfigValue(text, "mixed", offset);
+    }
+}
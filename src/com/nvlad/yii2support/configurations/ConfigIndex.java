@@ -0,0 +1,130 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.nvlad.yii2support.configurations.entities.ConfigFile;
+import com.nvlad.yii2support.configurations.entities.ConfigValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Flattened config array of each php file in "config" directories, with includes of other config files.
+ * Single key per file, values are read by {@link FileBasedIndex#getFileData}.
+ */
+public class ConfigIndex extends FileBasedIndexExtension<String, ConfigFile> {
+    public static final ID<String, ConfigFile> identity = ID.create("Yii2Support.ConfigIndex");
+    public static final String KEY = "config";
+
+    private final ConfigFileExternalizer myConfigFileExternalizer = new ConfigFileExternalizer();
+
+    @NotNull
+    @Override
+    public ID<String, ConfigFile> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, ConfigFile, FileContent> getIndexer() {
+        return inputData -> {
+            final ConfigFile configFile = ConfigFileParser.parse(inputData.getPsiFile());
+            return configFile.isEmpty() ? Collections.emptyMap() : Collections.singletonMap(KEY, configFile);
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<ConfigFile> getValueExternalizer() {
+        return myConfigFileExternalizer;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE
+                && file.getUrl().contains("/config/")
+                && !file.getUrl().contains("/environments/");
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Tracker for caches built from config index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    private static class ConfigFileExternalizer implements DataExternalizer<ConfigFile> {
+        @Override
+        public void save(@NotNull DataOutput dataOutput, ConfigFile configFile) throws IOException {
+            DataInputOutputUtil.writeINT(dataOutput, configFile.entries.size());
+            for (Map.Entry<String, ConfigValue> entry : configFile.entries.entrySet()) {
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, entry.getKey());
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, entry.getValue().value);
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, entry.getValue().type);
+                DataInputOutputUtil.writeINT(dataOutput, entry.getValue().offset);
+                DataInputOutputUtil.writeINT(dataOutput, entry.getValue().order);
+            }
+
+            DataInputOutputUtil.writeINT(dataOutput, configFile.includes.size());
+            for (ConfigFile.Include include : configFile.includes) {
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, include.path);
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, include.file);
+                DataInputOutputUtil.writeINT(dataOutput, include.order);
+            }
+        }
+
+        @Override
+        public ConfigFile read(@NotNull DataInput dataInput) throws IOException {
+            final ConfigFile configFile = new ConfigFile();
+            final int entryCount = DataInputOutputUtil.readINT(dataInput);
+            for (int i = 0; i < entryCount; i++) {
+                final String path = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                final ConfigValue value = new ConfigValue();
+                value.value = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                value.type = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                value.offset = DataInputOutputUtil.readINT(dataInput);
+                value.order = DataInputOutputUtil.readINT(dataInput);
+                configFile.entries.put(path, value);
+            }
+
+            final int includeCount = DataInputOutputUtil.readINT(dataInput);
+            for (int i = 0; i < includeCount; i++) {
+                final ConfigFile.Include include = new ConfigFile.Include();
+                include.path = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                include.file = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                include.order = DataInputOutputUtil.readINT(dataInput);
+                configFile.includes.add(include);
+            }
+
+            return configFile;
+        }
+    }
+}
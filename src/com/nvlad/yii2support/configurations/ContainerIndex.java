@@ -0,0 +1,213 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.MethodUtils;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Dependency injection container definitions: class, interface or alias => concrete class (without leading "\").
+ * Collects "Yii::$container->set()/setSingleton()" calls, "container.definitions/singletons" config sections
+ * are served by {@link YiiConfigModel}.
+ */
+public class ContainerIndex extends FileBasedIndexExtension<String, String> {
+    public static final ID<String, String> identity = ID.create("Yii2Support.ContainerIndex");
+    private static final int MAX_DEPTH = 5;
+
+    @NotNull
+    @Override
+    public ID<String, String> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            if (!StringUtil.contains(inputData.getContentAsText(), "container")) {
+                return Collections.emptyMap();
+            }
+
+            final PsiElement file = inputData.getPsiFile();
+            final Map<String, String> result = new HashMap<>();
+            for (MethodReference reference : PsiTreeUtil.findChildrenOfType(file, MethodReference.class)) {
+                if (MethodUtils.isYiiContainerMethod(reference, "set", "setSingleton")) {
+                    final PsiElement[] parameters = reference.getParameters();
+                    addDefinition(result, getClassName(parameters[0]), parameters.length > 1 ? parameters[1] : null);
+                }
+            }
+
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Tracker for caches built from container index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    /**
+     * Concrete classes of container definition (with leading "\"), following definitions which point
+     * to other definitions. Empty when id is not defined.
+     */
+    @NotNull
+    public static Set<String> getClasses(@NotNull String id, @NotNull Project project) {
+        final Set<String> result = new LinkedHashSet<>();
+        collectClasses(StringUtil.trimStart(id, "\\"), project, result, new HashSet<>(), 0);
+        return result;
+    }
+
+    private static void collectClasses(@NotNull String id, @NotNull Project project, @NotNull Set<String> result, @NotNull Set<String> visited, int depth) {
+        if (depth > MAX_DEPTH || !visited.add(id)) {
+            return;
+        }
+
+        for (String className : getDefinitions(id, project)) {
+            if (visited.contains(className)) {
+                // cycle or definition already followed on other branch, it is not a concrete class
+                continue;
+            }
+
+            if (getDefinitions(className, project).isEmpty()) {
+                result.add("\\" + className);
+            } else {
+                collectClasses(className, project, result, visited, depth + 1);
+            }
+        }
+    }
+
+    @NotNull
+    private static Set<String> getDefinitions(@NotNull String id, @NotNull Project project) {
+        final Set<String> result = new LinkedHashSet<>(FileBasedIndex.getInstance().getValues(identity, id, GlobalSearchScope.allScope(project)));
+        result.addAll(getConfigDefinitions(project).getOrDefault(id, Collections.emptySet()));
+        return result;
+    }
+
+    /**
+     * "container.definitions" and "container.singletons" of all application configs, normalized like index values.
+     */
+    @NotNull
+    private static Map<String, Set<String>> getConfigDefinitions(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> {
+            final Map<String, Set<String>> result = new HashMap<>();
+            for (YiiConfigModel model : YiiConfigModel.getApplicationModels(project)) {
+                final Map<String, String> definitions = new LinkedHashMap<>(model.getContainerDefinitions());
+                definitions.putAll(model.getContainerSingletons());
+                for (Map.Entry<String, String> definition : definitions.entrySet()) {
+                    final String id = normalizeClassName(definition.getKey());
+                    final String className = normalizeClassName(definition.getValue());
+                    if (id != null && className != null && !className.equals(id)) {
+                        result.computeIfAbsent(id, k -> new LinkedHashSet<>()).add(className);
+                    }
+                }
+            }
+
+            return CachedValueProvider.Result.create(result,
+                    ConfigIndex.getModificationTracker(project),
+                    Yii2SupportSettings.getInstance(project).getModificationTracker());
+        });
+    }
+
+    private static void addDefinition(@NotNull Map<String, String> result, @Nullable String id, @Nullable PsiElement definition) {
+        if (id == null) {
+            return;
+        }
+
+        final String className = getDefinitionClass(definition);
+        if (className != null && !className.equals(id)) {
+            // the last set() of id wins, as in container
+            result.put(id, className);
+        }
+    }
+
+    /**
+     * Class of definition: class name, "::class" constant or "class" key of configuration array.
+     * Closures and callables are skipped.
+     */
+    @Nullable
+    private static String getDefinitionClass(@Nullable PsiElement definition) {
+        if (definition instanceof ArrayCreationExpression) {
+            for (ArrayHashElement element : ((ArrayCreationExpression) definition).getHashElements()) {
+                final PhpPsiElement key = element.getKey();
+                if (key instanceof StringLiteralExpression) {
+                    final String name = ((StringLiteralExpression) key).getContents();
+                    if (name.equals("class") || name.equals("__class")) {
+                        return getClassName(element.getValue());
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        return getClassName(definition);
+    }
+
+    @Nullable
+    private static String getClassName(@Nullable PsiElement element) {
+        String className = null;
+        if (element instanceof StringLiteralExpression) {
+            className = ((StringLiteralExpression) element).getContents();
+        } else if (element instanceof ClassConstantReference && "class".equals(((ClassConstantReference) element).getName())) {
+            final PhpExpression classReference = ((ClassConstantReference) element).getClassReference();
+            if (classReference instanceof ClassReference) {
+                className = ((ClassReference) classReference).getFQN();
+            }
+        }
+
+        return className == null ? null : normalizeClassName(className);
+    }
+
+    @Nullable
+    private static String normalizeClassName(@NotNull String className) {
+        final String result = StringUtil.trimStart(className.replace("\\\\", "\\"), "\\");
+        return result.isEmpty() || StringUtil.containsWhitespaces(result) ? null : result;
+    }
+}
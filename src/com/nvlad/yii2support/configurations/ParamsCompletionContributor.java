@@ -0,0 +1,15 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.codeInsight.completion.CompletionContributor;
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.patterns.PlatformPatterns;
+import com.jetbrains.php.lang.psi.elements.ArrayIndex;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+
+public class ParamsCompletionContributor extends CompletionContributor {
+    public ParamsCompletionContributor() {
+        extend(CompletionType.BASIC, PlatformPatterns.psiElement()
+                .withParent(StringLiteralExpression.class)
+                .withSuperParent(2, ArrayIndex.class), new ParamsCompletionProvider());
+    }
+}
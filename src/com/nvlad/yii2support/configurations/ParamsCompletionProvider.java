@@ -0,0 +1,48 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionProvider;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.ProcessingContext;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import com.nvlad.yii2support.configurations.entities.ConfigFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Completes keys of "Yii::$app->params['...']" from params of application config.
+ */
+public class ParamsCompletionProvider extends CompletionProvider<CompletionParameters> {
+    @Override
+    protected void addCompletions(@NotNull CompletionParameters completionParameters, @NotNull ProcessingContext processingContext, @NotNull CompletionResultSet completionResultSet) {
+        final PsiElement literal = completionParameters.getPosition().getParent();
+        if (!(literal instanceof StringLiteralExpression)) {
+            return;
+        }
+
+        final String path = ParamsUtil.getParamPath((StringLiteralExpression) literal);
+        if (path == null) {
+            return;
+        }
+
+        final String parentPath = ParamsUtil.getParentPath(path);
+        final List<YiiConfigModel> models = ParamsUtil.getModels(literal);
+        for (String name : ParamsUtil.getChildNames(parentPath, models)) {
+            final List<YiiConfigModel.Node> declarations = ParamsUtil.getDeclarations(ConfigFile.append(parentPath, name), models);
+            LookupElementBuilder lookupElement = LookupElementBuilder.create(name)
+                    .withIcon(AllIcons.Nodes.Parameter);
+            if (!declarations.isEmpty()) {
+                final YiiConfigModel.ConfigEntry value = declarations.get(0).getEntry();
+                lookupElement = value == null || declarations.get(0).isArray()
+                        ? lookupElement.withTypeText("array", true)
+                        : lookupElement.withTypeText(value.type, true).withTailText(" = " + value.value, true);
+            }
+
+            completionResultSet.addElement(lookupElement);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.codeInsight.navigation.actions.GotoDeclarationHandler;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Navigates from "Yii::$app->params['key']" to declarations of param.
+ */
+public class ParamsGotoDeclarationHandler implements GotoDeclarationHandler {
+    @Override
+    public PsiElement[] getGotoDeclarationTargets(@Nullable PsiElement psiElement, int i, Editor editor) {
+        if (psiElement == null || !(psiElement.getParent() instanceof StringLiteralExpression)) {
+            return new PsiElement[0];
+        }
+
+        final String path = ParamsUtil.getParamPath((StringLiteralExpression) psiElement.getParent());
+        if (path == null) {
+            return new PsiElement[0];
+        }
+
+        final PsiManager psiManager = PsiManager.getInstance(psiElement.getProject());
+        final Set<PsiElement> result = new LinkedHashSet<>();
+        for (YiiConfigModel.Node declaration : ParamsUtil.getDeclarations(path, ParamsUtil.getModels(psiElement))) {
+            final YiiConfigModel.ConfigEntry entry = declaration.getFirstEntry();
+            final PsiFile file = entry == null ? null : psiManager.findFile(entry.file);
+            final PsiElement element = file == null ? null : file.findElementAt(entry.offset);
+            if (element != null) {
+                final PsiElement key = ParamsUtil.getDeclarationElement(element, path);
+                result.add(key != null ? key : element);
+            }
+        }
+
+        return result.toArray(new PsiElement[0]);
+    }
+}
@@ -0,0 +1,173 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.FileUtil;
+import com.nvlad.yii2support.common.PsiUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.configurations.entities.ConfigFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Access to "Yii::$app->params[...]" expressions and "params" of {@link YiiConfigModel}.
+ */
+public class ParamsUtil {
+    private static final String PARAMS = "params";
+    private static final String COMMON_APPLICATION = "common";
+
+    /**
+     * Param path of string literal used as key of "Yii::$app->params['a']['b']", null for other literals.
+     */
+    @Nullable
+    public static String getParamPath(@NotNull StringLiteralExpression literal) {
+        final PsiElement index = literal.getParent();
+        if (!(index instanceof ArrayIndex) || !(index.getParent() instanceof ArrayAccessExpression)) {
+            return null;
+        }
+
+        return getParamPath((ArrayAccessExpression) index.getParent());
+    }
+
+    /**
+     * Param path of "Yii::$app->params['a']['b']" expression, null when base is not params or key is not literal.
+     */
+    @Nullable
+    public static String getParamPath(@NotNull ArrayAccessExpression expression) {
+        final List<String> segments = new ArrayList<>();
+        PsiElement element = expression;
+        while (element instanceof ArrayAccessExpression) {
+            final ArrayIndex index = ((ArrayAccessExpression) element).getIndex();
+            final PsiElement key = index == null ? null : index.getValue();
+            if (!(key instanceof StringLiteralExpression)) {
+                return null;
+            }
+
+            segments.add(((StringLiteralExpression) key).getContents());
+            element = ((ArrayAccessExpression) element).getValue();
+        }
+
+        if (!(element instanceof FieldReference) || !PARAMS.equals(PsiUtil.getYiiAppField((FieldReference) element))) {
+            return null;
+        }
+
+        Collections.reverse(segments);
+        return ConfigFile.path(segments.toArray(new String[0]));
+    }
+
+    /**
+     * Parent path of param, empty string for top level params.
+     */
+    @NotNull
+    public static String getParentPath(@NotNull String path) {
+        final int separatorPosition = path.lastIndexOf(ConfigFile.SEPARATOR);
+        return separatorPosition == -1 ? "" : path.substring(0, separatorPosition);
+    }
+
+    @NotNull
+    public static String getName(@NotNull String path) {
+        return path.substring(path.lastIndexOf(ConfigFile.SEPARATOR) + 1);
+    }
+
+    /**
+     * Path for messages: "a.b".
+     */
+    @NotNull
+    public static String getPresentablePath(@NotNull String path) {
+        return path.replace(ConfigFile.SEPARATOR, '.');
+    }
+
+    /**
+     * Configs where params of element are looked up: application of containing file,
+     * all applications of Yii root for "common" code and files outside of applications.
+     */
+    @NotNull
+    public static List<YiiConfigModel> getModels(@NotNull PsiElement element) {
+        final Project project = element.getProject();
+        final VirtualFile file = element.getContainingFile() == null ? null : FileUtil.getVirtualFile(element.getContainingFile());
+        if (file == null) {
+            return Collections.emptyList();
+        }
+
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(project);
+        final YiiApplicationLayout.Owner application = layout.getApplication(file);
+        if (application != null && !application.application.equals(COMMON_APPLICATION)) {
+            return Collections.singletonList(YiiConfigModel.getInstance(project, application));
+        }
+
+        final VirtualFile root = layout.getRoot(file);
+        final List<YiiConfigModel> result = new ArrayList<>();
+        for (YiiApplicationLayout.Owner owner : layout.getApplications()) {
+            if (root == null || root.equals(layout.getRoot(owner.directory))) {
+                result.add(YiiConfigModel.getInstance(project, owner));
+            }
+        }
+
+        return result;
+    }
+
+    public static boolean isDefined(@NotNull String path, @NotNull List<YiiConfigModel> models) {
+        return !getDeclarations(path, models).isEmpty();
+    }
+
+    /**
+     * Names of params directly under parent path.
+     */
+    @NotNull
+    public static Set<String> getChildNames(@NotNull String parentPath, @NotNull List<YiiConfigModel> models) {
+        final Set<String> result = new TreeSet<>();
+        for (YiiConfigModel.Node node : getDeclarations(parentPath, models)) {
+            for (String name : node.getChildren().keySet()) {
+                if (!name.startsWith(ConfigFile.LIST_ITEM)) {
+                    result.add(name);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Config nodes of param, one per application config that declares it.
+     */
+    @NotNull
+    public static List<YiiConfigModel.Node> getDeclarations(@NotNull String path, @NotNull List<YiiConfigModel> models) {
+        final List<String> segments = new ArrayList<>();
+        segments.add(PARAMS);
+        segments.addAll(ConfigFile.split(path));
+
+        final List<YiiConfigModel.Node> result = new ArrayList<>();
+        for (YiiConfigModel model : models) {
+            final YiiConfigModel.Node node = model.getNode(segments.toArray(new String[0]));
+            if (node != null) {
+                result.add(node);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Key of declaration: array key with param name containing value offset.
+     */
+    @Nullable
+    public static PsiElement getDeclarationElement(@NotNull PsiElement elementAtOffset, @NotNull String path) {
+        final String name = getName(path);
+        ArrayHashElement hashElement = PsiTreeUtil.getParentOfType(elementAtOffset, ArrayHashElement.class);
+        while (hashElement != null) {
+            final PhpPsiElement key = hashElement.getKey();
+            if (key instanceof StringLiteralExpression && name.equals(((StringLiteralExpression) key).getContents())) {
+                return key;
+            }
+
+            hashElement = PsiTreeUtil.getParentOfType(hashElement, ArrayHashElement.class);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.jetbrains.php.lang.inspections.PhpInspection;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.visitors.PhpElementVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Reports "Yii::$app->params['key']" with keys not declared in params of application config
+ * (of any application of Yii root for "common" code).
+ * Nested keys are checked only when parent param is declared as array.
+ */
+public class UndefinedParamInspection extends PhpInspection {
+    @NotNull
+    @Override
+    public String getShortName() {
+        return "UndefinedParamInspection";
+    }
+
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder problemsHolder, boolean isOnTheFly) {
+        return new PhpElementVisitor() {
+            @Override
+            public void visitPhpArrayAccessExpression(ArrayAccessExpression expression) {
+                final ArrayIndex index = expression.getIndex();
+                if (index == null || !(index.getValue() instanceof StringLiteralExpression) || isRuntimeDefinition(expression)) {
+                    return;
+                }
+
+                final String path = ParamsUtil.getParamPath(expression);
+                if (path == null) {
+                    return;
+                }
+
+                final List<YiiConfigModel> models = ParamsUtil.getModels(expression);
+                if (ParamsUtil.isDefined(path, models)) {
+                    return;
+                }
+
+                final String parentPath = ParamsUtil.getParentPath(path);
+                if (parentPath.isEmpty()) {
+                    if (ParamsUtil.getChildNames("", models).isEmpty()) {
+                        // no params at all
+                        return;
+                    }
+                } else {
+                    final List<YiiConfigModel.Node> declarations = ParamsUtil.getDeclarations(parentPath, models);
+                    if (declarations.isEmpty()) {
+                        // reported for parent
+                        return;
+                    }
+
+                    for (YiiConfigModel.Node declaration : declarations) {
+                        if (!declaration.isArray()) {
+                            return;
+                        }
+                    }
+                }
+
+                problemsHolder.registerProblem(index.getValue(),
+                        "Param \"" + ParamsUtil.getPresentablePath(path) + "\" is not defined",
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+            }
+        };
+    }
+
+    /**
+     * Assignments and isset()/empty()/"??" checks of params are not reported.
+     */
+    private static boolean isRuntimeDefinition(@NotNull ArrayAccessExpression expression) {
+        PsiElement element = expression;
+        while (element.getParent() instanceof ArrayAccessExpression) {
+            element = element.getParent();
+        }
+
+        final PsiElement parent = element.getParent();
+        if (parent instanceof AssignmentExpression && ((AssignmentExpression) parent).getVariable() == element) {
+            return true;
+        }
+
+        if (parent instanceof PhpIsset || parent instanceof PhpEmpty) {
+            return true;
+        }
+
+        if (parent instanceof BinaryExpression && ((BinaryExpression) parent).getLeftOperand() == element) {
+            final PsiElement operation = ((BinaryExpression) parent).getOperation();
+            return operation != null && "??".equals(operation.getText());
+        }
+
+        return false;
+    }
+}
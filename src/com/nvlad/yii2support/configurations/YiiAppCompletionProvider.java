@@ -6,38 +6,36 @@ import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.ProcessingContext;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.FileUtil;
 import com.nvlad.yii2support.common.PsiUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class YiiAppCompletionProvider extends CompletionProvider<CompletionParameters> {
     @Override
     protected void addCompletions(@NotNull CompletionParameters completionParameters, @NotNull ProcessingContext processingContext, @NotNull CompletionResultSet completionResultSet) {
-        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
         final PsiElement psiElement = completionParameters.getPosition();
         final Project project = psiElement.getProject();
-        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
 
         if(psiElement.getParent() instanceof FieldReference){
             String field = PsiUtil.getYiiAppField((FieldReference) psiElement.getParent());
             if(field != null){
-                fileBasedIndex.processAllKeys(ComponentsIndex.identity, key -> {
-                    List<String> values = fileBasedIndex.getValues(ComponentsIndex.identity, key, scope);
-                    if(values.size() > 0){
-                        LookupElementBuilder lookupElement = LookupElementBuilder.create(key)
-                                .withTypeText(values.get(0), true)
-                                .withIcon(AllIcons.Nodes.Class);
+                final VirtualFile file = FileUtil.getVirtualFile(psiElement.getContainingFile());
+                final String application = file == null ? null : YiiApplicationLayout.getInstance(project).getApplicationName(file);
+                for (Map.Entry<String, Set<String>> entry : ComponentsSnapshot.getInstance(project).getComponents(application).entrySet()) {
+                    LookupElementBuilder lookupElement = LookupElementBuilder.create(entry.getKey())
+                            .withTypeText(entry.getValue().iterator().next(), true)
+                            .withIcon(AllIcons.Nodes.Class);
 
-                        completionResultSet.addElement(lookupElement);
-                    }
-                    return true;
-                }, project);
+                    completionResultSet.addElement(lookupElement);
+                }
             }
         }
     }
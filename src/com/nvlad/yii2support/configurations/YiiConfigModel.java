@@ -0,0 +1,383 @@
+package com.nvlad.yii2support.configurations;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.configurations.entities.ConfigFile;
+import com.nvlad.yii2support.configurations.entities.ConfigValue;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Merged config of application, built from {@link ConfigIndex} data without parsing php.
+ * Entry files "main.php", "main-local.php" (or "web.php" of basic template) of "common" and application
+ * "config" directories are merged in that order, included files are mounted where "require" stands.
+ * Later values replace earlier ones, list items are appended, like ArrayHelper::merge() does.
+ * Values and includes of a file are applied in the order merge arguments are written.
+ */
+public class YiiConfigModel {
+    private static final String[] ENTRY_FILES = {"main.php", "main-local.php", "web.php"};
+    private static final String COMMON_APPLICATION = "common";
+    private static final int MAX_INCLUDE_DEPTH = 10;
+    private static final YiiConfigModel EMPTY = new YiiConfigModel();
+
+    private final Node myRoot = new Node();
+    private final List<VirtualFile> myFiles = new ArrayList<>();
+    private int myListItemCount;
+
+    private YiiConfigModel() {
+    }
+
+    /**
+     * Config of application containing file, empty for files outside of Yii applications.
+     */
+    @NotNull
+    public static YiiConfigModel getInstance(@NotNull Project project, @Nullable VirtualFile file) {
+        final YiiApplicationLayout.Owner application = file == null ? null : YiiApplicationLayout.getInstance(project).getApplication(file);
+        return application == null ? EMPTY : getInstance(project, application);
+    }
+
+    @NotNull
+    public static YiiConfigModel getInstance(@NotNull Project project, @NotNull YiiApplicationLayout.Owner application) {
+        final ConcurrentMap<String, YiiConfigModel> models = CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+                        ConfigIndex.getModificationTracker(project),
+                        Yii2SupportSettings.getInstance(project).getModificationTracker()));
+
+        YiiConfigModel model = models.get(application.name);
+        if (model == null) {
+            model = build(project, application);
+            final YiiConfigModel existing = models.putIfAbsent(application.name, model);
+            if (existing != null) {
+                model = existing;
+            }
+        }
+
+        return model;
+    }
+
+    /**
+     * Configs of all applications of project, in layout order.
+     */
+    @NotNull
+    public static List<YiiConfigModel> getApplicationModels(@NotNull Project project) {
+        final List<YiiConfigModel> result = new ArrayList<>();
+        for (YiiApplicationLayout.Owner application : YiiApplicationLayout.getInstance(project).getApplications()) {
+            result.add(getInstance(project, application));
+        }
+
+        return result;
+    }
+
+    /**
+     * Files merged into config, in merge order.
+     */
+    @NotNull
+    public List<VirtualFile> getFiles() {
+        return Collections.unmodifiableList(myFiles);
+    }
+
+    @NotNull
+    public Node getRoot() {
+        return myRoot;
+    }
+
+    @Nullable
+    public Node getNode(@NotNull String... path) {
+        Node node = myRoot;
+        for (String segment : path) {
+            node = node.getChild(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Component id => component config node.
+     */
+    @NotNull
+    public Map<String, Node> getComponents() {
+        return getChildren("components");
+    }
+
+    /**
+     * Class of component, from "class" key or from string definition.
+     */
+    @Nullable
+    public String getComponentClass(@NotNull String id) {
+        return getDefinitionClass(getNode("components", id));
+    }
+
+    /**
+     * Module id => module class.
+     */
+    @NotNull
+    public Map<String, String> getModules() {
+        return getDefinitionClasses(getChildren("modules"));
+    }
+
+    @NotNull
+    public Map<String, Node> getParams() {
+        return getChildren("params");
+    }
+
+    @NotNull
+    public List<String> getBootstrap() {
+        final List<String> result = new ArrayList<>();
+        for (Node node : getChildren("bootstrap").values()) {
+            if (node.entry != null && "string".equals(node.entry.type)) {
+                result.add(node.entry.value);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Alias => target entry. Target is alias, absolute path or path relative to directory of entry file.
+     */
+    @NotNull
+    public Map<String, ConfigEntry> getAliases() {
+        final Map<String, ConfigEntry> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Node> alias : getChildren("aliases").entrySet()) {
+            final ConfigEntry entry = alias.getValue().entry;
+            if (entry != null && "string".equals(entry.type)) {
+                result.put(alias.getKey(), entry);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Class or interface => class of "container.definitions".
+     */
+    @NotNull
+    public Map<String, String> getContainerDefinitions() {
+        return getDefinitionClasses(getChildren("container", "definitions"));
+    }
+
+    /**
+     * Class or interface => class of "container.singletons".
+     */
+    @NotNull
+    public Map<String, String> getContainerSingletons() {
+        return getDefinitionClasses(getChildren("container", "singletons"));
+    }
+
+    @NotNull
+    private Map<String, Node> getChildren(@NotNull String... path) {
+        final Node node = getNode(path);
+        return node == null ? Collections.emptyMap() : node.getChildren();
+    }
+
+    @NotNull
+    private static Map<String, String> getDefinitionClasses(@NotNull Map<String, Node> definitions) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Node> definition : definitions.entrySet()) {
+            final String className = getDefinitionClass(definition.getValue());
+            if (className != null) {
+                result.put(definition.getKey(), className);
+            }
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private static String getDefinitionClass(@Nullable Node definition) {
+        if (definition == null) {
+            return null;
+        }
+
+        ConfigEntry entry = definition.entry != null ? definition.entry : definition.getEntry("class");
+        if (entry == null) {
+            entry = definition.getEntry("__class");
+        }
+
+        return entry != null && "string".equals(entry.type) ? entry.value : null;
+    }
+
+    @NotNull
+    private static YiiConfigModel build(@NotNull Project project, @NotNull YiiApplicationLayout.Owner application) {
+        final YiiConfigModel model = new YiiConfigModel();
+        final VirtualFile parent = application.directory.getParent();
+        final VirtualFile common = application.basePath.isEmpty() || application.application.equals(COMMON_APPLICATION) || parent == null
+                ? null : parent.findChild(COMMON_APPLICATION);
+        for (VirtualFile directory : new VirtualFile[]{common, application.directory}) {
+            final VirtualFile configDirectory = directory == null ? null : directory.findChild("config");
+            if (configDirectory == null) {
+                continue;
+            }
+
+            for (String name : ENTRY_FILES) {
+                final VirtualFile file = configDirectory.findChild(name);
+                if (file != null) {
+                    model.mount(project, file, "", new HashSet<>(), 0);
+                }
+            }
+        }
+
+        return model;
+    }
+
+    private void mount(@NotNull Project project, @NotNull VirtualFile file, @NotNull String prefix, @NotNull Set<VirtualFile> includeChain, int depth) {
+        if (depth > MAX_INCLUDE_DEPTH || !includeChain.add(file)) {
+            return;
+        }
+
+        final ConfigFile configFile = FileBasedIndex.getInstance().getFileData(ConfigIndex.identity, file, project).get(ConfigIndex.KEY);
+        if (configFile != null) {
+            myFiles.add(file);
+            final Map<String, String> listItems = new HashMap<>();
+            final List<Map.Entry<String, ConfigValue>> entries = new ArrayList<>(configFile.entries.entrySet());
+            entries.sort(Comparator.comparingInt(entry -> entry.getValue().order));
+
+            // values and includes are applied in merge order, so "merge($config, require 'main-local.php')" ends with local file
+            final Iterator<ConfigFile.Include> includes = configFile.includes.iterator();
+            ConfigFile.Include include = includes.hasNext() ? includes.next() : null;
+            for (Map.Entry<String, ConfigValue> entry : entries) {
+                final ConfigValue value = entry.getValue();
+                while (include != null && include.order < value.order) {
+                    mountInclude(project, file, include, prefix, listItems, includeChain, depth);
+                    include = includes.hasNext() ? includes.next() : null;
+                }
+
+                myRoot.put(ConfigFile.split(relocate(prefix, entry.getKey(), listItems)), 0,
+                        new ConfigEntry(value.value, value.type, file, value.offset));
+            }
+
+            while (include != null) {
+                mountInclude(project, file, include, prefix, listItems, includeChain, depth);
+                include = includes.hasNext() ? includes.next() : null;
+            }
+        }
+
+        includeChain.remove(file);
+    }
+
+    private void mountInclude(@NotNull Project project, @NotNull VirtualFile file, @NotNull ConfigFile.Include include, @NotNull String prefix,
+                              @NotNull Map<String, String> listItems, @NotNull Set<VirtualFile> includeChain, int depth) {
+        final VirtualFile directory = file.getParent();
+        final VirtualFile includedFile = directory == null ? null : directory.findFileByRelativePath(include.file);
+        if (includedFile != null && !includedFile.isDirectory()) {
+            mount(project, includedFile, relocate(prefix, include.path, listItems), includeChain, depth + 1);
+        }
+    }
+
+    /**
+     * Prepends prefix to path and renames list items, so items of merged files are appended.
+     */
+    @NotNull
+    private String relocate(@NotNull String prefix, @NotNull String path, @NotNull Map<String, String> listItems) {
+        if (!path.contains(ConfigFile.LIST_ITEM)) {
+            return path.isEmpty() ? prefix : ConfigFile.append(prefix, path);
+        }
+
+        String result = prefix;
+        for (String segment : ConfigFile.split(path)) {
+            if (segment.startsWith(ConfigFile.LIST_ITEM)) {
+                segment = listItems.computeIfAbsent(segment, k -> ConfigFile.LIST_ITEM + myListItemCount++);
+            }
+
+            result = ConfigFile.append(result, segment);
+        }
+
+        return result;
+    }
+
+    /**
+     * Config array (children) or leaf value (entry).
+     */
+    public static class Node {
+        private ConfigEntry entry;
+        private Map<String, Node> children;
+
+        @Nullable
+        public ConfigEntry getEntry() {
+            return entry;
+        }
+
+        @Nullable
+        public ConfigEntry getEntry(@NotNull String key) {
+            final Node child = getChild(key);
+            return child == null ? null : child.entry;
+        }
+
+        @NotNull
+        public Map<String, Node> getChildren() {
+            return children == null ? Collections.emptyMap() : Collections.unmodifiableMap(children);
+        }
+
+        @Nullable
+        public Node getChild(@NotNull String key) {
+            return children == null ? null : children.get(key);
+        }
+
+        /**
+         * Nested array or "[]" leaf.
+         */
+        public boolean isArray() {
+            return children != null || (entry != null && "array".equals(entry.type));
+        }
+
+        /**
+         * Leaf value itself or first leaf of array, locates array declarations.
+         */
+        @Nullable
+        public ConfigEntry getFirstEntry() {
+            Node node = this;
+            while (node.entry == null && node.children != null && !node.children.isEmpty()) {
+                node = node.children.values().iterator().next();
+            }
+
+            return node.entry;
+        }
+
+        private void put(@NotNull List<String> path, int index, @NotNull ConfigEntry value) {
+            if (index == path.size()) {
+                entry = value;
+                children = null;
+                return;
+            }
+
+            entry = null;
+            if (children == null) {
+                children = new LinkedHashMap<>();
+            }
+
+            children.computeIfAbsent(path.get(index), k -> new Node()).put(path, index + 1, value);
+        }
+    }
+
+    /**
+     * Leaf value with its location.
+     */
+    public static class ConfigEntry {
+        @NotNull
+        public final String value;
+        @NotNull
+        public final String type;
+        @NotNull
+        public final VirtualFile file;
+        public final int offset;
+
+        private ConfigEntry(@NotNull String value, @NotNull String type, @NotNull VirtualFile file, int offset) {
+            this.value = value;
+            this.type = type;
+            this.file = file;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.nvlad.yii2support.configurations.entities;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Config array returned by file, flattened to paths of leaf values.
+ * Path segments are array keys joined by {@link #SEPARATOR}, list items have "#" keys.
+ * Values and includes share one merge order, so "merge($config, require 'main-local.php')" mounts included file last.
+ */
+public class ConfigFile {
+    public static final char SEPARATOR = '\u001F';
+    public static final String LIST_ITEM = "#";
+
+    /**
+     * Path => leaf value, merge position is {@link ConfigValue#order}.
+     */
+    public Map<String, ConfigValue> entries = new LinkedHashMap<>();
+    /**
+     * Included ("require") files, in merge order.
+     */
+    public List<Include> includes = new ArrayList<>();
+
+    @NotNull
+    public static String path(@NotNull String... segments) {
+        return StringUtil.join(segments, String.valueOf(SEPARATOR));
+    }
+
+    @NotNull
+    public static String append(@NotNull String path, @NotNull String segment) {
+        return path.isEmpty() ? segment : path + SEPARATOR + segment;
+    }
+
+    @NotNull
+    public static List<String> split(@NotNull String path) {
+        return path.isEmpty() ? Collections.emptyList() : StringUtil.split(path, String.valueOf(SEPARATOR), true, false);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty() && includes.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entries, includes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof ConfigFile)) {
+            return false;
+        }
+
+        ConfigFile configFile = (ConfigFile) obj;
+        return this.entries.equals(configFile.entries) && this.includes.equals(configFile.includes);
+    }
+
+    /**
+     * Included file, its array is mounted at path, empty path stands for whole config.
+     */
+    public static class Include {
+        public String path;
+        /**
+         * Path of included file relative to directory of config file.
+         */
+        public String file;
+        /**
+         * Merge position, shared with {@link ConfigValue#order}.
+         */
+        public int order;
+
+        public Include() {
+        }
+
+        public Include(String path, String file, int order) {
+            this.path = path;
+            this.file = file;
+            this.order = order;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, file, order);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Include)) {
+                return false;
+            }
+
+            Include include = (Include) obj;
+            return this.order == include.order
+                    && StringUtil.equals(this.path, include.path)
+                    && StringUtil.equals(this.file, include.file);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.nvlad.yii2support.configurations.entities;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.util.Objects;
+
+/**
+ * Scalar (leaf) value of config array.
+ */
+public class ConfigValue {
+    /**
+     * String contents, class FQN for "::class" references, expression text otherwise.
+     */
+    public String value;
+    /**
+     * Type signature of value: "string", "int", "bool", "array" etc.
+     */
+    public String type;
+    /**
+     * Offset of value expression in config file.
+     */
+    public int offset;
+    /**
+     * Merge position in config file, later values replace earlier ones.
+     */
+    public int order;
+
+    public ConfigValue() {
+    }
+
+    public ConfigValue(String value, String type, int offset) {
+        this.value = value;
+        this.type = type;
+        this.offset = offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, type, offset, order);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof ConfigValue)) {
+            return false;
+        }
+
+        ConfigValue configValue = (ConfigValue) obj;
+        return this.offset == configValue.offset
+                && this.order == configValue.order
+                && StringUtil.equals(this.value, configValue.value)
+                && StringUtil.equals(this.type, configValue.type);
+    }
+}
@@ -0,0 +1,106 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.lang.PhpLanguage;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.nvlad.yii2support.common.ClassHierarchy;
+import com.nvlad.yii2support.common.DatabaseUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
+import com.nvlad.yii2support.database.entities.ActiveRecordRelation;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Magic properties of ActiveRecord classes: table columns from {@link SchemaSnapshot} and relations
+ * from {@link ActiveRecordRelations}, so they are typed and completed without "@property" tags.
+ */
+public class ActiveRecordProperties {
+    /**
+     * Property name => PHP type, relations override columns with same name. Empty for other classes.
+     */
+    @NotNull
+    public static Map<String, String> getProperties(@NotNull PhpClass phpClass) {
+        final Project project = phpClass.getProject();
+        return CachedValuesManager.getCachedValue(phpClass, () -> CachedValueProvider.Result.create(
+                collectProperties(phpClass),
+                SchemaSnapshot.getModificationTracker(project),
+                ActiveRecordTableIndex.getModificationTracker(project),
+                RelationIndex.getModificationTracker(project),
+                Yii2SupportSettings.getInstance(project).getModificationTracker(),
+                PsiModificationTracker.getInstance(project).forLanguage(PhpLanguage.INSTANCE)
+        ));
+    }
+
+    @Nullable
+    public static String getPropertyType(@NotNull PhpClass phpClass, @NotNull String name) {
+        return getProperties(phpClass).get(name);
+    }
+
+    /**
+     * Cheap filter before class lookups: name is column of any table or name of any indexed relation.
+     */
+    public static boolean isPropertyName(@NotNull Project project, @NotNull String name) {
+        return getPropertyNames(project).contains(name);
+    }
+
+    @NotNull
+    private static Set<String> getPropertyNames(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> {
+            final Set<String> result = new HashSet<>();
+            for (TableInfo table : SchemaSnapshot.getInstance(project).getTables()) {
+                for (ColumnInfo column : table.getColumns()) {
+                    result.add(column.getName());
+                }
+            }
+
+            final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+            final GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+            for (String classFQN : fileBasedIndex.getAllKeys(RelationIndex.identity, project)) {
+                for (List<ActiveRecordRelation> relations : fileBasedIndex.getValues(RelationIndex.identity, classFQN, scope)) {
+                    for (ActiveRecordRelation relation : relations) {
+                        result.add(relation.name);
+                    }
+                }
+            }
+
+            return CachedValueProvider.Result.create(Collections.unmodifiableSet(result),
+                    SchemaSnapshot.getModificationTracker(project),
+                    RelationIndex.getModificationTracker(project));
+        });
+    }
+
+    @NotNull
+    private static Map<String, String> collectProperties(@NotNull PhpClass phpClass) {
+        if (!ClassHierarchy.hasRole(phpClass, YiiClassRole.BaseActiveRecord)) {
+            return Collections.emptyMap();
+        }
+
+        final Project project = phpClass.getProject();
+        final Map<String, String> result = new LinkedHashMap<>();
+        final String table = DatabaseUtils.getTableByActiveRecordClass(phpClass);
+        if (table != null) {
+            final String preferredDataSourceId = Yii2SupportSettings.getInstance(project).dataSourceId;
+            for (TableInfo tableInfo : SchemaSnapshot.getInstance(project).findTables(table, preferredDataSourceId)) {
+                for (ColumnInfo column : tableInfo.getColumns()) {
+                    result.putIfAbsent(column.getName(), column.getPhpType());
+                }
+            }
+        }
+
+        for (ActiveRecordRelation relation : ActiveRecordRelations.getRelations(phpClass).values()) {
+            if (!relation.className.isEmpty()) {
+                result.put(relation.name, relation.getPropertyType());
+            }
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,150 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.PhpLanguage;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
+import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
+import com.nvlad.yii2support.database.entities.ActiveRecordRelation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Relations of ActiveRecord classes served from {@link RelationIndex}, including inherited ones,
+ * and helpers for relation names in "with()" and "joinWith()" calls.
+ */
+public class ActiveRecordRelations {
+    private static final String[] WITH_METHODS = {"with", "joinWith", "innerJoinWith"};
+    private static final int MAX_DEPTH = 100;
+
+    /**
+     * Relation name => relation, own relations override inherited. Cached per class until index or PHP code change.
+     */
+    @NotNull
+    public static Map<String, ActiveRecordRelation> getRelations(@NotNull PhpClass phpClass) {
+        return CachedValuesManager.getCachedValue(phpClass, () -> CachedValueProvider.Result.create(
+                collectRelations(phpClass),
+                RelationIndex.getModificationTracker(phpClass.getProject()),
+                PsiModificationTracker.getInstance(phpClass.getProject()).forLanguage(PhpLanguage.INSTANCE)
+        ));
+    }
+
+    @Nullable
+    public static ActiveRecordRelation findRelation(@NotNull PhpClass phpClass, @NotNull String name) {
+        return getRelations(phpClass).get(name);
+    }
+
+    @Nullable
+    public static PhpClass getRelatedClass(@NotNull Project project, @NotNull ActiveRecordRelation relation) {
+        if (relation.className.isEmpty()) {
+            return null;
+        }
+
+        return ClassUtils.getClass(PhpIndex.getInstance(project), relation.className);
+    }
+
+    /**
+     * Class of last relation of path: "orders.items" => class of "items" relation of "orders" class,
+     * empty path => class itself. Null when any relation of path is unknown.
+     */
+    @Nullable
+    public static PhpClass getRelatedClass(@NotNull PhpClass phpClass, @NotNull List<String> path) {
+        PhpClass owner = phpClass;
+        for (int i = 0; i < path.size() && owner != null; i++) {
+            final ActiveRecordRelation relation = findRelation(owner, path.get(i));
+            owner = relation == null ? null : getRelatedClass(phpClass.getProject(), relation);
+        }
+
+        return owner;
+    }
+
+    /**
+     * "with('orders.items')" relation path: names without alias ("orders o") and callback keys.
+     */
+    @NotNull
+    public static List<String> splitPath(@NotNull String path) {
+        final List<String> result = new ArrayList<>();
+        for (String name : StringUtil.split(path, ".", true, false)) {
+            final int spacePosition = name.trim().indexOf(' ');
+            result.add(spacePosition == -1 ? name.trim() : name.trim().substring(0, spacePosition));
+        }
+
+        return result;
+    }
+
+    /**
+     * "with()", "joinWith()" or "innerJoinWith()" call with string literal as relation:
+     * direct parameter, array item or array key.
+     */
+    @Nullable
+    public static MethodReference getWithMethodReference(@NotNull StringLiteralExpression literal) {
+        PsiElement element = literal.getParent();
+        if (!(element instanceof ParameterList) && element != null) {
+            final PsiElement arrayElement = element.getParent();
+            if (arrayElement instanceof ArrayCreationExpression) {
+                // ['orders', ...]
+                element = arrayElement.getParent();
+            } else if (arrayElement instanceof ArrayHashElement) {
+                // ['orders' => function ($query) {}]
+                final PhpPsiElement key = ((ArrayHashElement) arrayElement).getKey();
+                element = key == element || key == literal ? arrayElement.getParent().getParent() : null;
+            }
+        }
+
+        if (element instanceof ParameterList && element.getParent() instanceof MethodReference) {
+            final MethodReference reference = (MethodReference) element.getParent();
+            return ArrayUtil.contains(reference.getName(), WITH_METHODS) ? reference : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * ActiveRecord class of query: "User::find()->with()" or ActiveQuery linked with "@see" tag.
+     */
+    @Nullable
+    public static PhpClass getActiveRecordClass(@NotNull MethodReference reference) {
+        final PhpClass phpClass = ClassUtils.getPhpClassByCallChain(reference);
+        if (ClassHierarchy.hasRole(phpClass, YiiClassRole.BaseActiveRecord)) {
+            return phpClass;
+        }
+
+        if (ClassHierarchy.hasRole(phpClass, YiiClassRole.ActiveQuery)) {
+            return ClassUtils.findClassInSeeTags(PhpIndex.getInstance(reference.getProject()), phpClass, "\\yii\\db\\BaseActiveRecord");
+        }
+
+        return null;
+    }
+
+    @NotNull
+    private static Map<String, ActiveRecordRelation> collectRelations(@NotNull PhpClass phpClass) {
+        final Map<String, ActiveRecordRelation> result = new LinkedHashMap<>();
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final GlobalSearchScope scope = GlobalSearchScope.allScope(phpClass.getProject());
+        final Set<String> visited = new HashSet<>();
+        PhpClass current = phpClass;
+        while (current != null && visited.size() < MAX_DEPTH && visited.add(current.getFQN())) {
+            for (List<ActiveRecordRelation> relations : fileBasedIndex.getValues(RelationIndex.identity, current.getFQN(), scope)) {
+                for (ActiveRecordRelation relation : relations) {
+                    result.putIfAbsent(relation.name, relation);
+                }
+            }
+
+            current = current.getSuperClass();
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,162 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.database.entities.ClassTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class FQN => superclass and table expression of own "tableName()", for classes declaring "tableName()"
+ * or extending "*ActiveRecord" class. Ancestry of such classes is kept in index, so ActiveRecord tables
+ * are resolved without PSI, see {@link ActiveRecordTables}.
+ */
+public class ActiveRecordTableIndex extends FileBasedIndexExtension<String, ClassTable> {
+    public static final ID<String, ClassTable> identity = ID.create("Yii2Support.ActiveRecordTableIndex");
+    private static final String TABLE_NAME = "tableName";
+    private static final String ACTIVE_RECORD_SUFFIX = "ActiveRecord";
+
+    private final ClassTableExternalizer myClassTableExternalizer = new ClassTableExternalizer();
+
+    @NotNull
+    @Override
+    public ID<String, ClassTable> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, ClassTable, FileContent> getIndexer() {
+        return inputData -> {
+            final Map<String, ClassTable> result = new HashMap<>();
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), PhpClass.class)) {
+                final String parent = phpClass.getSuperFQN();
+                final Method method = phpClass.findOwnMethodByName(TABLE_NAME);
+                if (method == null && (parent == null || !parent.endsWith(ACTIVE_RECORD_SUFFIX))) {
+                    continue;
+                }
+
+                result.put(phpClass.getFQN(), new ClassTable(parent == null ? "" : parent, method == null ? null : getTable(phpClass, method)));
+            }
+
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<ClassTable> getValueExternalizer() {
+        return myClassTableExternalizer;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Tracker for caches built from table index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    /**
+     * Table expression of first "return" in "tableName()" with string value or class constant.
+     */
+    @NotNull
+    private static String getTable(@NotNull PhpClass phpClass, @NotNull Method method) {
+        for (PhpReturn phpReturn : PsiTreeUtil.findChildrenOfType(method, PhpReturn.class)) {
+            final PsiElement argument = phpReturn.getArgument();
+            if (argument instanceof StringLiteralExpression) {
+                return ((StringLiteralExpression) argument).getContents();
+            }
+
+            if (argument instanceof ClassConstantReference) {
+                final String table = getConstantTable(phpClass, (ClassConstantReference) argument);
+                if (table != null) {
+                    return table;
+                }
+            }
+        }
+
+        return "";
+    }
+
+    /**
+     * Value of own constant, or reference to constant of other class for resolving after indexing.
+     */
+    @Nullable
+    private static String getConstantTable(@NotNull PhpClass phpClass, @NotNull ClassConstantReference reference) {
+        final String name = reference.getName();
+        final PhpExpression classReference = reference.getClassReference();
+        if (name == null || "class".equals(name) || !(classReference instanceof ClassReference)) {
+            return null;
+        }
+
+        final String className = classReference.getText();
+        if (className.equals("self") || className.equals("static")) {
+            final Field constant = phpClass.findOwnFieldByName(name, true);
+            if (constant != null && constant.getDefaultValue() instanceof StringLiteralExpression) {
+                return ((StringLiteralExpression) constant.getDefaultValue()).getContents();
+            }
+
+            return phpClass.getFQN() + "::" + name;
+        }
+
+        final String fqn = ((ClassReference) classReference).getFQN();
+        return StringUtil.isEmpty(fqn) ? null : fqn + "::" + name;
+    }
+
+    private static class ClassTableExternalizer implements DataExternalizer<ClassTable> {
+        @Override
+        public void save(@NotNull DataOutput dataOutput, ClassTable value) throws IOException {
+            EnumeratorStringDescriptor.INSTANCE.save(dataOutput, value.parent);
+            dataOutput.writeBoolean(value.table != null);
+            if (value.table != null) {
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, value.table);
+            }
+        }
+
+        @Override
+        public ClassTable read(@NotNull DataInput dataInput) throws IOException {
+            final ClassTable value = new ClassTable();
+            value.parent = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+            value.table = dataInput.readBoolean() ? EnumeratorStringDescriptor.INSTANCE.read(dataInput) : null;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.Field;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import com.nvlad.yii2support.common.DatabaseUtils;
+import com.nvlad.yii2support.common.StringUtils;
+import com.nvlad.yii2support.database.entities.ClassTable;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tables of ActiveRecord classes served from {@link ActiveRecordTableIndex}: class => table and table => classes.
+ * Results are memoized until index or settings (table prefix) change. Classes outside of index
+ * (ancestor without "tableName()" which does not extend "*ActiveRecord") are not resolved here.
+ */
+public class ActiveRecordTables {
+    private static final String ACTIVE_RECORD = "\\yii\\db\\ActiveRecord";
+    private static final String BASE_ACTIVE_RECORD = "\\yii\\db\\BaseActiveRecord";
+    private static final int MAX_DEPTH = 100;
+    private static final String NOT_ACTIVE_RECORD = "";
+
+    private final Project myProject;
+    private final GlobalSearchScope myScope;
+    private final Map<String, String> myTables = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> myClassesByTable;
+
+    private ActiveRecordTables(@NotNull Project project) {
+        myProject = project;
+        myScope = GlobalSearchScope.allScope(project);
+    }
+
+    @NotNull
+    public static ActiveRecordTables getInstance(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+                new ActiveRecordTables(project),
+                ActiveRecordTableIndex.getModificationTracker(project),
+                Yii2SupportSettings.getInstance(project).getModificationTracker()
+        ));
+    }
+
+    /**
+     * Table of ActiveRecord class with table prefix applied, null for other classes.
+     */
+    @Nullable
+    public String getTable(@NotNull String classFQN) {
+        String table = myTables.get(classFQN);
+        if (table == null) {
+            table = resolveTable(classFQN);
+            myTables.put(classFQN, table == null ? NOT_ACTIVE_RECORD : table);
+        }
+
+        return table == null || table.equals(NOT_ACTIVE_RECORD) ? null : table;
+    }
+
+    /**
+     * FQNs of ActiveRecord classes mapped to table (with table prefix applied).
+     */
+    @NotNull
+    public Set<String> getClasses(@NotNull String table) {
+        Map<String, Set<String>> classesByTable = myClassesByTable;
+        if (classesByTable == null) {
+            classesByTable = new HashMap<>();
+            for (String classFQN : FileBasedIndex.getInstance().getAllKeys(ActiveRecordTableIndex.identity, myProject)) {
+                final String classTable = getTable(classFQN);
+                if (classTable != null) {
+                    classesByTable.computeIfAbsent(classTable, k -> new TreeSet<>()).add(classFQN);
+                }
+            }
+
+            myClassesByTable = classesByTable;
+        }
+
+        final Set<String> classes = classesByTable.get(table);
+        return classes == null ? Collections.emptySet() : Collections.unmodifiableSet(classes);
+    }
+
+    /**
+     * Walks superclasses from index: first own "tableName()" wins, "yii\db\ActiveRecord::tableName()"
+     * means default "{{%class_name}}" table.
+     */
+    @Nullable
+    private String resolveTable(@NotNull String classFQN) {
+        final String className = classFQN.substring(classFQN.lastIndexOf('\\') + 1);
+        final Set<String> visited = new HashSet<>();
+        String table = null;
+        boolean activeRecord = false;
+        String current = classFQN;
+        while (!current.isEmpty() && visited.size() < MAX_DEPTH && visited.add(current)) {
+            if (current.equals(ACTIVE_RECORD) || current.equals(BASE_ACTIVE_RECORD)) {
+                activeRecord = true;
+                if (table == null) {
+                    table = current.equals(ACTIVE_RECORD) ? "{{%" + StringUtils.CamelToId(className) + "}}" : "";
+                }
+
+                break;
+            }
+
+            final ClassTable classTable = getClassTable(current);
+            if (classTable == null) {
+                break;
+            }
+
+            if (table == null && classTable.table != null) {
+                table = classTable.isConstant() ? resolveConstant(classTable.table) : classTable.table;
+            }
+
+            current = classTable.parent;
+        }
+
+        if (!activeRecord) {
+            return null;
+        }
+
+        if (table == null || table.isEmpty()) {
+            table = StringUtils.CamelToId(className);
+        }
+
+        return DatabaseUtils.AddTablePrefix(table, false, myProject);
+    }
+
+    @Nullable
+    private ClassTable getClassTable(@NotNull String classFQN) {
+        final List<ClassTable> values = FileBasedIndex.getInstance().getValues(ActiveRecordTableIndex.identity, classFQN, myScope);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Value of "\app\Tables::USER" constant, empty string when it can not be resolved.
+     */
+    @NotNull
+    private String resolveConstant(@NotNull String reference) {
+        final int separatorPosition = reference.indexOf("::");
+        final String classFQN = reference.substring(0, separatorPosition);
+        final String name = reference.substring(separatorPosition + 2);
+        for (PhpClass phpClass : PhpIndex.getInstance(myProject).getAnyByFQN(classFQN)) {
+            final Field constant = phpClass.findFieldByName(name, true);
+            if (constant != null && constant.getDefaultValue() instanceof StringLiteralExpression) {
+                return ((StringLiteralExpression) constant.getDefaultValue()).getContents();
+            }
+        }
+
+        return "";
+    }
+}
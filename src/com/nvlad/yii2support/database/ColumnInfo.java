@@ -0,0 +1,70 @@
+package com.nvlad.yii2support.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Table column detached from database model.
+ */
+public class ColumnInfo {
+    private final String myName;
+    private final String myType;
+    private final String myComment;
+    private final boolean myPrimary;
+
+    public ColumnInfo(@NotNull String name, @NotNull String type, @Nullable String comment, boolean primary) {
+        myName = name;
+        myType = type;
+        myComment = comment;
+        myPrimary = primary;
+    }
+
+    @NotNull
+    public String getName() {
+        return myName;
+    }
+
+    @NotNull
+    public String getType() {
+        return myType;
+    }
+
+    @Nullable
+    public String getComment() {
+        return myComment;
+    }
+
+    public boolean isPrimary() {
+        return myPrimary;
+    }
+
+    /**
+     * PHP type of column value, "string" for unknown database types.
+     */
+    @NotNull
+    public String getPhpType() {
+        return toPhpType(myType);
+    }
+
+    @NotNull
+    public static String toPhpType(@NotNull String type) {
+        switch (type.toUpperCase()) {
+            case "INT": return "int";
+            case "TINYINT": return "bool";
+            case "BOOLEAN": return "bool";
+            case "BIGINT": return "int";
+            case "SMALLINT": return "int";
+            case "NUMERIC": return "int";
+            case "MEDIUMINT": return "int";
+            case "SMALLSERIAL": return "int";
+            case "SERIAL": return "int";
+            case "BIGSERIAL": return "int";
+            case "FLOAT": return "float";
+            case "REAL": return "float";
+            case "DOUBLE PRECISION": return "float";
+            case "DOUBLE": return "float";
+            case "TIMESTAMP": return "int";
+        }
+        return "string";
+    }
+}
@@ -0,0 +1,94 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.Parameter;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Names of "yii\db" methods with "condition", "expression" or "sql" parameter followed by "params",
+ * including methods declared by project subclasses, so method calls with other names are skipped without resolving.
+ */
+public class ConditionMethods {
+    private static final String[] CLASSES = {
+            "\\yii\\db\\Query",
+            "\\yii\\db\\ActiveQuery",
+            "\\yii\\db\\ActiveRecord",
+            "\\yii\\db\\Command",
+            "\\yii\\db\\Connection",
+            "\\yii\\db\\Migration",
+            "\\yii\\db\\QueryBuilder",
+    };
+    private static final String[] CONDITION_PARAMETERS = {"condition", "expression", "sql"};
+
+    /**
+     * Lower case method names, rebuilt when stub indexes change (methods are declared in stubs), not on every edit.
+     */
+    @NotNull
+    public static Set<String> getMethodNames(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+                collectMethodNames(project),
+                StubIndex.getInstance().getStubIndexModificationTracker(project)
+        ));
+    }
+
+    public static boolean isConditionMethod(@NotNull Project project, @Nullable String name) {
+        return name != null && getMethodNames(project).contains(name.toLowerCase());
+    }
+
+    /**
+     * Index of condition parameter when it is followed by "params" parameter, -1 otherwise.
+     */
+    public static int getConditionParameterIndex(@NotNull Method method) {
+        final Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length - 1; i++) {
+            if ("params".equals(parameters[i + 1].getName())) {
+                for (String name : CONDITION_PARAMETERS) {
+                    if (name.equals(parameters[i].getName())) {
+                        return i;
+                    }
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    @NotNull
+    private static Set<String> collectMethodNames(@NotNull Project project) {
+        final PhpIndex phpIndex = PhpIndex.getInstance(project);
+        final Set<String> result = new HashSet<>();
+        for (String className : CLASSES) {
+            for (PhpClass phpClass : phpIndex.getAnyByFQN(className)) {
+                addMethodNames(phpClass.getMethods(), result);
+            }
+
+            // own methods are enough for subclasses, inherited ones are collected above
+            for (PhpClass phpClass : phpIndex.getAllSubclasses(className)) {
+                addMethodNames(Arrays.asList(phpClass.getOwnMethods()), result);
+            }
+        }
+
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static void addMethodNames(@NotNull Collection<Method> methods, @NotNull Set<String> result) {
+        for (Method method : methods) {
+            if (getConditionParameterIndex(method) > -1) {
+                result.add(method.getName().toLowerCase());
+            }
+        }
+    }
+}
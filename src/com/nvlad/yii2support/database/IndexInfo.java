@@ -0,0 +1,35 @@
+package com.nvlad.yii2support.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Table index detached from database model.
+ */
+public class IndexInfo {
+    private final String myName;
+    private final List<String> myColumns;
+    private final boolean myUnique;
+
+    public IndexInfo(@NotNull String name, @NotNull List<String> columns, boolean unique) {
+        myName = name;
+        myColumns = Collections.unmodifiableList(columns);
+        myUnique = unique;
+    }
+
+    @NotNull
+    public String getName() {
+        return myName;
+    }
+
+    @NotNull
+    public List<String> getColumns() {
+        return myColumns;
+    }
+
+    public boolean isUnique() {
+        return myUnique;
+    }
+}
@@ -24,24 +24,24 @@ public class MissedParamInspection extends PhpInspection {
 
             @Override
             public void visitPhpMethodReference(MethodReference reference) {
-                if (reference != null && reference.getParameters().length > 0) {
+                // names are checked before resolving, most of calls are not database ones
+                if (reference != null && reference.getParameters().length > 0
+                        && ConditionMethods.isConditionMethod(reference.getProject(), reference.getName())) {
 
                     Method method = (Method) reference.resolve();
                     if (method == null)
                         return;
-                    int paramParameterIndex = ClassUtils.getParamIndex(method, "params");
-                    int conditionParameterIndex = ClassUtils.getParamIndex(method, new String[]{ "condition", "expression", "sql"});
+                    int conditionParameterIndex = ConditionMethods.getConditionParameterIndex(method);
+                    int paramParameterIndex = conditionParameterIndex + 1;
 
-                    if (paramParameterIndex > -1 && conditionParameterIndex > -1 && reference.getParameters().length > conditionParameterIndex &&
-                            conditionParameterIndex == paramParameterIndex - 1) {
+                    if (conditionParameterIndex > -1 && reference.getParameters().length > conditionParameterIndex) {
 
                         PsiElement element = reference.getParameters()[conditionParameterIndex];
 
-                        String condition = ClassUtils.getStringByElement(element);
-                        String[] conditionParams = DatabaseUtils.extractParamsFromCondition(condition);
-                        String[] conditionParamsWithoutColon = DatabaseUtils.extractParamsFromCondition(condition, false);
+                        String[] conditionParams = DatabaseUtils.extractParamsFromCondition(element, true);
 
                         if (conditionParams.length > 0) {
+                            String[] conditionParamsWithoutColon = DatabaseUtils.extractParamsFromCondition(element, false);
                             if (reference.getParameters().length > paramParameterIndex) {
                                 PsiElement paramParam = reference.getParameters()[paramParameterIndex];
                                 if (paramParam instanceof ArrayCreationExpression) {
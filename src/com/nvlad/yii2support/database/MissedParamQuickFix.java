@@ -45,15 +45,11 @@ public class MissedParamQuickFix  implements LocalQuickFix {
         Method method = (Method)methodReference.resolve();
         if (method != null) {
 //          Parameter[] parameters = method.getParameters();
-          int paramParameterIndex = ClassUtils.getParamIndex(method, "params");
-          int conditionParameterIndex = ClassUtils.getParamIndex(method, new String[]{ "condition", "expression", "sql"});
-
-          if (paramParameterIndex > -1
-                  && conditionParameterIndex > -1
-                  && conditionParameterIndex == paramParameterIndex - 1
-                  && methodReference.getParameters().length > conditionParameterIndex) {
-              String condition = methodReference.getParameters()[conditionParameterIndex].getText();
-              String[] conditionParams = DatabaseUtils.extractParamsFromCondition(condition);
+          int conditionParameterIndex = ConditionMethods.getConditionParameterIndex(method);
+          int paramParameterIndex = conditionParameterIndex + 1;
+
+          if (conditionParameterIndex > -1 && methodReference.getParameters().length > conditionParameterIndex) {
+              String[] conditionParams = DatabaseUtils.extractParamsFromCondition(methodReference.getParameters()[conditionParameterIndex], true);
 
               ArrayCreationExpression array = null;
               if (methodReference.getParameters().length > paramParameterIndex) {
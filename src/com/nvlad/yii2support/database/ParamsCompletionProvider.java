@@ -31,8 +31,7 @@ public class ParamsCompletionProvider extends CompletionProvider<CompletionParam
                                 method.getParameters()[paramPosition - 1].getName().equals("sql") ||
                                 method.getParameters()[paramPosition - 1].getName().equals("expression") )) {
                     PsiElement element = methodRef.getParameters()[paramPosition - 1];
-                    String condition = ClassUtils.getStringByElement(element);
-                    String[] result = DatabaseUtils.extractParamsFromCondition(condition);
+                    String[] result = DatabaseUtils.extractParamsFromCondition(element, true);
                     ArrayList<String> usedItems = new ArrayList<>();
                     if (position.getParent().getParent().getParent() instanceof ArrayCreationExpression) {
                         ArrayCreationExpression array = (ArrayCreationExpression) position.getParent().getParent().getParent();
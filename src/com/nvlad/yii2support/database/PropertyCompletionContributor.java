@@ -0,0 +1,20 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.patterns.ElementPattern;
+import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.jetbrains.php.lang.psi.elements.FieldReference;
+
+/**
+ * ActiveRecord columns and relations after "$model->" without "@property" tags.
+ */
+public class PropertyCompletionContributor extends com.intellij.codeInsight.completion.CompletionContributor {
+    public PropertyCompletionContributor() {
+        extend(CompletionType.BASIC, ElementPattern(), new PropertyCompletionProvider());
+    }
+
+    private static ElementPattern<PsiElement> ElementPattern() {
+        return PlatformPatterns.psiElement().withParent(FieldReference.class);
+    }
+}
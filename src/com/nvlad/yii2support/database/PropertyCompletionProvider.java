@@ -0,0 +1,47 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.ProcessingContext;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.FieldReference;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.PhpPsiElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Completes magic properties from {@link ActiveRecordProperties}, declared fields are completed by PhpStorm.
+ */
+public class PropertyCompletionProvider extends com.intellij.codeInsight.completion.CompletionProvider<CompletionParameters> {
+    @Override
+    protected void addCompletions(@NotNull CompletionParameters completionParameters, ProcessingContext processingContext, @NotNull CompletionResultSet completionResultSet) {
+        final FieldReference fieldReference = (FieldReference) completionParameters.getPosition().getParent();
+        final PhpPsiElement classReference = fieldReference.getClassReference();
+        if (classReference == null || fieldReference.getReferenceType().isStatic()) {
+            return;
+        }
+
+        final Project project = fieldReference.getProject();
+        final PhpIndex phpIndex = PhpIndex.getInstance(project);
+        final Set<String> added = new HashSet<>();
+        for (String className : classReference.getType().global(project).getTypes()) {
+            for (PhpClass phpClass : phpIndex.getAnyByFQN(className)) {
+                for (Map.Entry<String, String> property : ActiveRecordProperties.getProperties(phpClass).entrySet()) {
+                    if (phpClass.findFieldByName(property.getKey(), false) == null && added.add(property.getKey())) {
+                        final String type = property.getValue();
+                        completionResultSet.addElement(LookupElementBuilder.create(property.getKey())
+                                .withIcon(AllIcons.Nodes.Property)
+                                .withTypeText(type.substring(type.lastIndexOf('\\') + 1), true));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -8,9 +8,10 @@ import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.containers.MultiMap;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 
 public class QueryCompletionContributor extends com.intellij.codeInsight.completion.CompletionContributor {
@@ -29,12 +30,7 @@ public class QueryCompletionContributor extends com.intellij.codeInsight.complet
                 if (method != null) {
                     Object possibleClass = method.getParent();
                     if (possibleClass instanceof PhpClass) {
-                        PhpIndex index = PhpIndex.getInstance(method.getProject());
-                        if (ClassUtils.isClassInheritsOrEqual((PhpClass)possibleClass, ClassUtils.getClass(index, "\\yii\\db\\Query"), 100) ||
-                                ClassUtils.isClassInheritsOrEqual((PhpClass)possibleClass, ClassUtils.getClass(index, "\\yii\\db\\Command"), 100) ||
-                                ClassUtils.isClassInherit((PhpClass)possibleClass, ClassUtils.getClass(index, "\\yii\\db\\BaseActiveRecord")) ||
-                                ClassUtils.isClassInheritsOrEqual((PhpClass)possibleClass, ClassUtils.getClass(index, "\\yii\\db\\Migration"), 100)
-                                ) {
+                        if (ClassHierarchy.hasAnyRole((PhpClass) possibleClass, YiiClassRole.Query, YiiClassRole.Command, YiiClassRole.BaseActiveRecord, YiiClassRole.Migration)) {
                             return true;
                         }
                     }
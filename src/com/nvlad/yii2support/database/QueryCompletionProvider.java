@@ -9,8 +9,10 @@ import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
 import com.nvlad.yii2support.common.DatabaseUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -42,21 +44,16 @@ public class QueryCompletionProvider extends com.intellij.codeInsight.completion
                 return;
 
             PhpIndex index = PhpIndex.getInstance(method.getProject());
-            if ( (ClassUtils.isClassInheritsOrEqual(phpClass, "\\yii\\db\\Query", index)
-                    || ClassUtils.isClassInheritsOrEqual(phpClass,"\\yii\\db\\QueryTrait", index)
-                    || ClassUtils.isClassInherit(phpClass, "\\yii\\db\\BaseActiveRecord", index)
-                    || ClassUtils.isClassInheritsOrEqual(phpClass, "\\yii\\db\\Connection", index)
-                    || ClassUtils.isClassInheritsOrEqual(phpClass, "\\yii\\db\\Command", index)
-                    || ClassUtils.isClassInheritsOrEqual(phpClass,"\\yii\\db\\Migration", index)
-                )) {
+            if (ClassHierarchy.hasAnyRole(phpClass, YiiClassRole.Query, YiiClassRole.BaseActiveRecord, YiiClassRole.Connection, YiiClassRole.Command, YiiClassRole.Migration)
+                    || ClassHierarchy.isInheritsOrEqual(phpClass, "\\yii\\db\\QueryTrait")) {
 
 
                 PhpClass activeRecordClass = null;
                 PhpClass possibleActiveRecordClass = ClassUtils.getPhpClassByCallChain(methodRef);
-                if ( ClassUtils.isClassInherit(possibleActiveRecordClass, ClassUtils.getClass(index, "\\yii\\db\\BaseActiveRecord")))
+                if (ClassHierarchy.hasRole(possibleActiveRecordClass, YiiClassRole.BaseActiveRecord))
                     activeRecordClass = possibleActiveRecordClass;
                 // Calls inside ActiveQuery paired with ActiveRecord
-                else if (ClassUtils.isClassInheritsOrEqual(possibleActiveRecordClass, ClassUtils.getClass(index, "\\yii\\db\\ActiveQuery"), 100)) {
+                else if (ClassHierarchy.hasRole(possibleActiveRecordClass, YiiClassRole.ActiveQuery)) {
                     if (possibleActiveRecordClass.getDocComment() != null) {
                         activeRecordClass = ClassUtils.findClassInSeeTags(index, possibleActiveRecordClass, "\\yii\\db\\BaseActiveRecord");
                     }
@@ -146,10 +143,7 @@ public class QueryCompletionProvider extends com.intellij.codeInsight.completion
                     }
 
                     final PhpExpression expr = (PhpExpression) element;
-                    if (paramPosition > 0 && (
-                            ClassUtils.isClassInheritsOrEqual(phpClass, ClassUtils.getClass(index, "\\yii\\db\\Command"), 100) ||
-                            ClassUtils.isClassInheritsOrEqual(phpClass, ClassUtils.getClass(index, "\\yii\\db\\Migration"), 100)
-                    )) {
+                    if (paramPosition > 0 && ClassHierarchy.hasAnyRole(phpClass, YiiClassRole.Command, YiiClassRole.Migration)) {
                         PsiElement paramRef = methodRef.getParameters()[paramPosition - 1];
                         Parameter param = method.getParameters()[paramPosition - 1];
                         if (param.getName().equals("table") || param.getName().equals("refTable")) {
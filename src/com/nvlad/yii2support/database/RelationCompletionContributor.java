@@ -0,0 +1,27 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.patterns.ElementPattern;
+import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Relation names in "with()", "joinWith()" and "innerJoinWith()" calls.
+ */
+public class RelationCompletionContributor extends com.intellij.codeInsight.completion.CompletionContributor {
+    public RelationCompletionContributor() {
+        extend(CompletionType.BASIC, ElementPattern(), new RelationCompletionProvider());
+    }
+
+    @Override
+    public boolean invokeAutoPopup(@NotNull PsiElement position, char typeChar) {
+        return typeChar == '.' && position.getParent() instanceof StringLiteralExpression
+                && ActiveRecordRelations.getWithMethodReference((StringLiteralExpression) position.getParent()) != null;
+    }
+
+    private static ElementPattern<PsiElement> ElementPattern() {
+        return PlatformPatterns.psiElement().withParent(StringLiteralExpression.class);
+    }
+}
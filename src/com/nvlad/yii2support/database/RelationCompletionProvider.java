@@ -0,0 +1,59 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.ProcessingContext;
+import com.jetbrains.php.lang.psi.elements.MethodReference;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
+import com.nvlad.yii2support.database.entities.ActiveRecordRelation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Completes last relation of dotted path, previous relations are resolved by {@link ActiveRecordRelations}.
+ */
+public class RelationCompletionProvider extends com.intellij.codeInsight.completion.CompletionProvider<CompletionParameters> {
+    @Override
+    protected void addCompletions(@NotNull CompletionParameters completionParameters, ProcessingContext processingContext, @NotNull CompletionResultSet completionResultSet) {
+        final PsiElement position = completionParameters.getPosition();
+        if (!(position.getParent() instanceof StringLiteralExpression)) {
+            return;
+        }
+
+        final StringLiteralExpression literal = (StringLiteralExpression) position.getParent();
+        final MethodReference reference = ActiveRecordRelations.getWithMethodReference(literal);
+        if (reference == null) {
+            return;
+        }
+
+        final PhpClass activeRecordClass = ActiveRecordRelations.getActiveRecordClass(reference);
+        if (activeRecordClass == null) {
+            return;
+        }
+
+        // text before caret: "orders.ite<caret>"
+        final int caretOffset = completionParameters.getOffset() - literal.getTextRange().getStartOffset() - literal.getValueRange().getStartOffset();
+        final String contents = literal.getContents();
+        final String path = contents.substring(0, Math.max(0, Math.min(caretOffset, contents.length())));
+        final int separatorPosition = path.lastIndexOf('.');
+        final List<String> names = separatorPosition == -1 ? Collections.emptyList() : ActiveRecordRelations.splitPath(path.substring(0, separatorPosition));
+        final PhpClass owner = ActiveRecordRelations.getRelatedClass(activeRecordClass, names);
+        if (owner == null) {
+            return;
+        }
+
+        final CompletionResultSet resultSet = completionResultSet.withPrefixMatcher(path.substring(separatorPosition + 1));
+        for (ActiveRecordRelation relation : ActiveRecordRelations.getRelations(owner).values()) {
+            final String className = relation.className.substring(relation.className.lastIndexOf('\\') + 1);
+            resultSet.addElement(LookupElementBuilder.create(relation.name)
+                    .withIcon(AllIcons.Nodes.Property)
+                    .withTypeText(relation.multiple ? className + "[]" : className, true));
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.database.entities.ActiveRecordRelation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * ActiveRecord relations: owner class FQN => relations declared by own "getXxx()" methods returning
+ * "$this->hasOne()" or "$this->hasMany()" with optional "via()" and "viaTable()".
+ */
+public class RelationIndex extends FileBasedIndexExtension<String, List<ActiveRecordRelation>> {
+    public static final ID<String, List<ActiveRecordRelation>> identity = ID.create("Yii2Support.RelationIndex");
+
+    private final RelationsExternalizer myRelationsExternalizer = new RelationsExternalizer();
+
+    @NotNull
+    @Override
+    public ID<String, List<ActiveRecordRelation>> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<ActiveRecordRelation>, FileContent> getIndexer() {
+        return inputData -> {
+            if (!StringUtil.contains(inputData.getContentAsText(), "->has")) {
+                return Collections.emptyMap();
+            }
+
+            final Map<String, List<ActiveRecordRelation>> result = new HashMap<>();
+            for (PhpClass phpClass : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), PhpClass.class)) {
+                final List<ActiveRecordRelation> relations = new ArrayList<>();
+                for (Method method : phpClass.getOwnMethods()) {
+                    final ActiveRecordRelation relation = getRelation(phpClass, method);
+                    if (relation != null) {
+                        relations.add(relation);
+                    }
+                }
+
+                if (!relations.isEmpty()) {
+                    result.put(phpClass.getFQN(), relations);
+                }
+            }
+
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<ActiveRecordRelation>> getValueExternalizer() {
+        return myRelationsExternalizer;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> file.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Tracker for caches built from relation index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    /**
+     * "getOrderItems()" => "orderItems" relation, null for other methods.
+     */
+    @Nullable
+    private static ActiveRecordRelation getRelation(@NotNull PhpClass phpClass, @NotNull Method method) {
+        final String methodName = method.getName();
+        if (method.isStatic() || methodName.length() <= 3 || !methodName.startsWith("get") || method.getParameters().length > 0) {
+            return null;
+        }
+
+        for (PhpReturn phpReturn : PsiTreeUtil.findChildrenOfType(method, PhpReturn.class)) {
+            // call chain is parsed from outer call: "$this->hasMany()->viaTable()->inverseOf()"
+            final List<MethodReference> chain = new ArrayList<>();
+            PsiElement element = phpReturn.getArgument();
+            while (element instanceof MethodReference) {
+                chain.add((MethodReference) element);
+                element = ((MethodReference) element).getClassReference();
+            }
+
+            if (chain.isEmpty() || !(element instanceof Variable) || !"this".equals(((Variable) element).getName())) {
+                continue;
+            }
+
+            final MethodReference hasRelation = chain.get(chain.size() - 1);
+            final String name = hasRelation.getName();
+            if (!"hasOne".equals(name) && !"hasMany".equals(name)) {
+                continue;
+            }
+
+            final PsiElement[] parameters = hasRelation.getParameters();
+            final String className = parameters.length > 0 ? getClassName(phpClass, parameters[0]) : null;
+            final ActiveRecordRelation relation = new ActiveRecordRelation(
+                    getRelationName(methodName),
+                    className == null ? "" : className,
+                    "hasMany".equals(name),
+                    method.getTextOffset());
+            if (parameters.length > 1) {
+                fillLink(relation.link, parameters[1]);
+            }
+
+            for (MethodReference reference : chain) {
+                final PsiElement[] referenceParameters = reference.getParameters();
+                if (referenceParameters.length > 0 && referenceParameters[0] instanceof StringLiteralExpression) {
+                    if ("via".equals(reference.getName())) {
+                        relation.via = ((StringLiteralExpression) referenceParameters[0]).getContents();
+                    } else if ("viaTable".equals(reference.getName())) {
+                        relation.viaTable = ((StringLiteralExpression) referenceParameters[0]).getContents();
+                    }
+                }
+            }
+
+            return relation;
+        }
+
+        return null;
+    }
+
+    /**
+     * Relation name as BaseActiveRecord::getRelation() expects it: "getURLs" => "uRLs" (lcfirst).
+     */
+    @NotNull
+    private static String getRelationName(@NotNull String methodName) {
+        return Character.toLowerCase(methodName.charAt(3)) + methodName.substring(4);
+    }
+
+    /**
+     * FQN of "Order::class", "Order::className()" and "'app\models\Order'" expressions.
+     */
+    @Nullable
+    private static String getClassName(@NotNull PhpClass phpClass, @NotNull PsiElement element) {
+        if (element instanceof StringLiteralExpression) {
+            final String className = ((StringLiteralExpression) element).getContents().replace("\\\\", "\\");
+            return className.isEmpty() ? null : "\\" + StringUtil.trimStart(className, "\\");
+        }
+
+        final PhpExpression classReference;
+        if (element instanceof ClassConstantReference && "class".equals(((ClassConstantReference) element).getName())) {
+            classReference = ((ClassConstantReference) element).getClassReference();
+        } else if (element instanceof MethodReference && "className".equals(((MethodReference) element).getName())) {
+            classReference = ((MethodReference) element).getClassReference();
+        } else {
+            return null;
+        }
+
+        if (!(classReference instanceof ClassReference)) {
+            return null;
+        }
+
+        final String text = classReference.getText();
+        if (text.equals("self") || text.equals("static")) {
+            return phpClass.getFQN();
+        }
+
+        return ((ClassReference) classReference).getFQN();
+    }
+
+    private static void fillLink(@NotNull Map<String, String> link, @NotNull PsiElement element) {
+        if (!(element instanceof ArrayCreationExpression)) {
+            return;
+        }
+
+        for (ArrayHashElement hashElement : ((ArrayCreationExpression) element).getHashElements()) {
+            if (hashElement.getKey() instanceof StringLiteralExpression && hashElement.getValue() instanceof StringLiteralExpression) {
+                link.put(((StringLiteralExpression) hashElement.getKey()).getContents(), ((StringLiteralExpression) hashElement.getValue()).getContents());
+            }
+        }
+    }
+
+    private static class RelationsExternalizer implements DataExternalizer<List<ActiveRecordRelation>> {
+        @Override
+        public void save(@NotNull DataOutput dataOutput, List<ActiveRecordRelation> value) throws IOException {
+            DataInputOutputUtil.writeINT(dataOutput, value.size());
+            for (ActiveRecordRelation relation : value) {
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, relation.name);
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, relation.className);
+                dataOutput.writeBoolean(relation.multiple);
+                DataInputOutputUtil.writeINT(dataOutput, relation.link.size());
+                for (Map.Entry<String, String> entry : relation.link.entrySet()) {
+                    EnumeratorStringDescriptor.INSTANCE.save(dataOutput, entry.getKey());
+                    EnumeratorStringDescriptor.INSTANCE.save(dataOutput, entry.getValue());
+                }
+
+                saveNullable(dataOutput, relation.via);
+                saveNullable(dataOutput, relation.viaTable);
+                DataInputOutputUtil.writeINT(dataOutput, relation.offset);
+            }
+        }
+
+        @Override
+        public List<ActiveRecordRelation> read(@NotNull DataInput dataInput) throws IOException {
+            final int size = DataInputOutputUtil.readINT(dataInput);
+            final List<ActiveRecordRelation> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final ActiveRecordRelation relation = new ActiveRecordRelation();
+                relation.name = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                relation.className = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                relation.multiple = dataInput.readBoolean();
+                for (int linkCount = DataInputOutputUtil.readINT(dataInput); linkCount > 0; linkCount--) {
+                    relation.link.put(EnumeratorStringDescriptor.INSTANCE.read(dataInput), EnumeratorStringDescriptor.INSTANCE.read(dataInput));
+                }
+
+                relation.via = readNullable(dataInput);
+                relation.viaTable = readNullable(dataInput);
+                relation.offset = DataInputOutputUtil.readINT(dataInput);
+                result.add(relation);
+            }
+
+            return result;
+        }
+
+        private static void saveNullable(@NotNull DataOutput dataOutput, @Nullable String value) throws IOException {
+            dataOutput.writeBoolean(value != null);
+            if (value != null) {
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, value);
+            }
+        }
+
+        @Nullable
+        private static String readNullable(@NotNull DataInput dataInput) throws IOException {
+            return dataInput.readBoolean() ? EnumeratorStringDescriptor.INSTANCE.read(dataInput) : null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.database.model.DasNamespace;
+import com.intellij.database.model.DasTable;
+import com.intellij.database.model.RawConnectionConfig;
+import com.intellij.database.psi.DbDataSource;
+import com.intellij.database.psi.DbPsiFacade;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.nvlad.yii2support.common.ClassUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable copy of tables of all data sources: table name => {@link TableInfo} per data source.
+ * Built once per data source model change and shared by completion and inspections,
+ * so lookups do not traverse database models. Last introspected schema is kept by {@link SchemaSnapshotStorage}.
+ */
+public class SchemaSnapshot {
+    private final List<DataSourceSchema> myDataSources;
+    private final boolean myIntrospected;
+
+    SchemaSnapshot(@NotNull List<DataSourceSchema> dataSources) {
+        this(dataSources, false);
+    }
+
+    SchemaSnapshot(@NotNull List<DataSourceSchema> dataSources, boolean introspected) {
+        myDataSources = Collections.unmodifiableList(dataSources);
+        myIntrospected = introspected;
+    }
+
+    @NotNull
+    public static SchemaSnapshot getInstance(@NotNull Project project) {
+        final DbPsiFacade facade = DbPsiFacade.getInstance(project);
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(build(facade, SchemaSnapshotStorage.getInstance(project)), facade.getModificationTracker()));
+    }
+
+    /**
+     * Tracker of data source models, caches built from snapshot data depend on it.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return DbPsiFacade.getInstance(project).getModificationTracker();
+    }
+
+    public boolean isEmpty() {
+        return myDataSources.isEmpty();
+    }
+
+    /**
+     * True when any data source is taken from live model, only such snapshots are stored.
+     */
+    public boolean isIntrospected() {
+        return myIntrospected;
+    }
+
+    @NotNull
+    public List<DataSourceSchema> getDataSources() {
+        return myDataSources;
+    }
+
+    /**
+     * Tables with name from all data sources, or only from preferred one when it is set.
+     */
+    @NotNull
+    public List<TableInfo> findTables(@Nullable String name, @Nullable String preferredDataSourceId) {
+        if (name == null) {
+            return Collections.emptyList();
+        }
+
+        final String tableName = normalizeName(name);
+        final List<TableInfo> result = new ArrayList<>();
+        for (DataSourceSchema dataSource : myDataSources) {
+            if (preferredDataSourceId != null && !preferredDataSourceId.isEmpty() && !preferredDataSourceId.equals(dataSource.getId())) {
+                continue;
+            }
+
+            final TableInfo table = dataSource.findTable(tableName);
+            if (table != null) {
+                result.add(table);
+            }
+        }
+
+        return result;
+    }
+
+    @Nullable
+    public DataSourceSchema findDataSource(@NotNull String id) {
+        for (DataSourceSchema dataSource : myDataSources) {
+            if (dataSource.getId().equals(id)) {
+                return dataSource;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean isTableExists(@Nullable String name) {
+        return !findTables(name, null).isEmpty();
+    }
+
+    @NotNull
+    public List<TableInfo> getTables() {
+        final List<TableInfo> result = new ArrayList<>();
+        for (DataSourceSchema dataSource : myDataSources) {
+            result.addAll(dataSource.getTables());
+        }
+
+        return result;
+    }
+
+    @NotNull
+    static String normalizeName(@NotNull String name) {
+        return ClassUtils.removeQuotes(name.trim());
+    }
+
+    /**
+     * Snapshot of data source models. Data sources which are not introspected yet (no VPN, startup)
+     * are taken from stored snapshot, introspected ones are used as is even when database has no tables.
+     */
+    @NotNull
+    private static SchemaSnapshot build(@NotNull DbPsiFacade facade, @NotNull SchemaSnapshotStorage storage) {
+        final List<DataSourceSchema> dataSources = new ArrayList<>();
+        boolean introspected = false;
+        SchemaSnapshot stored = null;
+        for (DbDataSource source : facade.getDataSources()) {
+            final String databaseName = getDatabaseName(source);
+            final List<TableInfo> tables = new ArrayList<>();
+            for (DasTable table : source.getModel().traverser().filter(DasTable.class)) {
+                tables.add(new TableInfo(table, source.getName()));
+            }
+
+            if (tables.isEmpty() && !isIntrospected(source)) {
+                if (stored == null) {
+                    stored = storage.getSnapshot();
+                }
+
+                final DataSourceSchema storedDataSource = stored.findDataSource(source.getUniqueId());
+                if (storedDataSource != null) {
+                    dataSources.add(storedDataSource);
+                    continue;
+                }
+            } else {
+                introspected = true;
+            }
+
+            dataSources.add(new DataSourceSchema(source.getUniqueId(), source.getName(), databaseName, tables));
+        }
+
+        return new SchemaSnapshot(dataSources, introspected);
+    }
+
+    /**
+     * Introspected model has schemas (or databases) even when they have no tables.
+     */
+    private static boolean isIntrospected(@NotNull DbDataSource source) {
+        return source.getModel().traverser().filter(DasNamespace.class).isNotEmpty();
+    }
+
+    /**
+     * Database name from connection url: "jdbc:mysql://localhost/yii" => "yii".
+     */
+    @Nullable
+    private static String getDatabaseName(@NotNull DbDataSource source) {
+        final RawConnectionConfig config = source.getConnectionConfig();
+        if (config == null || config.getUrl() == null) {
+            return null;
+        }
+
+        final String url = StringUtil.substringBefore(config.getUrl() + "?", "?");
+        return url.endsWith("/") ? null : url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Tables of data source by schema qualified name ("yii.user"). Unqualified names refer to tables
+     * of database from connection url, Idea gives tables of other databases too. When no table belongs
+     * to that database (PostgreSQL schemas, url without database) first table with the name is used.
+     */
+    public static class DataSourceSchema {
+        private final String myId;
+        private final String myName;
+        private final String myDatabaseName;
+        private final List<TableInfo> myTables;
+        private final Map<String, TableInfo> myTablesByName = new HashMap<>();
+
+        DataSourceSchema(@NotNull String id, @Nullable String name, @Nullable String databaseName, @NotNull List<TableInfo> tables) {
+            myId = id;
+            myName = name;
+            myDatabaseName = databaseName;
+            myTables = Collections.unmodifiableList(tables);
+
+            boolean hasDatabaseTables = false;
+            for (TableInfo table : tables) {
+                hasDatabaseTables |= databaseName != null && databaseName.equals(table.getSchemaName());
+                if (table.getSchemaName() != null) {
+                    myTablesByName.putIfAbsent(table.getSchemaName() + "." + table.getTableName(), table);
+                }
+            }
+
+            for (TableInfo table : tables) {
+                if (!hasDatabaseTables || databaseName.equals(table.getSchemaName())) {
+                    myTablesByName.putIfAbsent(table.getTableName(), table);
+                }
+            }
+        }
+
+        @NotNull
+        public String getId() {
+            return myId;
+        }
+
+        @Nullable
+        public String getName() {
+            return myName;
+        }
+
+        /**
+         * Database of connection url, null when url does not point to database.
+         */
+        @Nullable
+        public String getDatabaseName() {
+            return myDatabaseName;
+        }
+
+        /**
+         * Table by schema qualified or unqualified name.
+         */
+        @Nullable
+        public TableInfo findTable(@NotNull String name) {
+            return myTablesByName.get(name);
+        }
+
+        @NotNull
+        public Collection<TableInfo> getTables() {
+            return myTables;
+        }
+    }
+}
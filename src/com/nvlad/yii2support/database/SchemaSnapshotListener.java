@@ -0,0 +1,28 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.database.model.RawDataSource;
+import com.intellij.database.psi.DataSourceManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores {@link SchemaSnapshot} after data sources are introspected or removed, so building snapshot never writes files.
+ */
+public class SchemaSnapshotListener implements DataSourceManager.Listener {
+    private final Project myProject;
+
+    public SchemaSnapshotListener(Project project) {
+        myProject = project;
+    }
+
+    @Override
+    public <T extends RawDataSource> void dataSourceChanged(@Nullable DataSourceManager<T> manager, @Nullable T dataSource) {
+        SchemaSnapshotStorage.getInstance(myProject).update();
+    }
+
+    @Override
+    public <T extends RawDataSource> void dataSourceRemoved(@NotNull DataSourceManager<T> manager, @NotNull T dataSource) {
+        SchemaSnapshotStorage.getInstance(myProject).update();
+    }
+}
@@ -0,0 +1,231 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Offline copy of {@link SchemaSnapshot} in system directory, used while data sources are not introspected.
+ * <p>
+ * Binary format: magic, version, string table (every name and type stored once), then data sources
+ * with tables, columns and indexes referring to strings by number. File is read once through buffered stream.
+ * Snapshot is written after data source change, see {@link SchemaSnapshotListener}.
+ */
+public class SchemaSnapshotStorage {
+    private static final Logger LOG = Logger.getInstance(SchemaSnapshotStorage.class);
+    private static final int MAGIC = 0x59325353;
+    private static final int VERSION = 1;
+    private static final int NULL = -1;
+
+    public static SchemaSnapshotStorage getInstance(Project project) {
+        return ServiceManager.getService(project, SchemaSnapshotStorage.class);
+    }
+
+    private final Project myProject;
+    private final Object myWriteLock = new Object();
+    private volatile SchemaSnapshot mySnapshot;
+    private SchemaSnapshot mySavedSnapshot;
+
+    public SchemaSnapshotStorage(Project project) {
+        myProject = project;
+    }
+
+    /**
+     * Stored snapshot, loaded on first call. Empty when there is no stored snapshot.
+     */
+    @NotNull
+    public SchemaSnapshot getSnapshot() {
+        SchemaSnapshot snapshot = mySnapshot;
+        if (snapshot == null) {
+            snapshot = load(getFile());
+            mySnapshot = snapshot;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Stores current snapshot in background when it has introspected data sources.
+     */
+    public void update() {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            if (myProject.isDisposed()) {
+                return;
+            }
+
+            final SchemaSnapshot snapshot = ReadAction.compute(() -> SchemaSnapshot.getInstance(myProject));
+            synchronized (myWriteLock) {
+                // skip snapshots already written when several changes are queued
+                if (!snapshot.isIntrospected() || snapshot == mySavedSnapshot || myProject.isDisposed()) {
+                    return;
+                }
+
+                mySavedSnapshot = snapshot;
+                mySnapshot = snapshot;
+                write(snapshot, getFile());
+            }
+        });
+    }
+
+    @NotNull
+    private File getFile() {
+        return new File(PathManager.getSystemPath(), "yii2support/schema/" + myProject.getLocationHash() + ".bin");
+    }
+
+    @NotNull
+    static SchemaSnapshot load(@NotNull File file) {
+        if (!file.isFile()) {
+            return new SchemaSnapshot(Collections.emptyList());
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return read(input);
+        } catch (IOException | RuntimeException e) {
+            LOG.info("Cannot read schema snapshot " + file, e);
+            return new SchemaSnapshot(Collections.emptyList());
+        }
+    }
+
+    @NotNull
+    private static SchemaSnapshot read(@NotNull DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Unsupported schema snapshot format");
+        }
+
+        final String[] strings = new String[input.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        final List<SchemaSnapshot.DataSourceSchema> dataSources = new ArrayList<>();
+        for (int dataSourceCount = input.readInt(); dataSourceCount > 0; dataSourceCount--) {
+            final String id = readString(input, strings);
+            final String name = readString(input, strings);
+            final String databaseName = readString(input, strings);
+            final List<TableInfo> tables = new ArrayList<>();
+            for (int tableCount = input.readInt(); tableCount > 0; tableCount--) {
+                final String tableName = readString(input, strings);
+                final String schemaName = readString(input, strings);
+                final List<ColumnInfo> columns = new ArrayList<>();
+                for (int columnCount = input.readInt(); columnCount > 0; columnCount--) {
+                    final String columnName = readString(input, strings);
+                    final String type = readString(input, strings);
+                    final String comment = readString(input, strings);
+                    columns.add(new ColumnInfo(Objects.requireNonNull(columnName), type == null ? "" : type, comment, input.readByte() != 0));
+                }
+
+                final List<IndexInfo> indexes = new ArrayList<>();
+                for (int indexCount = input.readInt(); indexCount > 0; indexCount--) {
+                    final String indexName = readString(input, strings);
+                    final boolean unique = input.readByte() != 0;
+                    final List<String> indexColumns = new ArrayList<>();
+                    for (int indexColumnCount = input.readInt(); indexColumnCount > 0; indexColumnCount--) {
+                        indexColumns.add(readString(input, strings));
+                    }
+
+                    indexes.add(new IndexInfo(indexName == null ? "" : indexName, indexColumns, unique));
+                }
+
+                tables.add(new TableInfo(Objects.requireNonNull(tableName), schemaName, name, columns, indexes));
+            }
+
+            dataSources.add(new SchemaSnapshot.DataSourceSchema(Objects.requireNonNull(id), name, databaseName, tables));
+        }
+
+        return new SchemaSnapshot(dataSources);
+    }
+
+    @Nullable
+    private static String readString(@NotNull DataInputStream input, @NotNull String[] strings) throws IOException {
+        final int index = input.readInt();
+        return index == NULL ? null : strings[index];
+    }
+
+    static void write(@NotNull SchemaSnapshot snapshot, @NotNull File file) {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(body)) {
+            output.writeInt(snapshot.getDataSources().size());
+            for (SchemaSnapshot.DataSourceSchema dataSource : snapshot.getDataSources()) {
+                writeString(output, strings, dataSource.getId());
+                writeString(output, strings, dataSource.getName());
+                writeString(output, strings, dataSource.getDatabaseName());
+                output.writeInt(dataSource.getTables().size());
+                for (TableInfo table : dataSource.getTables()) {
+                    writeString(output, strings, table.getTableName());
+                    writeString(output, strings, table.getSchemaName());
+                    output.writeInt(table.getColumns().size());
+                    for (ColumnInfo column : table.getColumns()) {
+                        writeString(output, strings, column.getName());
+                        writeString(output, strings, column.getType());
+                        writeString(output, strings, column.getComment());
+                        output.writeByte(column.isPrimary() ? 1 : 0);
+                    }
+
+                    output.writeInt(table.getIndexes().size());
+                    for (IndexInfo index : table.getIndexes()) {
+                        writeString(output, strings, index.getName());
+                        output.writeByte(index.isUnique() ? 1 : 0);
+                        output.writeInt(index.getColumns().size());
+                        for (String column : index.getColumns()) {
+                            writeString(output, strings, column);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.info("Cannot write schema snapshot", e);
+            return;
+        }
+
+        final File directory = file.getParentFile();
+        final File tempFile = new File(directory, file.getName() + ".tmp");
+        try {
+            Files.createDirectories(directory.toPath());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(strings.size());
+                for (String string : strings.keySet()) {
+                    final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+
+                body.writeTo(output);
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.info("Cannot write schema snapshot " + file, e);
+        }
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull Map<String, Integer> strings, @Nullable String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL);
+            return;
+        }
+
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.put(value, index);
+        }
+
+        output.writeInt(index);
+    }
+}
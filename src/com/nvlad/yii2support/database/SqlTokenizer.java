@@ -0,0 +1,133 @@
+package com.nvlad.yii2support.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Single pass scanner of SQL condition text for ":name" parameters. Quoted strings and identifiers,
+ * comments, "::type" casts and "[:class:]" patterns are skipped.
+ */
+public class SqlTokenizer {
+    private final CharSequence mySql;
+    private int myPosition;
+
+    private SqlTokenizer(@NotNull CharSequence sql) {
+        mySql = sql;
+    }
+
+    /**
+     * Parameter names in order of first occurrence: "id = :id AND status = :status" => ":id", ":status".
+     */
+    @NotNull
+    public static Set<String> getParams(@NotNull CharSequence sql) {
+        return new SqlTokenizer(sql).scan();
+    }
+
+    @NotNull
+    private Set<String> scan() {
+        final Set<String> result = new LinkedHashSet<>();
+        final int length = mySql.length();
+        while (myPosition < length) {
+            final char c = mySql.charAt(myPosition);
+            switch (c) {
+                case '\'':
+                case '"':
+                case '`':
+                    skipQuoted(c);
+                    break;
+                case '-':
+                    if (startsWith("--")) {
+                        skipUntil("\n");
+                    } else {
+                        myPosition++;
+                    }
+                    break;
+                case '/':
+                    if (startsWith("/*")) {
+                        skipUntil("*/");
+                    } else {
+                        myPosition++;
+                    }
+                    break;
+                case ':':
+                    final boolean skip = myPosition > 0 && mySql.charAt(myPosition - 1) == '[';
+                    if (startsWith("::")) {
+                        // "price::numeric" cast
+                        myPosition += 2;
+                        readIdentifier();
+                    } else {
+                        myPosition++;
+                        final String name = readIdentifier();
+                        if (!skip && name != null) {
+                            result.add(":" + name);
+                        }
+                    }
+                    break;
+                default:
+                    myPosition++;
+            }
+        }
+
+        return result;
+    }
+
+    private void skipQuoted(char quote) {
+        myPosition++;
+        while (myPosition < mySql.length()) {
+            final char c = mySql.charAt(myPosition++);
+            if (c == '\\') {
+                myPosition++;
+            } else if (c == quote) {
+                // doubled quote is escaped quote
+                if (myPosition < mySql.length() && mySql.charAt(myPosition) == quote) {
+                    myPosition++;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void skipUntil(@NotNull String end) {
+        myPosition += 2;
+        while (myPosition < mySql.length() && !startsWith(end)) {
+            myPosition++;
+        }
+
+        myPosition += end.length();
+    }
+
+    private boolean startsWith(@NotNull String text) {
+        if (myPosition + text.length() > mySql.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            if (mySql.charAt(myPosition + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Identifier at current position, null when it does not start with letter or underscore.
+     */
+    @Nullable
+    private String readIdentifier() {
+        final int start = myPosition;
+        if (start >= mySql.length() || !(Character.isLetter(mySql.charAt(start)) || mySql.charAt(start) == '_')) {
+            return null;
+        }
+
+        while (myPosition < mySql.length() && (Character.isLetterOrDigit(mySql.charAt(myPosition)) || mySql.charAt(myPosition) == '_')) {
+            myPosition++;
+        }
+
+        return mySql.subSequence(start, myPosition).toString();
+    }
+}
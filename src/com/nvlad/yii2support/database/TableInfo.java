@@ -1,69 +1,129 @@
 package com.nvlad.yii2support.database;
 
-import com.google.common.collect.Lists;
 import com.intellij.database.model.DasColumn;
+import com.intellij.database.model.DasIndex;
+import com.intellij.database.model.DasObject;
 import com.intellij.database.model.DasTable;
 import com.intellij.database.util.DasUtil;
-import com.intellij.util.containers.JBIterable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Created by oleg on 23.03.2017.
+ * <p>
+ * Immutable copy of table structure, so it can be kept in {@link SchemaSnapshot} without holding database model.
  */
 public class TableInfo {
-    private final DasTable tableElement;
-
-    private List<DasColumn> columns = new ArrayList<>();
+    private final String tableName;
+    private final String schemaName;
+    private final String dataSourceName;
+    private final List<ColumnInfo> columns;
+    private final List<String> primaryKeys;
+    private final List<IndexInfo> indexes;
+
+    public TableInfo(DasTable tableElement, @Nullable String dataSourceName) {
+        final List<ColumnInfo> columns = new ArrayList<>();
+        final List<String> primaryKeys = new ArrayList<>();
+        for (DasColumn dasColumn : DasUtil.getColumns(tableElement)) {
+            final boolean primary = DasUtil.isPrimary(dasColumn);
+            columns.add(new ColumnInfo(dasColumn.getName(), dasColumn.getDasType().toDataType().typeName, dasColumn.getComment(), primary));
+            if (primary) {
+                primaryKeys.add(dasColumn.getName());
+            }
+        }
 
-    private List<String> primaryKeys = new ArrayList<>();
+        final List<IndexInfo> indexes = new ArrayList<>();
+        for (DasIndex dasIndex : DasUtil.getIndices(tableElement)) {
+            final List<String> indexColumns = new ArrayList<>();
+            for (String column : dasIndex.getColumnsRef().names()) {
+                indexColumns.add(column);
+            }
 
-    public TableInfo(DasTable tableElement) {
-        this.tableElement = tableElement;
-        List<DasColumn> columns = new ArrayList<>();
+            indexes.add(new IndexInfo(dasIndex.getName(), indexColumns, dasIndex.isUnique()));
+        }
 
-        JBIterable<? extends DasColumn> columnsIter = DasUtil.getColumns(tableElement);
-        List<? extends DasColumn> dasColumns = columnsIter.toList();
-        for (DasColumn dasColumn : dasColumns) {
-            columns.add(dasColumn);
+        final DasObject schema = tableElement.getDasParent();
+        this.tableName = tableElement.getName();
+        this.schemaName = schema == null ? null : schema.getName();
+        this.dataSourceName = dataSourceName;
+        this.columns = Collections.unmodifiableList(columns);
+        this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+        this.indexes = Collections.unmodifiableList(indexes);
+    }
 
-            if (DasUtil.isPrimary(dasColumn)) {
-                primaryKeys.add(dasColumn.getName());
+    public TableInfo(@NotNull String tableName, @Nullable String schemaName, @Nullable String dataSourceName,
+                     @NotNull List<ColumnInfo> columns, @NotNull List<IndexInfo> indexes) {
+        final List<String> primaryKeys = new ArrayList<>();
+        for (ColumnInfo column : columns) {
+            if (column.isPrimary()) {
+                primaryKeys.add(column.getName());
             }
         }
 
-        this.columns = columns;
+        this.tableName = tableName;
+        this.schemaName = schemaName;
+        this.dataSourceName = dataSourceName;
+        this.columns = Collections.unmodifiableList(columns);
+        this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+        this.indexes = Collections.unmodifiableList(indexes);
     }
 
     public String getTableName() {
-        return tableElement.getName();
+        return tableName;
+    }
+
+    /**
+     * Schema (database) containing table.
+     */
+    @Nullable
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    @Nullable
+    public String getDataSourceName() {
+        return dataSourceName;
     }
 
-    public List<DasColumn> getColumns() {
+    public List<ColumnInfo> getColumns() {
         return columns;
     }
 
     public List<String> getColumnsName() {
-        List<String> columnsName = Lists.newArrayList();
-        for (DasColumn column : columns) {
+        List<String> columnsName = new ArrayList<>();
+        for (ColumnInfo column : columns) {
             columnsName.add(column.getName());
         }
         return columnsName;
     }
 
+    @Nullable
+    public ColumnInfo findColumn(String name) {
+        for (ColumnInfo column : columns) {
+            if (column.getName().equals(name)) {
+                return column;
+            }
+        }
+
+        return null;
+    }
+
     public List<String> getPrimaryKeys() {
         return this.primaryKeys;
     }
 
-    public List<DasColumn> getNonPrimaryColumns() {
-        Set<String> pKNameSet = new HashSet<>(getPrimaryKeys());
+    public List<IndexInfo> getIndexes() {
+        return indexes;
+    }
 
-        List<DasColumn> ret = new ArrayList<>();
-        for (DasColumn column : columns) {
-            if (!pKNameSet.contains(column.getName())) {
+    public List<ColumnInfo> getNonPrimaryColumns() {
+        List<ColumnInfo> ret = new ArrayList<>();
+        for (ColumnInfo column : columns) {
+            if (!column.isPrimary()) {
                 ret.add(column);
             }
         }
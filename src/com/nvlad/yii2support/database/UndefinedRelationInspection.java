@@ -0,0 +1,109 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.jetbrains.php.lang.inspections.PhpInspection;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.jetbrains.php.lang.psi.visitors.PhpElementVisitor;
+import com.nvlad.yii2support.database.entities.ActiveRecordRelation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relation paths of "with()", "joinWith()" and "innerJoinWith()" calls validated against {@link RelationIndex}.
+ */
+public class UndefinedRelationInspection extends PhpInspection {
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder problemsHolder, boolean isOnTheFly) {
+        return new PhpElementVisitor() {
+            @Override
+            public void visitPhpMethodReference(MethodReference reference) {
+                final String name = reference.getName();
+                if ("with".equals(name) || "joinWith".equals(name) || "innerJoinWith".equals(name)) {
+                    final List<StringLiteralExpression> literals = getRelationLiterals(reference);
+                    if (!literals.isEmpty()) {
+                        final PhpClass activeRecordClass = ActiveRecordRelations.getActiveRecordClass(reference);
+                        if (activeRecordClass != null) {
+                            for (StringLiteralExpression literal : literals) {
+                                checkPath(problemsHolder, activeRecordClass, literal);
+                            }
+                        }
+                    }
+                }
+
+                super.visitPhpMethodReference(reference);
+            }
+        };
+    }
+
+    private static void checkPath(@NotNull ProblemsHolder problemsHolder, @NotNull PhpClass activeRecordClass, @NotNull StringLiteralExpression literal) {
+        final String contents = literal.getContents();
+        if (contents.isEmpty() || contents.contains("$")) {
+            return;
+        }
+
+        PhpClass owner = activeRecordClass;
+        int offset = 0;
+        for (String relationName : ActiveRecordRelations.splitPath(contents)) {
+            final int nameOffset = contents.indexOf(relationName, offset);
+            offset = nameOffset + relationName.length();
+            if (relationName.isEmpty()) {
+                return;
+            }
+
+            final ActiveRecordRelation relation = ActiveRecordRelations.findRelation(owner, relationName);
+            if (relation == null) {
+                // relations with computed query are not indexed, but getter exists
+                if (owner.findMethodByName("get" + StringUtil.capitalize(relationName)) == null) {
+                    final TextRange range = TextRange.from(literal.getValueRange().getStartOffset() + nameOffset, relationName.length());
+                    problemsHolder.registerProblem(literal, range,
+                            "Relation '" + relationName + "' is not defined in " + owner.getFQN(),
+                            ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+                }
+
+                return;
+            }
+
+            owner = ActiveRecordRelations.getRelatedClass(activeRecordClass.getProject(), relation);
+            if (owner == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relation names passed as string, array of strings or keys of array with callbacks.
+     */
+    @NotNull
+    private static List<StringLiteralExpression> getRelationLiterals(@NotNull MethodReference reference) {
+        final List<StringLiteralExpression> result = new ArrayList<>();
+        for (PsiElement parameter : reference.getParameters()) {
+            if (parameter instanceof StringLiteralExpression) {
+                result.add((StringLiteralExpression) parameter);
+            } else if (parameter instanceof ArrayCreationExpression) {
+                for (PsiElement child : parameter.getChildren()) {
+                    final PsiElement element = child instanceof ArrayHashElement ? ((ArrayHashElement) child).getKey() : child;
+                    final PsiElement value = element instanceof PhpPsiElement && !(element instanceof StringLiteralExpression)
+                            ? ((PhpPsiElement) element).getFirstPsiChild() : element;
+                    if (value instanceof StringLiteralExpression) {
+                        result.add((StringLiteralExpression) value);
+                    }
+                }
+            }
+
+            // "joinWith($with, $eagerLoading, $joinType)": only first parameter is relation
+            if (!"with".equals(reference.getName())) {
+                break;
+            }
+        }
+
+        return result;
+    }
+}
@@ -4,12 +4,12 @@ package com.nvlad.yii2support.database;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElementVisitor;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.inspections.PhpInspection;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.visitors.PhpElementVisitor;
-import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.DatabaseUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -26,9 +26,7 @@ public class UndetectableTableInspection extends PhpInspection {
                     return;
                 }
 
-                PhpIndex index = PhpIndex.getInstance(problemsHolder.getProject());
-                if (DatabaseUtils.HasConnections(problemsHolder.getProject()) &&
-                        ClassUtils.isClassInheritsOrEqual(clazz, ClassUtils.getClass(index, "\\yii\\db\\ActiveRecord"), 100)) {
+                if (DatabaseUtils.HasConnections(problemsHolder.getProject()) && ClassHierarchy.hasRole(clazz, YiiClassRole.ActiveRecord)) {
                     String table = DatabaseUtils.getTableByActiveRecordClass(clazz);
                     if (table == null) {
                         problemsHolder.registerProblem(clazz.getFirstChild(), "Can not detect database table for class " + clazz.getFQN(), ProblemHighlightType.WEAK_WARNING);
@@ -0,0 +1,61 @@
+package com.nvlad.yii2support.database.actions;
+
+import com.intellij.codeInsight.navigation.NavigationUtil;
+import com.intellij.database.model.DasTable;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.nvlad.yii2support.common.DatabaseUtils;
+import com.nvlad.yii2support.database.ActiveRecordTables;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Navigates from table in Database tool window to ActiveRecord classes mapped to it.
+ */
+public class GotoActiveRecordAction extends AnAction {
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        e.getPresentation().setEnabledAndVisible(project != null
+                && !DumbService.isDumb(project)
+                && e.getData(CommonDataKeys.PSI_ELEMENT) instanceof DasTable);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        final Project project = e.getProject();
+        final PsiElement element = e.getData(CommonDataKeys.PSI_ELEMENT);
+        if (project == null || !(element instanceof DasTable)) {
+            return;
+        }
+
+        // classes with "{{%table}}" are mapped to prefixed table, classes with plain table name to name without prefix
+        final String table = ((DasTable) element).getName();
+        final ActiveRecordTables activeRecordTables = ActiveRecordTables.getInstance(project);
+        final Set<String> classFQNs = new LinkedHashSet<>(activeRecordTables.getClasses(table));
+        classFQNs.addAll(activeRecordTables.getClasses(DatabaseUtils.RemoveTablePrefix(table, project)));
+
+        final List<PhpClass> classes = new ArrayList<>();
+        final PhpIndex phpIndex = PhpIndex.getInstance(project);
+        for (String classFQN : classFQNs) {
+            classes.addAll(phpIndex.getClassesByFQN(classFQN));
+        }
+
+        if (classes.size() == 1) {
+            classes.get(0).navigate(true);
+        } else if (!classes.isEmpty()) {
+            NavigationUtil.getPsiElementPopup(classes.toArray(new PsiElement[0]), "ActiveRecord classes of " + table)
+                    .showInBestPositionFor(e.getDataContext());
+        }
+    }
+}
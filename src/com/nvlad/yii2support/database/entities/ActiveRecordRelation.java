@@ -0,0 +1,83 @@
+package com.nvlad.yii2support.database.entities;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Relation declared by "getXxx()" method of ActiveRecord with "hasOne()" or "hasMany()".
+ */
+public class ActiveRecordRelation {
+    /**
+     * Relation name: "orderItems" for "getOrderItems()".
+     */
+    public String name;
+    /**
+     * FQN of related class, empty string when it can not be detected.
+     */
+    public String className;
+    /**
+     * True for "hasMany()".
+     */
+    public boolean multiple;
+    /**
+     * Link columns: column of related class => column of owner class.
+     */
+    public Map<String, String> link = new LinkedHashMap<>();
+    /**
+     * Relation name of "->via('relation')", null when not used.
+     */
+    public String via;
+    /**
+     * Junction table of "->viaTable('table', [...])", null when not used.
+     */
+    public String viaTable;
+    /**
+     * Offset of getter method in file.
+     */
+    public int offset;
+
+    public ActiveRecordRelation() {
+    }
+
+    public ActiveRecordRelation(String name, String className, boolean multiple, int offset) {
+        this.name = name;
+        this.className = className;
+        this.multiple = multiple;
+        this.offset = offset;
+    }
+
+    /**
+     * Type of magic relation property: related class, or array of related classes for "hasMany()".
+     */
+    public String getPropertyType() {
+        return multiple ? className + "[]" : className;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, className, multiple, link, via, viaTable, offset);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof ActiveRecordRelation)) {
+            return false;
+        }
+
+        ActiveRecordRelation relation = (ActiveRecordRelation) obj;
+        return this.multiple == relation.multiple
+                && this.offset == relation.offset
+                && StringUtil.equals(this.name, relation.name)
+                && StringUtil.equals(this.className, relation.className)
+                && this.link.equals(relation.link)
+                && StringUtil.equals(this.via, relation.via)
+                && StringUtil.equals(this.viaTable, relation.viaTable);
+    }
+}
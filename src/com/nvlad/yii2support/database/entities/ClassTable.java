@@ -0,0 +1,51 @@
+package com.nvlad.yii2support.database.entities;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.util.Objects;
+
+/**
+ * Superclass and "tableName()" result of class, as stored in {@link com.nvlad.yii2support.database.ActiveRecordTableIndex}.
+ */
+public class ClassTable {
+    /**
+     * Superclass FQN, empty string for classes without parent.
+     */
+    public String parent;
+    /**
+     * Table expression returned by own "tableName()": table name ("{{%user}}"), class constant ("\app\Tables::USER")
+     * or empty string when expression can not be evaluated. Null when class does not declare "tableName()".
+     */
+    public String table;
+
+    public ClassTable() {
+    }
+
+    public ClassTable(String parent, String table) {
+        this.parent = parent;
+        this.table = table;
+    }
+
+    public boolean isConstant() {
+        return table != null && table.startsWith("\\");
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parent, table);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof ClassTable)) {
+            return false;
+        }
+
+        ClassTable classTable = (ClassTable) obj;
+        return StringUtil.equals(this.parent, classTable.parent) && StringUtil.equals(this.table, classTable.table);
+    }
+}
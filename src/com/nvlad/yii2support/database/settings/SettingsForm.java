@@ -93,9 +93,15 @@ public class SettingsForm implements Configurable {
 
     @Override
     public void apply() {
+        final boolean tablesChanged = !tablePrefixTextbox.getText().equals(settings.tablePrefix)
+                || !getSelectedDataSourceId().equals(settings.dataSourceId);
         settings.tablePrefix = tablePrefixTextbox.getText();
         settings.insertWithTablePrefix = insertTableNamesWithCheckBox.isSelected();
         settings.dataSourceId = getSelectedDataSourceId();
+        if (tablesChanged) {
+            // table and column caches depend on prefix and preferred data source
+            settings.settingsChanged();
+        }
 
         List<MigrateCommand> newCommandList = new SmartList<>();
         for (MigrateCommand command : ((MigrationPanel) migrationPanel).getData()) {
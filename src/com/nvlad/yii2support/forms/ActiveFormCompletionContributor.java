@@ -10,9 +10,10 @@ import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -49,7 +50,7 @@ public class ActiveFormCompletionContributor extends com.intellij.codeInsight.co
                 if (modelClass == null)
                     return;
 
-                if ( ClassUtils.isClassInherit(modelClass, "\\yii\\base\\Model", PhpIndex.getInstance(position.getProject()))) {
+                if ( ClassHierarchy.hasRole(modelClass, YiiClassRole.Model)) {
                     for (Field field : ClassUtils.getClassFields(modelClass)) {
                         LookupElementBuilder lookupBuilder = buildLookup(field, position);
                         completionResultSet.addElement(lookupBuilder);
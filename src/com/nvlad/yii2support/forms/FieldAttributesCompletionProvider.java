@@ -7,9 +7,10 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.editor.Document;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
-import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
@@ -34,7 +35,7 @@ public class FieldAttributesCompletionProvider extends CompletionProvider<Comple
                     if (element instanceof Variable) {
                         PhpClass classByVariable = ClassUtils.getClassByVariable((Variable) element);
                         if (classByVariable != null &&
-                                ClassUtils.isClassInherit(classByVariable, "yii\\base\\Model", PhpIndex.getInstance(position.getProject()) )) {
+                                ClassHierarchy.hasRole(classByVariable, YiiClassRole.Model)) {
                             Collection<Field> classFields = ClassUtils.getClassFields(classByVariable);
                             PhpExpression position2 = (PhpExpression) completionParameters.getPosition().getParent();
                             for (Field field : classFields) {
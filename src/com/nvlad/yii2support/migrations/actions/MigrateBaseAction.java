@@ -4,6 +4,7 @@ import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.AnActionButton;
@@ -156,7 +157,8 @@ abstract class MigrateBaseAction extends AnActionButton {
 
     @Nullable
     String getMigrationPath(Project project, TreeNode node) {
-        String projectRoot = YiiApplicationUtils.getYiiRootPath(project) + "/";
+        VirtualFile yiiRoot = getCommand((DefaultMutableTreeNode) node).getYiiRoot(project);
+        String projectRoot = (yiiRoot == null ? YiiApplicationUtils.getYiiRootPath(project) : yiiRoot.getPath()) + "/";
         Object userObject = ((DefaultMutableTreeNode) node).getUserObject();
         if (userObject instanceof MigrateCommand) {
             List<String> paths = new ArrayList<>();
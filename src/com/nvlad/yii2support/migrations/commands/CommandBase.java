@@ -11,9 +11,11 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.nvlad.yii2support.migrations.entities.MigrateCommand;
 import com.nvlad.yii2support.migrations.entities.Migration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -52,6 +54,14 @@ public abstract class CommandBase implements Runnable {
 
     abstract void processOutput(String text);
 
+    /**
+     * Yii root, which console script runs the command.
+     */
+    @Nullable
+    VirtualFile getYiiRoot() {
+        return myCommand.getYiiRoot(myProject);
+    }
+
     void repaintMigrationNode(Migration migration) {
         DefaultMutableTreeNode treeNode = findTreeNode(migration);
         if (treeNode != null) {
@@ -88,7 +88,7 @@ abstract class CommandUpDownRedoBase extends CommandBase {
     void executeActionWithParams(String action, List<String> parameters) {
         try {
             String command = myCommand.command + "/" + action;
-            ProcessHandler processHandler = YiiCommandLineUtil.configureHandler(myProject, command, parameters);
+            ProcessHandler processHandler = YiiCommandLineUtil.configureHandler(myProject, getYiiRoot(), command, parameters);
             if (processHandler == null) {
                 return;
             }
@@ -35,7 +35,7 @@ public class MigrationHistory extends CommandBase {
             params.add("all");
             prepareCommandParams(params, null);
 
-            ProcessHandler processHandler = YiiCommandLineUtil.configureHandler(myProject, myCommand.command + "/history", params);
+            ProcessHandler processHandler = YiiCommandLineUtil.configureHandler(myProject, getYiiRoot(), myCommand.command + "/history", params);
             Integer exitCode = 1;
             if (processHandler != null) {
                 exitCode = executeProcess(processHandler);
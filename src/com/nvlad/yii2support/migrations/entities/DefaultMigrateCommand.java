@@ -1,21 +1,40 @@
 package com.nvlad.yii2support.migrations.entities;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 
 public class DefaultMigrateCommand extends MigrateCommand {
     public DefaultMigrateCommand(List<MigrateCommand> commands) {
+        this(commands, "");
+    }
+
+    /**
+     * Command for migrations of Yii root not matched by other commands, uses options of default command of the root
+     * (of primary root when additional root has no own default command).
+     */
+    public DefaultMigrateCommand(List<MigrateCommand> commands, @NotNull String yiiRootPath) {
         super();
 
+        this.yiiRootPath = yiiRootPath;
         for (MigrateCommand migrateCommand : commands) {
-            if (migrateCommand.isDefault) {
+            if (!migrateCommand.isDefault) {
+                continue;
+            }
+
+            boolean sameRoot = StringUtil.equals(StringUtil.notNullize(migrateCommand.yiiRootPath).trim(), yiiRootPath.trim());
+            if (sameRoot || (command == null && migrateCommand.isPrimaryRoot())) {
                 command = migrateCommand.command;
                 migrationTable = migrateCommand.migrationTable;
                 db = migrateCommand.db;
                 useTablePrefix = migrateCommand.useTablePrefix;
             }
+
+            if (sameRoot) {
+                break;
+            }
         }
     }
 
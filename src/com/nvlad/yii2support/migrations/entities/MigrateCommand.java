@@ -2,9 +2,13 @@ package com.nvlad.yii2support.migrations.entities;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.SmartList;
 import com.nvlad.yii2support.common.YiiAlias;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.common.YiiApplicationUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
@@ -16,6 +20,10 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
     public List<String> migrationPath;
     public List<String> migrationNamespaces;
     public boolean useTablePrefix;
+    /**
+     * Yii root of command as in "Additional Yii Root Paths" setting, empty for primary root.
+     */
+    public String yiiRootPath;
 
     private List<String> myPathCache;
 
@@ -24,6 +32,7 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
         migrationPath = new SmartList<>();
         migrationNamespaces = new SmartList<>();
         useTablePrefix = false;
+        yiiRootPath = "";
     }
 
     @Override
@@ -56,6 +65,7 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
                 && StringUtil.equals(options.command, command)
                 && StringUtil.equals(options.migrationTable, migrationTable)
                 && StringUtil.equals(options.db, db)
+                && StringUtil.equals(options.yiiRootPath, yiiRootPath)
                 && options.migrationPath.equals(migrationPath)
                 && options.migrationNamespaces.equals(migrationNamespaces);
     }
@@ -68,7 +78,8 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
                 + db.hashCode()
                 + migrationPath.hashCode()
                 + migrationNamespaces.hashCode()
-                + (useTablePrefix ? 1 : 0);
+                + (useTablePrefix ? 1 : 0)
+                + StringUtil.notNullize(yiiRootPath).hashCode();
     }
 
     @Override
@@ -81,10 +92,33 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
         clone.migrationPath = new SmartList<>(migrationPath);
         clone.migrationNamespaces = new SmartList<>(migrationNamespaces);
         clone.useTablePrefix = useTablePrefix;
+        clone.yiiRootPath = yiiRootPath;
 
         return clone;
     }
 
+    public boolean isPrimaryRoot() {
+        return StringUtil.isEmptyOrSpaces(yiiRootPath);
+    }
+
+    /**
+     * Same command node of migrations tree: name, default flag and Yii root are equal.
+     */
+    public boolean isSameCommand(@NotNull MigrateCommand command) {
+        return command.isDefault == isDefault
+                && StringUtil.equals(command.command, this.command)
+                && StringUtil.equals(StringUtil.notNullize(command.yiiRootPath).trim(), StringUtil.notNullize(yiiRootPath).trim());
+    }
+
+    @Nullable
+    public VirtualFile getYiiRoot(Project project) {
+        if (isPrimaryRoot()) {
+            return YiiApplicationLayout.getInstance(project).getRoot();
+        }
+
+        return YiiApplicationUtils.findYiiRootVirtualFile(project, yiiRootPath.trim());
+    }
+
     public boolean containsMigration(Project project, Migration migration) {
         if (getPathCache(project).contains(migration.path)) {
             return true;
@@ -96,14 +130,15 @@ public class MigrateCommand implements Comparable<MigrateCommand>, Cloneable {
     private List<String> getPathCache(Project project) {
         if (myPathCache == null) {
             YiiAlias yiiAlias = YiiAlias.getInstance(project);
+            VirtualFile yiiRoot = getYiiRoot(project);
             myPathCache = new SmartList<>();
             for (String path : migrationPath) {
-                String resolvedAlias = yiiAlias.resolveAlias(path, true);
+                String resolvedAlias = yiiAlias.resolveAlias(path, true, yiiRoot);
                 if (resolvedAlias == null) {
                     continue;
                 }
 
-                myPathCache.add(yiiAlias.resolveAlias(resolvedAlias, true));
+                myPathCache.add(yiiAlias.resolveAlias(resolvedAlias, true, yiiRoot));
             }
         }
 
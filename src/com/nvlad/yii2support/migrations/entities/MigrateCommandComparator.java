@@ -1,10 +1,17 @@
 package com.nvlad.yii2support.migrations.entities;
 
+import com.intellij.openapi.util.text.StringUtil;
+
 import java.util.Comparator;
 
 public class MigrateCommandComparator implements Comparator<MigrateCommand> {
     @Override
     public int compare(MigrateCommand o1, MigrateCommand o2) {
+        int rootCompare = StringUtil.compare(StringUtil.notNullize(o1.yiiRootPath).trim(), StringUtil.notNullize(o2.yiiRootPath).trim(), false);
+        if (rootCompare != 0) {
+            return rootCompare;
+        }
+
         if (o1.isDefault || o2 instanceof DefaultMigrateCommand) {
             return -1;
         }
@@ -1,14 +1,17 @@
 package com.nvlad.yii2support.migrations.services;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.SmartList;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.nvlad.yii2support.common.FileUtil;
-import com.nvlad.yii2support.common.YiiApplicationUtils;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import com.nvlad.yii2support.migrations.entities.DefaultMigrateCommand;
 import com.nvlad.yii2support.migrations.entities.MigrateCommand;
 import com.nvlad.yii2support.migrations.entities.MigrateCommandComparator;
@@ -16,32 +19,23 @@ import com.nvlad.yii2support.migrations.entities.Migration;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public class MigrationService {
-    private static final Map<Project, MigrationService> migrationManagerMap = new HashMap<>();
-
     public static MigrationService getInstance(Project project) {
-        if (!migrationManagerMap.containsKey(project)) {
-            migrationManagerMap.put(project, new MigrationService(project));
-        }
-
-        return migrationManagerMap.get(project);
+        return ServiceManager.getService(project, MigrationService.class);
     }
 
     private final Project myProject;
     private final PhpIndex myPhpIndex;
-    private final int baseUrlLength;
-    private Map<MigrateCommand, Collection<Migration>> myMigrationMap;
-    private List<Migration> myMigrations;
-    private Set<MigrationServiceListener> listeners;
+    private volatile Map<MigrateCommand, Collection<Migration>> myMigrationMap;
+    private volatile List<Migration> myMigrations;
+    private final Set<MigrationServiceListener> listeners;
 
-    private MigrationService(Project project) {
+    public MigrationService(Project project) {
         myProject = project;
         myPhpIndex = PhpIndex.getInstance(project);
-        listeners = new HashSet<>();
-
-        String projectRootUrl = YiiApplicationUtils.getYiiRootUrl(project);
-        baseUrlLength = projectRootUrl != null ? projectRootUrl.length() : 0;
+        listeners = new CopyOnWriteArraySet<>();
     }
 
 
@@ -66,14 +60,35 @@ public class MigrationService {
             return;
         }
 
-        List<MigrateCommand> commands = new SmartList<>(Yii2SupportSettings.getInstance(myProject).migrateCommands);
-        commands.add(new DefaultMigrateCommand(commands));
+        Yii2SupportSettings settings = Yii2SupportSettings.getInstance(myProject);
+        List<MigrateCommand> commands = new SmartList<>(settings.migrateCommands);
+        commands.add(new DefaultMigrateCommand(settings.migrateCommands));
+        for (String yiiRootPath : settings.additionalYiiRootPaths) {
+            if (!StringUtil.isEmptyOrSpaces(yiiRootPath)) {
+                commands.add(new DefaultMigrateCommand(settings.migrateCommands, yiiRootPath.trim()));
+            }
+        }
         commands.sort(new MigrateCommandComparator());
 
+        // commands run console script of own Yii root, so they manage migrations of that root only
+        Map<VirtualFile, List<MigrateCommand>> rootCommands = new HashMap<>();
+        Set<VirtualFile> defaultCommandRoots = new HashSet<>();
+        for (MigrateCommand command : commands) {
+            VirtualFile yiiRoot = command.getYiiRoot(myProject);
+            if (yiiRoot == null || (command instanceof DefaultMigrateCommand && !defaultCommandRoots.add(yiiRoot))) {
+                continue;
+            }
+
+            rootCommands.computeIfAbsent(yiiRoot, key -> new SmartList<>()).add(command);
+        }
+
+        YiiApplicationLayout layout = YiiApplicationLayout.getInstance(myProject);
         Map<MigrateCommand, Collection<Migration>> migrationMap = new HashMap<>();
         List<Migration> migrationList = new SmartList<>();
-        for (MigrateCommand command : commands) {
-            migrationMap.put(command, new SmartList<>());
+        for (List<MigrateCommand> list : rootCommands.values()) {
+            for (MigrateCommand command : list) {
+                migrationMap.put(command, new SmartList<>());
+            }
         }
 
         for (PhpClass migrationClass : migrations) {
@@ -82,15 +97,18 @@ public class MigrationService {
             }
 
             VirtualFile virtualFile = FileUtil.getVirtualFile(migrationClass.getContainingFile());
-            if (virtualFile.getUrl().length() < baseUrlLength) {
+            VirtualFile yiiRoot = layout.getRoot(virtualFile);
+            if (yiiRoot == null || !rootCommands.containsKey(yiiRoot)) {
+                continue;
+            }
+
+            String path = VfsUtilCore.getRelativePath(virtualFile.getParent(), yiiRoot, '/');
+            if (path == null) {
                 continue;
             }
 
-            String path = virtualFile.getUrl().substring(baseUrlLength + 1);
-            int pathLength = path.length();
-            path = path.substring(0, pathLength - virtualFile.getName().length() - 1);
             Migration migration = getMigrationForClass(migrationClass, path);
-            for (MigrateCommand command : commands) {
+            for (MigrateCommand command : rootCommands.get(yiiRoot)) {
                 if (command.containsMigration(myProject, migration)) {
                     migrationMap.get(command).add(migration);
                     migrationList.add(migration);
@@ -5,11 +5,11 @@ import com.nvlad.yii2support.migrations.entities.MigrateCommand;
 import org.jetbrains.annotations.Nullable;
 
 public class MigrateCommandTableModel extends AddEditRemovePanel.TableModel<MigrateCommand> {
-    private final String[] columnNames = new String[]{"Command", "Table", "Component"};
+    private final String[] columnNames = new String[]{"Command", "Table", "Component", "Yii Root"};
 
     @Override
     public int getColumnCount() {
-        return 3;
+        return 4;
     }
 
     @Nullable
@@ -27,6 +27,8 @@ public class MigrateCommandTableModel extends AddEditRemovePanel.TableModel<Migr
                 return command.migrationTable;
             case 2:
                 return command.db;
+            case 3:
+                return command.yiiRootPath;
         }
 
         return null;
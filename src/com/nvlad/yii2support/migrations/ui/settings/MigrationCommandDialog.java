@@ -26,6 +26,7 @@ public class MigrationCommandDialog extends DialogWrapper {
     private JBTextField myCommandField;
     private JBTextField myTableField;
     private JBTextField myDbField;
+    private JBTextField myYiiRootField;
     private StringListEditPanel myMigrationPathPanel;
     private StringListEditPanel myMigrationNamespacesPanel;
     private JBCheckBox myUseTablePrefixCheckBox;
@@ -57,6 +58,7 @@ public class MigrationCommandDialog extends DialogWrapper {
         myCommandField.setText(command.command);
         myTableField.setText(command.migrationTable);
         myDbField.setText(command.db);
+        myYiiRootField.setText(command.yiiRootPath);
         myMigrationPathPanel.setStringData(command.migrationPath);
         myMigrationNamespacesPanel.setStringData(command.migrationNamespaces);
         myUseTablePrefixCheckBox.setSelected(command.useTablePrefix);
@@ -68,6 +70,7 @@ public class MigrationCommandDialog extends DialogWrapper {
         entry.command = myCommandField.getText();
         entry.migrationTable = myTableField.getText();
         entry.db = myDbField.getText();
+        entry.yiiRootPath = myYiiRootField.getText().trim();
         entry.migrationPath = myMigrationPathPanel.getStringData();
         entry.migrationNamespaces = myMigrationNamespacesPanel.getStringData();
         entry.useTablePrefix = myUseTablePrefixCheckBox.isSelected();
@@ -89,6 +92,11 @@ public class MigrationCommandDialog extends DialogWrapper {
         return myCommandField.getText();
     }
 
+    @NotNull
+    String getYiiRootPath() {
+        return myYiiRootField.getText().trim();
+    }
+
     @Nullable
     @Override
     protected JComponent createCenterPanel() {
@@ -150,6 +158,10 @@ public class MigrationCommandDialog extends DialogWrapper {
         myDbField = new JBTextField("db");
         myPanel.add(myDbField);
 
+        myPanel.add(new JLabel("Yii Root Path (empty for primary root)"));
+        myYiiRootField = new JBTextField("");
+        myPanel.add(myYiiRootField);
+
         MigrationService service = MigrationService.getInstance(myProject);
         service.sync();
 
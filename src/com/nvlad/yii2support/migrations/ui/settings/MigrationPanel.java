@@ -2,6 +2,7 @@ package com.nvlad.yii2support.migrations.ui.settings;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.ui.AddEditRemovePanel;
 import com.nvlad.yii2support.migrations.entities.MigrateCommand;
 import org.jetbrains.annotations.Nullable;
@@ -36,6 +37,7 @@ public class MigrationPanel extends AddEditRemovePanel<MigrateCommand> {
         setRenderer(0, renderer);
         setRenderer(1, renderer);
         setRenderer(2, renderer);
+        setRenderer(3, renderer);
     }
 
     @Nullable
@@ -68,7 +70,8 @@ public class MigrationPanel extends AddEditRemovePanel<MigrateCommand> {
         dialog.addValidator(optionsDialog -> {
             if (optionsDialog.isNewEntry()) {
                 final String commandName = optionsDialog.getCommandName();
-                return getData().stream().noneMatch(c -> commandName.equals(c.command));
+                final String yiiRootPath = optionsDialog.getYiiRootPath();
+                return getData().stream().noneMatch(c -> commandName.equals(c.command) && yiiRootPath.equals(StringUtil.notNullize(c.yiiRootPath).trim()));
             }
 
             return true;
@@ -80,8 +83,9 @@ public class MigrationPanel extends AddEditRemovePanel<MigrateCommand> {
         if (dialog.isOK()) {
             MigrateCommand entry = dialog.getEntry();
             if (entry.isDefault) {
+                // one default command per Yii root
                 for (MigrateCommand migrateCommand : getData()) {
-                    if (migrateCommand.isDefault) {
+                    if (migrateCommand.isDefault && entry.yiiRootPath.equals(StringUtil.notNullize(migrateCommand.yiiRootPath).trim())) {
                         migrateCommand.isDefault = false;
                         break;
                     }
@@ -102,6 +102,9 @@ class MigrationTreeCellRenderer extends CheckboxTree.CheckboxTreeCellRenderer {
             MigrateCommand command = (MigrateCommand) object;
             renderer.setIcon(AllIcons.Nodes.Folder);
             renderer.append(command.command, SimpleTextAttributes.REGULAR_ATTRIBUTES, true);
+            if (!command.isPrimaryRoot()) {
+                renderer.append("  " + command.yiiRootPath, SimpleTextAttributes.GRAY_ATTRIBUTES, false);
+            }
 
             if (!(object instanceof DefaultMigrateCommand)) {
                 appliedCount(treeNode, renderer);
@@ -30,7 +30,7 @@ public class TreeUtil {
         while (enumeration.hasMoreElements()) {
             DefaultMutableTreeNode node = (DefaultMutableTreeNode) enumeration.nextElement();
             MigrateCommand command = (MigrateCommand) node.getUserObject();
-            if (commands.stream().noneMatch(c -> c.isDefault == command.isDefault && c.command.equals(command.command))) {
+            if (commands.stream().noneMatch(c -> c.isSameCommand(command))) {
                 nodes.add(node);
             }
         }
@@ -165,7 +165,7 @@ public class TreeUtil {
         while (enumeration.hasMoreElements()) {
             DefaultMutableTreeNode nextElement = (DefaultMutableTreeNode) enumeration.nextElement();
             MigrateCommand migrationCommand = (MigrateCommand) nextElement.getUserObject();
-            if (migrationCommand.isDefault == command.isDefault && migrationCommand.command.equals(command.command)) {
+            if (migrationCommand.isSameCommand(command)) {
                 nextElement.setUserObject(command);
                 return nextElement;
             }
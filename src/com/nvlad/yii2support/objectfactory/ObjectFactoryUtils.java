@@ -5,7 +5,9 @@ import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -78,16 +80,14 @@ public class ObjectFactoryUtils {
                 PhpExpression ref = methodRef.getClassReference();
                 if (ref instanceof ClassReference && ClassUtils.indexForElementInParameterList(arrayCreation) == 0) {
                     PhpClass callingClass = (PhpClass) ((ClassReference) ref).resolve();
-                    PhpClass superClass = ClassUtils.getClass(PhpIndex.getInstance(methodRef.getProject()), "\\yii\\base\\Widget");
-                    if (ClassUtils.isClassInheritsOrEqual(callingClass, superClass, 100)) {
+                    if (ClassHierarchy.hasRole(callingClass, YiiClassRole.Widget)) {
                         return callingClass;
                     }
                 } else if (method != null && ref instanceof MethodReference && ClassUtils.indexForElementInParameterList(arrayCreation) == 1) {
                     // This code process
                     // $form->field($model, 'username')->widget(\Class::className())
                     PhpClass callingClass = method.getContainingClass();
-                    PhpClass superClass = ClassUtils.getClass(PhpIndex.getInstance(methodRef.getProject()), "yii\\widgets\\ActiveField");
-                    if (ClassUtils.isClassInheritsOrEqual(callingClass, superClass, 100)
+                    if (ClassHierarchy.hasRole(callingClass, YiiClassRole.ActiveField)
                             && method.getParameters().length == 2 &&
                             method.getParameters()[0].getName().equals("class")) {
                         PsiElement element = methodRef.getParameters()[0];
@@ -245,12 +245,7 @@ public class ObjectFactoryUtils {
                 return null;
             }
 
-            PhpClass yiiObjectClass = ClassUtils.getClass(PhpIndex.getInstance(element.getProject()), "\\yii\\base\\BaseObject");
-            if (yiiObjectClass == null) {
-                yiiObjectClass = ClassUtils.getClass(PhpIndex.getInstance(element.getProject()), "\\yii\\base\\Object");
-            }
-
-            if (!ClassUtils.isClassInheritsOrEqual(phpClass, yiiObjectClass, 100)) {
+            if (!ClassHierarchy.hasRole(phpClass, YiiClassRole.BaseObject)) {
                 return null;
             }
 
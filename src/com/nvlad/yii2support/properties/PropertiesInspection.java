@@ -2,21 +2,29 @@ package com.nvlad.yii2support.properties;
 
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.psi.PsiElement;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElementVisitor;
-import com.jetbrains.php.PhpIndex;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocComment;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.tags.PhpDocPropertyTag;
 import com.jetbrains.php.lang.inspections.PhpInspection;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.lang.psi.visitors.PhpElementVisitor;
-import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.DatabaseUtils;
 import com.nvlad.yii2support.common.VirtualProperty;
+import com.nvlad.yii2support.common.YiiClassRole;
+import com.nvlad.yii2support.database.ActiveRecordTableIndex;
+import com.nvlad.yii2support.database.SchemaSnapshot;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Created by oleg on 06.04.2017.
@@ -32,36 +40,83 @@ public class PropertiesInspection extends PhpInspection {
         return new PhpElementVisitor() {
 
             @Override
-            public void visitElement(PsiElement element) {
-                if (element instanceof PhpDocComment && DatabaseUtils.HasConnections(element.getProject())) {
-                    PhpDocComment docComment = (PhpDocComment) element;
-                    PhpIndex index = PhpIndex.getInstance(element.getProject());
-
-                    PhpClass phpClass = DatabaseUtils.getClassByClassPhpDoc(docComment);
-                    if (phpClass != null && ClassUtils.isClassInheritsOrEqual(phpClass, ClassUtils.getClass(index, "\\yii\\db\\BaseActiveRecord"), 100)) {
-                        Collection<Field> fields = phpClass.getFields();
-                        String table = DatabaseUtils.getTableByActiveRecordClass(phpClass);
-                        ArrayList<VirtualProperty> notDeclaredColumns = DatabaseUtils.getNotDeclaredColumns(table, fields, element.getProject());
-                        if (notDeclaredColumns.size() > 0) {
-                            MissingPropertiesQuickFix qFix = new MissingPropertiesQuickFix(notDeclaredColumns, docComment);
-                            String str1 = notDeclaredColumns.size() > 1 ? "properties" : "property";
-                            problemsHolder.registerProblem(docComment, "Class " + phpClass.getFQN() +
-                                    " is missing " + notDeclaredColumns.size() + " " + str1 + " that corresponds to database columns", ProblemHighlightType.WEAK_WARNING, qFix);
-                        }
+            public void visitPhpClass(PhpClass phpClass) {
+                PhpDocComment docComment = phpClass.getDocComment();
+                if (docComment != null) {
+                    ColumnsDiff diff = getColumnsDiff(phpClass);
+                    if (diff.notDeclaredColumns.size() > 0) {
+                        MissingPropertiesQuickFix qFix = new MissingPropertiesQuickFix(new ArrayList<>(diff.notDeclaredColumns), docComment);
+                        String str1 = diff.notDeclaredColumns.size() > 1 ? "properties" : "property";
+                        problemsHolder.registerProblem(docComment, "Class " + phpClass.getFQN() +
+                                " is missing " + diff.notDeclaredColumns.size() + " " + str1 + " that corresponds to database columns", ProblemHighlightType.WEAK_WARNING, qFix);
+                    }
 
-                        ArrayList<PhpDocPropertyTag> unusedProperties = DatabaseUtils.getUnusedProperties(table, docComment.getPropertyTags(), phpClass);
-                        if (unusedProperties.size() > 0) {
-                            for (PhpDocPropertyTag tag: unusedProperties) {
+                    if (diff.unusedProperties.size() > 0) {
+                        for (PhpDocPropertyTag tag : docComment.getPropertyTags()) {
+                            if (tag.getProperty() != null && diff.unusedProperties.contains(tag.getProperty().getName())) {
                                 problemsHolder.registerProblem(tag, "Property is unused in class " + phpClass.getFQN(), ProblemHighlightType.LIKE_UNUSED_SYMBOL);
                             }
                         }
                     }
+                }
 
+                super.visitPhpClass(phpClass);
+            }
+        };
+    }
+
+    /**
+     * Missing and unused properties of class, computed once per class until schema, table index,
+     * file of class or files of its superclasses change.
+     */
+    @NotNull
+    private static ColumnsDiff getColumnsDiff(@NotNull PhpClass phpClass) {
+        final Project project = phpClass.getProject();
+        return CachedValuesManager.getCachedValue(phpClass, () -> {
+            final List<Object> dependencies = new ArrayList<>();
+            dependencies.add(SchemaSnapshot.getModificationTracker(project));
+            dependencies.add(ActiveRecordTableIndex.getModificationTracker(project));
+            dependencies.add(Yii2SupportSettings.getInstance(project).getModificationTracker());
+            final Set<PhpClass> visited = new HashSet<>();
+            for (PhpClass current = phpClass; current != null && visited.add(current); current = current.getSuperClass()) {
+                if (current.getContainingFile() != null) {
+                    dependencies.add(current.getContainingFile());
                 }
-                super.visitElement(element);
             }
 
+            return CachedValueProvider.Result.create(buildColumnsDiff(phpClass), dependencies.toArray());
+        });
+    }
+
+    @NotNull
+    private static ColumnsDiff buildColumnsDiff(@NotNull PhpClass phpClass) {
+        final PhpDocComment docComment = phpClass.getDocComment();
+        if (docComment == null || !DatabaseUtils.HasConnections(phpClass.getProject())
+                || !ClassHierarchy.hasRole(phpClass, YiiClassRole.BaseActiveRecord)) {
+            return ColumnsDiff.EMPTY;
+        }
+
+        final String table = DatabaseUtils.getTableByActiveRecordClass(phpClass);
+        final ArrayList<VirtualProperty> notDeclaredColumns = DatabaseUtils.getNotDeclaredColumns(table, phpClass.getFields(), phpClass.getProject());
+        final Set<String> unusedProperties = new HashSet<>();
+        for (PhpDocPropertyTag tag : DatabaseUtils.getUnusedProperties(table, docComment.getPropertyTags(), phpClass)) {
+            if (tag.getProperty() != null) {
+                unusedProperties.add(tag.getProperty().getName());
+            }
+        }
+
+        return new ColumnsDiff(notDeclaredColumns, unusedProperties);
+    }
 
-        };
+    private static class ColumnsDiff {
+        static final ColumnsDiff EMPTY = new ColumnsDiff(Collections.emptyList(), Collections.emptySet());
+
+        final List<VirtualProperty> notDeclaredColumns;
+        final Set<String> unusedProperties;
+
+        ColumnsDiff(@NotNull List<VirtualProperty> notDeclaredColumns, @NotNull Set<String> unusedProperties) {
+            this.notDeclaredColumns = notDeclaredColumns;
+            this.unusedProperties = unusedProperties;
+        }
     }
 }
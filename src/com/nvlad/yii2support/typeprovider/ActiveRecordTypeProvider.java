@@ -6,8 +6,11 @@ import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.lang.psi.resolve.types.PhpType;
 import com.jetbrains.php.lang.psi.resolve.types.PhpTypeProvider4;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
 import com.nvlad.yii2support.common.SignatureUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
+import com.nvlad.yii2support.database.ActiveRecordProperties;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
@@ -18,6 +21,10 @@ import java.util.Set;
  */
 public class ActiveRecordTypeProvider  implements PhpTypeProvider4  {
     final static char TRIM_KEY = '\u0197';
+    /**
+     * Starts property signature and separates class type from field name, not used by other Yii2 type providers.
+     */
+    final static char PROPERTY_KEY = '\u019A';
 
     @Override
     public char getKey() {
@@ -45,6 +52,23 @@ public class ActiveRecordTypeProvider  implements PhpTypeProvider4  {
                     return new PhpType().add("#" + this.getKey() + signature);                    
                 }
             }
+        } else if (psiElement instanceof FieldReference) {
+            // Case: $model->email and $model->orders without @property tags, qualifier types and names are checked in complete()
+            FieldReference fieldReference = (FieldReference) psiElement;
+            PhpPsiElement classReference = fieldReference.getClassReference();
+            String fieldName = fieldReference.getName();
+            if (classReference == null || fieldName == null || fieldName.isEmpty() || fieldReference.isStatic()
+                    || !(classReference instanceof Variable || classReference instanceof MemberReference)) {
+                return null;
+            }
+
+            PhpType phpType = new PhpType();
+            for (String type : classReference.getType().getTypes()) {
+                if (!type.endsWith("[]") && !PhpType.isPrimitiveType(type)) {
+                    phpType.add("#" + this.getKey() + PROPERTY_KEY + type + PROPERTY_KEY + fieldName);
+                }
+            }
+            return phpType.isEmpty() ? null : phpType;
         }
         return null;
     }
@@ -54,13 +78,39 @@ public class ActiveRecordTypeProvider  implements PhpTypeProvider4  {
     public PhpType complete(String s, Project project) {
         PhpType phpType = new PhpType();
 
+        // property signature starts with its key, class type may contain nested property signatures
+        if (!s.isEmpty() && s.charAt(0) == PROPERTY_KEY) {
+            int propertyIndexEnd = s.lastIndexOf(PROPERTY_KEY);
+            if (propertyIndexEnd < 1) {
+                return null;
+            }
+
+            String fieldName = s.substring(propertyIndexEnd + 1);
+            if (!ActiveRecordProperties.isPropertyName(project, fieldName)) {
+                return null;
+            }
+
+            PhpType classType = new PhpType().add(s.substring(1, propertyIndexEnd));
+            for (String className : PhpIndex.getInstance(project).completeType(project, classType, null).getTypes()) {
+                PhpClass phpClass = ClassUtils.getClass(PhpIndex.getInstance(project), className);
+                // declared fields and @property tags are typed by PhpStorm
+                if (phpClass != null && phpClass.findFieldByName(fieldName, false) == null) {
+                    String propertyType = ActiveRecordProperties.getPropertyType(phpClass, fieldName);
+                    if (propertyType != null) {
+                        phpType.add(propertyType);
+                    }
+                }
+            }
+            return phpType;
+        }
+
         int endIndex = s.lastIndexOf(this.getKey());
         if(endIndex == -1) {
             return null;
         }
 
         PhpClass classBySignature = SignatureUtils.getClassBySignature(s, project);
-        boolean classInheritsFromAD = ClassUtils.isClassInherit(classBySignature, "\\yii\\db\\BaseActiveRecord", PhpIndex.getInstance(project));
+        boolean classInheritsFromAD = ClassHierarchy.hasRole(classBySignature, YiiClassRole.BaseActiveRecord);
         if (classInheritsFromAD) {
             if (s.endsWith(".one"))
                 phpType.add(classBySignature.getFQN());
@@ -0,0 +1,118 @@
+package com.nvlad.yii2support.typeprovider;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.psi.PhpFile;
+import com.jetbrains.php.lang.psi.elements.Function;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
+import com.jetbrains.php.lang.psi.elements.Variable;
+import com.jetbrains.php.lang.psi.resolve.types.PhpType;
+import com.jetbrains.php.lang.psi.resolve.types.PhpTypeProvider4;
+import com.nvlad.yii2support.views.index.ViewFileIndex;
+import com.nvlad.yii2support.views.util.RenderUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Types view variables by argument types of "render" calls stored in render call index.
+ * Signature contains view file path relative to project (with dots replaced) and variable name,
+ * it is given to top level variables of files in view paths only, whether the file is a view is checked on completion.
+ * Argument signatures are local to caller files and completed here.
+ */
+public class ViewVariableTypeProvider implements PhpTypeProvider4 {
+    final static char TRIM_KEY = '\u0197';
+    final static char DOT_REPLACEMENT = '\u0199';
+
+    @Override
+    public char getKey() {
+        return '\u0855';
+    }
+
+    @Nullable
+    @Override
+    public PhpType getType(PsiElement psiElement) {
+        if (!(psiElement instanceof Variable)) {
+            return null;
+        }
+
+        final String name = ((Variable) psiElement).getName();
+        if (StringUtil.isEmpty(name) || name.equals("this")) {
+            return null;
+        }
+
+        final PsiFile file = psiElement.getContainingFile();
+        if (!(file instanceof PhpFile)) {
+            return null;
+        }
+
+        final VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        final String basePath = psiElement.getProject().getBasePath();
+        if (virtualFile == null || basePath == null || !virtualFile.getPath().startsWith(basePath + '/')) {
+            return null;
+        }
+
+        if (PsiTreeUtil.getParentOfType(psiElement, Function.class, PhpClass.class) != null) {
+            return null;
+        }
+
+        // same path check as view index input filter, configs and entry scripts are not signed
+        if (!ViewFileIndex.isViewPath(virtualFile.getPath(), psiElement.getProject())) {
+            return null;
+        }
+
+        final String path = virtualFile.getPath().substring(basePath.length() + 1).replace('.', DOT_REPLACEMENT);
+        return new PhpType().add("#" + this.getKey() + path + TRIM_KEY + name);
+    }
+
+    @Nullable
+    @Override
+    public PhpType complete(String s, Project project) {
+        final int trimIndex = s.lastIndexOf(TRIM_KEY);
+        final String basePath = project.getBasePath();
+        if (trimIndex == -1 || basePath == null || DumbService.isDumb(project)) {
+            return null;
+        }
+
+        final int keyIndex = s.indexOf(this.getKey());
+        final String path = s.substring(keyIndex + 1, trimIndex).replace(DOT_REPLACEMENT, '.');
+        final String name = s.substring(trimIndex + 1);
+        final VirtualFile viewFile = LocalFileSystem.getInstance().findFileByPath(basePath + '/' + path);
+        if (viewFile == null) {
+            return null;
+        }
+
+        final PhpType phpType = new PhpType();
+        RenderUtil.processRenderCalls(viewFile, project, (file, renderCall) -> {
+            if (renderCall.arguments.containsKey(name)) {
+                phpType.add(RenderUtil.getArgumentType(renderCall, name));
+            }
+
+            return true;
+        });
+
+        if (phpType.isEmpty()) {
+            return null;
+        }
+
+        // local signatures of callers may point back to this view variable, e.g. view rendering itself
+        final PhpType completed = RecursionManager.doPreventingRecursion(s, false,
+                () -> PhpIndex.getInstance(project).completeType(project, phpType, null));
+        return completed == null || completed.isEmpty() ? null : completed;
+    }
+
+    @Override
+    public Collection<? extends PhpNamedElement> getBySignature(String s, Set<String> set, int i, Project project) {
+        return null;
+    }
+}
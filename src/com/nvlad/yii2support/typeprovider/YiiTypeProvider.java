@@ -1,18 +1,21 @@
 package com.nvlad.yii2support.typeprovider;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.lang.psi.elements.impl.VariableImpl;
 import com.jetbrains.php.lang.psi.resolve.types.PhpType;
 import com.jetbrains.php.lang.psi.resolve.types.PhpTypeProvider4;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.FileUtil;
 import com.nvlad.yii2support.common.MethodUtils;
 import com.nvlad.yii2support.common.PsiUtil;
-import com.nvlad.yii2support.configurations.ComponentsIndex;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.configurations.ComponentsSnapshot;
+import com.nvlad.yii2support.configurations.ContainerIndex;
 import com.nvlad.yii2support.objectfactory.ObjectFactoryUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +30,7 @@ public class YiiTypeProvider implements PhpTypeProvider4 {
     final static char TRIM_KEY = '\u0197';
     final static char TRIM_KEY2 = '\u0199';
     final static char TRIM_KEY3 = '\u0193';
+    final static char TRIM_KEY4 = '\u0195';
 
     @Override
     public char getKey() {
@@ -53,10 +57,15 @@ public class YiiTypeProvider implements PhpTypeProvider4 {
             else {
                 return getClass(firstParam);
             }
+        }else if(MethodUtils.isYiiContainerMethod(psiElement, "get")) {
+            // Case: Yii::$container->get('some\Interface')
+            return getClass((PhpPsiElement) ((MethodReference) psiElement).getParameters()[0]);
         }else if(psiElement instanceof FieldReference) {
             String fieldName = PsiUtil.getYiiAppField((FieldReference) psiElement);
             if (fieldName != null) {
-                return new PhpType().add("#" + this.getKey() + TRIM_KEY2 + fieldName + TRIM_KEY2);
+                final VirtualFile file = psiElement.getContainingFile() == null ? null : FileUtil.getVirtualFile(psiElement.getContainingFile());
+                final String application = file == null ? "" : YiiApplicationLayout.getInstance(psiElement.getProject()).getApplicationName(file);
+                return new PhpType().add("#" + this.getKey() + TRIM_KEY2 + fieldName + TRIM_KEY2 + application);
             }
         }else if(psiElement instanceof Parameter){
             PsiElement el = walkParents(psiElement,5); // Get "'value' => function()" element
@@ -86,6 +95,20 @@ public class YiiTypeProvider implements PhpTypeProvider4 {
     public @Nullable PhpType complete(String s, Project project) {
         PhpType phpType = new PhpType();
 
+        int containerIndex = s.indexOf(TRIM_KEY4);
+        if (containerIndex > -1) {
+            // container definition, class itself when it is not defined
+            String id = s.substring(containerIndex + 1);
+            Set<String> classes = ContainerIndex.getClasses(id, project);
+            if (classes.isEmpty()) {
+                phpType.add("\\" + StringUtil.trimStart(id, "\\"));
+            }
+            for (String className : classes) {
+                phpType.add(className);
+            }
+            return phpType;
+        }
+
         int trimIndex = s.indexOf(TRIM_KEY);
         if (trimIndex > -1 && s.length() + 1 > trimIndex) {
             String origSignature = s.substring(0, trimIndex);
@@ -109,12 +132,9 @@ public class YiiTypeProvider implements PhpTypeProvider4 {
             int trimIndexEnd = s.lastIndexOf(TRIM_KEY2);
             if (trimIndexStart > -1 && trimIndexStart < trimIndexEnd) {
                 String fieldName = s.substring(trimIndexStart + 1, trimIndexEnd);
-                final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-
-                for (String className : FileBasedIndex.getInstance().getValues(ComponentsIndex.identity, fieldName, scope)) {
-                    for (PhpClass phpClass : PhpIndex.getInstance(project).getAnyByFQN(className)) {
-                        phpType.add(phpClass.getType());
-                    }
+                String application = s.substring(trimIndexEnd + 1);
+                for (String className : ComponentsSnapshot.getInstance(project).getClasses(fieldName, application.isEmpty() ? null : application)) {
+                    phpType.add(className);
                 }
             }else{
                 trimIndexStart = s.indexOf(TRIM_KEY3);
@@ -161,9 +181,19 @@ public class YiiTypeProvider implements PhpTypeProvider4 {
 
     private PhpType getClass(PhpPsiElement elem) {
         if (elem instanceof ClassConstantReference) {
-            if (elem.getName() != null && elem.getName().equals("class")
-                    && ((ClassConstantReference) elem).getClassReference() != null)
-                return ((ClassConstantReference) elem).getClassReference().getType();
+            PhpExpression classReference = ((ClassConstantReference) elem).getClassReference();
+            if (elem.getName() != null && elem.getName().equals("class") && classReference != null) {
+                if (classReference instanceof ClassReference && ((ClassReference) classReference).getFQN() != null) {
+                    return new PhpType().add("#" + this.getKey() + TRIM_KEY4 + ((ClassReference) classReference).getFQN());
+                }
+                return classReference.getType();
+            }
+        }
+        if (elem instanceof StringLiteralExpression) {
+            String className = ((StringLiteralExpression) elem).getContents();
+            if (!className.isEmpty() && !StringUtil.containsWhitespaces(className)) {
+                return new PhpType().add("#" + this.getKey() + TRIM_KEY4 + className.replace("\\\\", "\\"));
+            }
         }
         if (elem instanceof MethodReference) {
             if (elem.getName() != null && elem.getName().equals("className")
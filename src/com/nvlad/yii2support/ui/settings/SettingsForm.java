@@ -6,19 +6,20 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.TextBrowseFolderListener;
 import com.intellij.openapi.ui.TextFieldWithBrowseButton;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.util.indexing.FileBasedIndex;
-import com.nvlad.yii2support.common.YiiApplicationUtils;
+import com.intellij.util.SmartList;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
-import com.nvlad.yii2support.views.index.ViewFileIndex;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.List;
 
 public class SettingsForm implements Configurable {
     private JPanel mainPanel;
     private TextFieldWithBrowseButton yiiRootPath;
     private JLabel yiiRootPathLabel;
+    private JTextField additionalYiiRootPaths;
+    private JLabel additionalYiiRootPathsLabel;
     final private Project myProject;
     final private Yii2SupportSettings settings;
 
@@ -30,6 +31,7 @@ public class SettingsForm implements Configurable {
         yiiRootPath.setButtonEnabled(true);
         FileChooserDescriptor fileChooserDescriptor = new FileChooserDescriptor(false, true, false, false, false, false);
         yiiRootPath.addBrowseFolderListener(new TextBrowseFolderListener(fileChooserDescriptor));
+        additionalYiiRootPathsLabel.setLabelFor(additionalYiiRootPaths);
     }
 
     @Nls
@@ -52,24 +54,36 @@ public class SettingsForm implements Configurable {
 
     @Override
     public boolean isModified() {
-        return !yiiRootPath.getText().trim().equals(StringUtil.notNullize(settings.yiiRootPath));
+        return !yiiRootPath.getText().trim().equals(StringUtil.notNullize(settings.yiiRootPath))
+                || !getAdditionalYiiRootPaths().equals(settings.additionalYiiRootPaths);
     }
 
     @Override
     public void apply() {
         settings.yiiRootPath = StringUtil.nullize(yiiRootPath.getText().trim());
-
-        YiiApplicationUtils.resetYiiRootPath(myProject);
-        FileBasedIndex.getInstance().requestRebuild(ViewFileIndex.identity);
+        settings.additionalYiiRootPaths = getAdditionalYiiRootPaths();
+        settings.settingsChanged();
     }
 
     @Override
     public void reset() {
         yiiRootPath.setText(StringUtil.notNullize(settings.yiiRootPath));
+        additionalYiiRootPaths.setText(StringUtil.join(settings.additionalYiiRootPaths, "; "));
     }
 
     @Override
     public void disposeUIResources() {
 
     }
+
+    private List<String> getAdditionalYiiRootPaths() {
+        final List<String> result = new SmartList<>();
+        for (String path : StringUtil.split(additionalYiiRootPaths.getText(), ";")) {
+            if (!path.trim().isEmpty()) {
+                result.add(path.trim());
+            }
+        }
+
+        return result;
+    }
 }
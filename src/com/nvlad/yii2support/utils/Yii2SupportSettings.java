@@ -5,9 +5,13 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.SmartList;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import com.intellij.util.xmlb.annotations.MapAnnotation;
+import com.intellij.util.xmlb.annotations.Transient;
 import com.nvlad.yii2support.common.YiiApplicationTemplate;
 import com.nvlad.yii2support.common.YiiApplicationUtils;
 import com.nvlad.yii2support.migrations.entities.MigrateCommand;
@@ -22,6 +26,7 @@ import java.util.*;
 public class Yii2SupportSettings implements PersistentStateComponent<Yii2SupportSettings> {
     // Yii Settings
     public String yiiRootPath = null;
+    public List<String> additionalYiiRootPaths;
 
     // Database Settings
     public String tablePrefix = "";
@@ -43,6 +48,7 @@ public class Yii2SupportSettings implements PersistentStateComponent<Yii2Support
     public Map<String, String> aliasMap;
 
     private Project myProject;
+    private final SimpleModificationTracker myModificationTracker = new SimpleModificationTracker();
 
     public Yii2SupportSettings() {
         viewPathMap = new LinkedHashMap<>();
@@ -50,6 +56,7 @@ public class Yii2SupportSettings implements PersistentStateComponent<Yii2Support
         viewPathMap.put("@app/themes/*/widgets", "@app/widgets");
         viewPathMap.put("@app/themes/*", "@app/views");
 
+        additionalYiiRootPaths = new SmartList<>();
         migrateCommands =  new SmartList<>();
         aliasMap = new HashMap<>();
     }
@@ -69,6 +76,7 @@ public class Yii2SupportSettings implements PersistentStateComponent<Yii2Support
 
     @Override
     public void loadState(Yii2SupportSettings settings) {
+        final int settingsHash = getSettingsHash();
         if (myProject != null) {
             this.aliasMap.clear();
             this.migrateCommands.clear();
@@ -76,6 +84,46 @@ public class Yii2SupportSettings implements PersistentStateComponent<Yii2Support
         }
 
         XmlSerializerUtil.copyBean(settings, this);
+        if (settingsHash != getSettingsHash()) {
+            settingsChanged();
+        }
+    }
+
+    /**
+     * Hash of settings used for resolving views, aliases and tables, so indexed data and caches built with other values can be detected.
+     */
+    @Transient
+    public int getSettingsHash() {
+        int hash = getViewIndexSettingsHash() * 31 + Objects.hash(defaultViewExtension, tablePrefix, dataSourceId);
+        return hash * 31 + aliasMap.hashCode();
+    }
+
+    /**
+     * Hash of settings which keys of view index depend on: Yii roots and view path map.
+     */
+    @Transient
+    public int getViewIndexSettingsHash() {
+        int hash = Objects.hash(yiiRootPath, additionalYiiRootPaths);
+        for (Map.Entry<String, String> entry : viewPathMap.entrySet()) {
+            hash = hash * 31 + entry.hashCode();
+        }
+
+        return hash;
+    }
+
+    @Transient
+    public ModificationTracker getModificationTracker() {
+        return myModificationTracker;
+    }
+
+    /**
+     * Must be called after changing path related settings.
+     */
+    public void settingsChanged() {
+        myModificationTracker.incModificationCount();
+        if (myProject != null && !myProject.isDisposed()) {
+            myProject.getMessageBus().syncPublisher(Yii2SupportSettingsListener.TOPIC).settingsChanged();
+        }
     }
 
     public void initProjectConfiguration(Project project) {
@@ -105,43 +153,55 @@ public class Yii2SupportSettings implements PersistentStateComponent<Yii2Support
         }
 
         if (migrateCommands.isEmpty()) {
-            MigrateCommand command;
-            switch (template) {
-                case Unknown:
-                case Basic:
-                case Advanced:
-                    command = new MigrateCommand();
-                    command.command = "migrate";
-                    command.migrationPath.add("@app/migrations");
-                    command.migrationTable = "{{%migration}}";
-                    command.db = "db";
-                    command.isDefault = true;
-                    command.useTablePrefix = false;
-                    migrateCommands.add(command);
-                    break;
-                case StarterKit:
-                    command = new MigrateCommand();
-                    command.command = "migrate";
-                    command.migrationPath.add("@common/migrations/db");
-                    command.migrationTable = "{{%system_db_migration}}";
-                    command.db = "db";
-                    command.isDefault = true;
-                    command.useTablePrefix = false;
-                    migrateCommands.add(command);
-
-                    command = new MigrateCommand();
-                    command.command = "rbac-migrate";
-                    command.migrationPath.add("@common/migrations/rbac/");
-                    command.migrationTable = "{{%system_rbac_migration}}";
-                    command.db = "db";
-                    command.isDefault = false;
-                    command.useTablePrefix = false;
-                    migrateCommands.add(command);
-                    break;
+            addDefaultMigrateCommands(template, "");
+            for (String path : additionalYiiRootPaths) {
+                if (!StringUtil.isEmptyOrSpaces(path)) {
+                    addDefaultMigrateCommands(YiiApplicationUtils.getAppTemplate(project, path.trim()), path.trim());
+                }
             }
         }
     }
 
+    private void addDefaultMigrateCommands(YiiApplicationTemplate template, String yiiRootPath) {
+        MigrateCommand command;
+        switch (template) {
+            case Unknown:
+            case Basic:
+            case Advanced:
+                command = new MigrateCommand();
+                command.command = "migrate";
+                command.migrationPath.add("@app/migrations");
+                command.migrationTable = "{{%migration}}";
+                command.db = "db";
+                command.isDefault = true;
+                command.useTablePrefix = false;
+                command.yiiRootPath = yiiRootPath;
+                migrateCommands.add(command);
+                break;
+            case StarterKit:
+                command = new MigrateCommand();
+                command.command = "migrate";
+                command.migrationPath.add("@common/migrations/db");
+                command.migrationTable = "{{%system_db_migration}}";
+                command.db = "db";
+                command.isDefault = true;
+                command.useTablePrefix = false;
+                command.yiiRootPath = yiiRootPath;
+                migrateCommands.add(command);
+
+                command = new MigrateCommand();
+                command.command = "rbac-migrate";
+                command.migrationPath.add("@common/migrations/rbac/");
+                command.migrationTable = "{{%system_rbac_migration}}";
+                command.db = "db";
+                command.isDefault = false;
+                command.useTablePrefix = false;
+                command.yiiRootPath = yiiRootPath;
+                migrateCommands.add(command);
+                break;
+        }
+    }
+
     public static Yii2SupportSettings getInstance(Project project) {
         return ServiceManager.getService(project, Yii2SupportSettings.class);
     }
@@ -0,0 +1,12 @@
+package com.nvlad.yii2support.utils;
+
+import com.intellij.util.messages.Topic;
+
+/**
+ * Notified after project settings affecting path resolving (Yii root, view path map, aliases) are changed.
+ */
+public interface Yii2SupportSettingsListener {
+    Topic<Yii2SupportSettingsListener> TOPIC = Topic.create("Yii2 Support settings", Yii2SupportSettingsListener.class);
+
+    void settingsChanged();
+}
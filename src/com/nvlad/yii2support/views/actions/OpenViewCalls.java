@@ -11,16 +11,13 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.searches.ReferencesSearch;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.ListCellRendererWithRightAlignedComponent;
 import com.intellij.ui.popup.list.ListPopupImpl;
 import com.jetbrains.php.PhpIcons;
-import com.jetbrains.php.lang.psi.elements.Include;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.nvlad.yii2support.common.FileUtil;
+import com.nvlad.yii2support.views.util.RenderUtil;
 
 import javax.swing.*;
 import java.util.Collection;
@@ -37,9 +34,7 @@ public class OpenViewCalls extends AnAction {
             return;
         }
 
-        Collection<PsiReference> references = ReferencesSearch.search(psiFile).findAll();
-        references.removeIf(psiReference -> psiReference.getElement() instanceof Include);
-
+        Collection<MethodReference> references = RenderUtil.findRenderCalls(psiFile);
         if (references.size() == 0) {
             return;
         }
@@ -49,29 +44,19 @@ public class OpenViewCalls extends AnAction {
             return;
         }
 
-        BaseListPopupStep<PsiReference> popupStep = new ReferenceListPopupStep("Render this View from", references);
+        BaseListPopupStep<MethodReference> popupStep = new ReferenceListPopupStep("Render this View from", references);
         ListPopup popup = new ListPopupImpl(popupStep) {
             @Override
             protected ListCellRenderer getListElementRenderer() {
-                return new ListCellRendererWithRightAlignedComponent<PsiReference>() {
+                return new ListCellRendererWithRightAlignedComponent<MethodReference>() {
                     @Override
-                    protected void customize(PsiReference reference) {
-                        if (reference == null) {
-                            setLeftText("(empty)");
-                            return;
-                        }
-
-                        PsiElement psiElement = reference.getElement();
-                        if (psiElement == null) {
+                    protected void customize(MethodReference methodElement) {
+                        if (methodElement == null || methodElement.getParameters().length == 0) {
                             setLeftText("(empty)");
                             return;
                         }
 
-                        PsiElement methodElement = PsiTreeUtil.getParentOfType(psiElement, MethodReference.class);
-                        if (methodElement == null) {
-                            setLeftText("(empty)");
-                            return;
-                        }
+                        PsiElement psiElement = methodElement.getParameters()[0];
 
                         Project project = methodElement.getProject();
                         VirtualFile virtualFile = FileUtil.getVirtualFile(methodElement.getContainingFile());
@@ -8,8 +8,6 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.pom.Navigatable;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.PhpIcons;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.nvlad.yii2support.common.FileUtil;
@@ -20,33 +18,25 @@ import javax.swing.*;
 import java.util.Collection;
 import java.util.LinkedList;
 
-class ReferenceListPopupStep extends BaseListPopupStep<PsiReference> {
-    ReferenceListPopupStep(@Nullable String title, Collection<PsiReference> values) {
+class ReferenceListPopupStep extends BaseListPopupStep<MethodReference> {
+    ReferenceListPopupStep(@Nullable String title, Collection<MethodReference> values) {
         super(title, new LinkedList<>(values));
     }
 
     @Override
-    public PopupStep onChosen(PsiReference reference, boolean finalChoice) {
+    public PopupStep onChosen(MethodReference reference, boolean finalChoice) {
         openReference(reference);
         return FINAL_CHOICE;
     }
 
     @NotNull
     @Override
-    public String getTextFor(PsiReference reference) {
-        if (reference == null) {
+    public String getTextFor(MethodReference methodElement) {
+        if (methodElement == null || methodElement.getParameters().length == 0) {
             return "(empty)";
         }
 
-        PsiElement psiElement = reference.getElement();
-        if (psiElement == null) {
-            return "(empty)";
-        }
-
-        PsiElement methodElement = PsiTreeUtil.getParentOfType(psiElement, MethodReference.class);
-        if (methodElement == null) {
-            return "(empty)";
-        }
+        PsiElement psiElement = methodElement.getParameters()[0];
 
         Project project = methodElement.getProject();
         VirtualFile virtualFile = FileUtil.getVirtualFile(methodElement.getContainingFile());
@@ -61,13 +51,17 @@ class ReferenceListPopupStep extends BaseListPopupStep<PsiReference> {
     }
 
     @Override
-    public Icon getIconFor(PsiReference reference) {
+    public Icon getIconFor(MethodReference reference) {
         return PhpIcons.METHOD;
     }
 
 
-    static void openReference(PsiReference reference) {
-        PsiElement psiElement = reference.getElement();
+    static void openReference(MethodReference reference) {
+        if (reference.getParameters().length == 0) {
+            return;
+        }
+
+        PsiElement psiElement = reference.getParameters()[0];
 
         if (psiElement.getFirstChild() != null && psiElement.getFirstChild().getNextSibling() != null) {
             psiElement = psiElement.getFirstChild().getNextSibling();
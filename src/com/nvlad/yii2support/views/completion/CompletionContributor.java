@@ -34,7 +34,7 @@ public class CompletionContributor extends com.intellij.codeInsight.completion.C
                     return true;
                 }
             }
-            if (typeChar == '@' && position.getParent() instanceof StringLiteralExpression) {
+            if ((typeChar == '@' || typeChar == '/') && position.getParent() instanceof StringLiteralExpression) {
                 ParameterList parameterList = PsiTreeUtil.getParentOfType(position, ParameterList.class);
                 return parameterList != null && parameterList.getParameters()[0] == position.getParent();
             }
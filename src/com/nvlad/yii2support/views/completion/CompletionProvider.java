@@ -1,29 +1,34 @@
 package com.nvlad.yii2support.views.completion;
 
+import com.intellij.codeInsight.AutoPopupController;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.icons.AllIcons;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.jetbrains.php.lang.psi.elements.ParameterList;
+import com.nvlad.yii2support.common.FileUtil;
 import com.nvlad.yii2support.common.PhpUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import com.nvlad.yii2support.views.entities.ViewInfo;
 import com.nvlad.yii2support.views.entities.ViewResolve;
 import com.nvlad.yii2support.views.entities.ViewResolveFrom;
 import com.nvlad.yii2support.views.index.ViewFileIndex;
+import com.nvlad.yii2support.views.index.ViewKeyTree;
 import com.nvlad.yii2support.views.util.ViewUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Created by NVlad on 27.12.2016.
@@ -60,7 +65,7 @@ class CompletionProvider extends com.intellij.codeInsight.completion.CompletionP
         }
 
         final Project project = psiElement.getProject();
-        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        final GlobalSearchScope scope = YiiApplicationLayout.getInstance(project).getSearchScope(FileUtil.getVirtualFile(psiElement.getContainingFile()));
         final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
 
         int prefixLength = resolve.key.length();
@@ -84,15 +89,10 @@ class CompletionProvider extends com.intellij.codeInsight.completion.CompletionP
         }
 
         final String prefixFilter = resolve.key.substring(0, prefixLength);
-        final Set<String> keys = new HashSet<>();
-        fileBasedIndex.processAllKeys(ViewFileIndex.identity, key -> {
-            if (key.startsWith(prefixFilter)) {
-                keys.add(key);
-            }
-            return true;
-        }, scope, null);
+        final String directory = prefixFilter.substring(0, prefixFilter.lastIndexOf('/') + 1);
+        final String namePrefix = prefixFilter.substring(directory.length());
+        final Map<String, ViewKeyTree.Node> entries = ViewKeyTree.getInstance(project).getChildren(directory);
 
-        final PsiManager psiManager = PsiManager.getInstance(project);
         boolean localViewSearch = false;
         if (resolve.from == ViewResolveFrom.View) {
             final String value = PhpUtil.getValue(viewParameter);
@@ -100,7 +100,20 @@ class CompletionProvider extends com.intellij.codeInsight.completion.CompletionP
         }
 
         final String defaultViewExtension = '.' + Yii2SupportSettings.getInstance(psiElement.getProject()).defaultViewExtension;
-        for (String key : keys) {
+        for (Map.Entry<String, ViewKeyTree.Node> entry : entries.entrySet()) {
+            if (!entry.getKey().startsWith(namePrefix)) {
+                continue;
+            }
+
+            final String key = directory + entry.getKey();
+            if (entry.getValue().isDirectory()) {
+                completionResultSet.addElement(createDirectoryLookupElement((key + "/").substring(prefixLength)));
+            }
+
+            if (!entry.getValue().isView()) {
+                continue;
+            }
+
             Collection<ViewInfo> views = fileBasedIndex.getValues(ViewFileIndex.identity, key, scope);
             for (ViewInfo view : views) {
                 if (!resolve.application.equals(view.application)) {
@@ -111,18 +124,26 @@ class CompletionProvider extends com.intellij.codeInsight.completion.CompletionP
                     continue;
                 }
 
-                PsiFile psiFile = psiManager.findFile(view.getVirtualFile());
-                if (psiFile != null) {
+                VirtualFile virtualFile = view.getVirtualFile();
+                if (virtualFile != null) {
                     String insertText = key.substring(prefixLength);
                     if (insertText.endsWith(defaultViewExtension)) {
                         insertText = insertText.substring(0, insertText.length() - defaultViewExtension.length());
                     }
-                    completionResultSet.addElement(new ViewLookupElement(psiFile, insertText));
+                    completionResultSet.addElement(new ViewLookupElement(virtualFile, project, insertText));
                     break;
-                } else {
-                    System.out.println(view.fileUrl + " => not exists");
                 }
             }
         }
     }
+
+    @NotNull
+    private static LookupElement createDirectoryLookupElement(@NotNull String insertText) {
+        return LookupElementBuilder.create(insertText)
+                .withIcon(AllIcons.Nodes.Folder)
+                .withTypeText("Directory", true)
+                .withInsertHandler((insertionContext, lookupElement) ->
+                        AutoPopupController.getInstance(insertionContext.getProject())
+                                .scheduleAutoPopup(insertionContext.getEditor()));
+    }
 }
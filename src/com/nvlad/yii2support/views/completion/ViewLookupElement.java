@@ -2,8 +2,8 @@ package com.nvlad.yii2support.views.completion;
 
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementPresentation;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,17 +11,16 @@ import org.jetbrains.annotations.NotNull;
  * Created by NVlad on 28.12.2016.
  */
 class ViewLookupElement extends LookupElement {
-    final private PsiFile myFile;
+    final private VirtualFile myFile;
     final private String myName;
     final private String myTail;
 
-    ViewLookupElement(PsiFile psiFile, String insertText) {
-        myFile = psiFile;
-        VirtualFile file = psiFile.getVirtualFile();
+    ViewLookupElement(VirtualFile file, Project project, String insertText) {
+        myFile = file;
 
         myName = insertText;
         final String ext = file.getExtension();
-        final String defaultViewExtension = Yii2SupportSettings.getInstance(myFile.getProject()).defaultViewExtension;
+        final String defaultViewExtension = Yii2SupportSettings.getInstance(project).defaultViewExtension;
         if (ext != null && ext.equals(defaultViewExtension) && !insertText.endsWith("." + defaultViewExtension)) {
             myTail = "." + file.getExtension();
         } else {
@@ -37,7 +36,7 @@ class ViewLookupElement extends LookupElement {
 
     @Override
     public void renderElement(LookupElementPresentation presentation) {
-        presentation.setIcon(myFile.getIcon(0));
+        presentation.setIcon(myFile.getFileType().getIcon());
         presentation.setItemText(myName);
         presentation.setItemTextBold(true);
         if (myTail != null) {
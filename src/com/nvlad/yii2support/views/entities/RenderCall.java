@@ -0,0 +1,69 @@
+package com.nvlad.yii2support.views.entities;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Render call as stored in index: view literal as written in code and receiver known from caller file,
+ * it is resolved to view at query time without parsing caller file.
+ */
+public class RenderCall {
+    /**
+     * Receiver of call: "$this" of view file, "$this" of class, mailer "compose()" or any other receiver.
+     */
+    public enum Origin {
+        Unknown,
+        View,
+        Class,
+        Mailer,
+    }
+
+    /**
+     * Start offset of view string literal.
+     */
+    public int offset;
+    public String value;
+    /**
+     * Argument name => type of value passed by array when it is known locally, "?" otherwise.
+     */
+    public Map<String, String> arguments = Collections.emptyMap();
+    public Origin origin = Origin.Unknown;
+    /**
+     * FQN of class containing "$this->render()" call, empty for other origins.
+     */
+    public String className = "";
+
+    public RenderCall() {
+    }
+
+    public RenderCall(int offset, String value) {
+        this.offset = offset;
+        this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, value, arguments, origin, className);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof RenderCall)) {
+            return false;
+        }
+
+        RenderCall renderCall = (RenderCall) obj;
+        return this.offset == renderCall.offset
+                && StringUtil.equals(this.value, renderCall.value)
+                && this.arguments.equals(renderCall.arguments)
+                && this.origin == renderCall.origin
+                && this.className.equals(renderCall.className);
+    }
+}
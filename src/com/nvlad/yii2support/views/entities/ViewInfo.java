@@ -3,17 +3,19 @@ package com.nvlad.yii2support.views.entities;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.FileContent;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Objects;
 
 public class ViewInfo {
-    public String fileUrl;
+    public int fileId;
     public String application;
     public String theme;
-    public Collection<String> parameters;
+    public String[] parameters = ArrayUtil.EMPTY_STRING_ARRAY;
     private VirtualFile myVirtualFile;
 
     public ViewInfo() {
@@ -22,13 +24,13 @@ public class ViewInfo {
 
     public ViewInfo(FileContent inputData) {
         myVirtualFile = inputData.getFile();
-        fileUrl = myVirtualFile.getUrl();
+        fileId = FileBasedIndex.getFileId(myVirtualFile);
     }
 
     @Nullable
     public VirtualFile getVirtualFile() {
         if (myVirtualFile == null) {
-            myVirtualFile = VirtualFileManager.getInstance().findFileByUrl(fileUrl);
+            myVirtualFile = VirtualFileManager.getInstance().findFileById(fileId);
         }
 
         return myVirtualFile;
@@ -36,7 +38,7 @@ public class ViewInfo {
 
     @Override
     public int hashCode() {
-        return fileUrl.hashCode() + application.hashCode() + theme.hashCode() + parameters.hashCode();
+        return Objects.hash(fileId, application, theme) * 31 + Arrays.hashCode(parameters);
     }
 
     @Override
@@ -51,9 +53,9 @@ public class ViewInfo {
         }
 
         ViewInfo viewInfo = (ViewInfo) obj;
-        return StringUtil.equals(this.fileUrl, viewInfo.fileUrl)
+        return this.fileId == viewInfo.fileId
                 && StringUtil.equals(this.application, viewInfo.application)
                 && StringUtil.equals(this.theme, viewInfo.theme)
-                && Arrays.equals(new Collection[]{this.parameters}, new Collection[]{viewInfo.parameters});
+                && Arrays.equals(this.parameters, viewInfo.parameters);
     }
 }
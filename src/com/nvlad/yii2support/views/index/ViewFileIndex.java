@@ -1,29 +1,42 @@
 package com.nvlad.yii2support.views.index;
 
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.ShutDownTracker;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.Interner;
 import com.intellij.util.indexing.*;
 import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
 import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
 import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.io.PersistentStringEnumerator;
 import com.jetbrains.php.lang.PhpFileType;
 import com.jetbrains.smarty.SmartyFileType;
 import com.jetbrains.twig.TwigFileType;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import com.nvlad.yii2support.views.entities.ViewInfo;
 import com.nvlad.yii2support.views.entities.ViewResolve;
 import com.nvlad.yii2support.views.util.ViewUtil;
+import com.nvlad.yii2support.views.util.ViewVariableExtractor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
 
 public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
     public static final ID<String, ViewInfo> identity = ID.create("Yii2Support.ViewFileIndex");
+    private static final boolean TWIG_SUPPORTED = isTwigSupported();
     private final ViewDataIndexer myViewDataIndexer;
     private final ViewInfoDataExternalizer myViewInfoDataExternalizer;
     private final FileBasedIndex.InputFilter myInputFilter;
@@ -60,7 +73,7 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
 
     @Override
     public int getVersion() {
-        return 33;
+        return 38;
     }
 
     @NotNull
@@ -74,6 +87,87 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
         return true;
     }
 
+    /**
+     * Tracker for caches built from view index data.
+     */
+    @NotNull
+    public static ModificationTracker getModificationTracker(@NotNull Project project) {
+        return () -> FileBasedIndex.getInstance().getIndexModificationStamp(identity, project);
+    }
+
+    /**
+     * Types of view files: PHP, Smarty and Twig (Twig plugin is optional).
+     */
+    @NotNull
+    public static List<FileType> getViewFileTypes() {
+        final List<FileType> fileTypes = new ArrayList<>(3);
+        fileTypes.add(PhpFileType.INSTANCE);
+        fileTypes.add(SmartyFileType.INSTANCE);
+        if (TWIG_SUPPORTED) {
+            fileTypes.add(TwigFileType.INSTANCE);
+        }
+
+        return fileTypes;
+    }
+
+    public static boolean isViewFileType(@NotNull FileType fileType) {
+        if (fileType == PhpFileType.INSTANCE || fileType == SmartyFileType.INSTANCE) {
+            return true;
+        }
+
+        return TWIG_SUPPORTED && fileType == TwigFileType.INSTANCE;
+    }
+
+    private static boolean isTwigSupported() {
+        try {
+            return Class.forName("com.jetbrains.twig.TwigFileType") != null;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cheap path check of input filter: path contains "views" directory or directory of view path map pattern,
+     * e.g. "/themes/" for "@app/themes/*". Files passing it are not necessarily resolved as views.
+     */
+    public static boolean isViewPath(@NotNull String path, @NotNull Project project) {
+        if (path.contains("/views/")) {
+            return true;
+        }
+
+        for (String pattern : Yii2SupportSettings.getInstance(project).viewPathMap.keySet()) {
+            String directory = StringUtil.trimStart(pattern, "@app");
+            final int wildcardPosition = directory.indexOf('*');
+            if (wildcardPosition != -1) {
+                directory = directory.substring(0, wildcardPosition);
+            }
+            directory = StringUtil.trimEnd(directory, "/") + '/';
+            if (directory.length() > 1 && path.contains(directory)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Keys of view file: resolved key and alternative keys of module and widget views.
+     */
+    @NotNull
+    static Collection<String> getKeys(@NotNull ViewResolve resolve) {
+        final Collection<String> keys = new ArrayList<>(2);
+        keys.add(resolve.key);
+        if (resolve.key.startsWith("@app/modules/") && !resolve.relativePath.startsWith("/modules/")) {
+            keys.add("@app/views/modules" + resolve.key.substring(12));
+        }
+
+        if (resolve.key.startsWith("@app/widgets/") && !resolve.relativePath.startsWith("/widgets/")) {
+            keys.add("@app/views/widgets" + resolve.key.substring(12));
+        }
+
+        return keys;
+    }
+
     private static class ViewDataIndexer implements DataIndexer<String, ViewInfo, FileContent> {
         @Override
         @NotNull
@@ -86,38 +180,39 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
                 return Collections.emptyMap();
             }
 
-            final String absolutePath = inputData.getFile().getPath();
-
             Map<String, ViewInfo> map = new HashMap<>();
             ViewInfo viewInfo = new ViewInfo(inputData);
             viewInfo.application = resolve.application;
             viewInfo.theme = resolve.theme;
-            viewInfo.parameters = ViewUtil.getPhpViewVariables(inputData.getPsiFile());
-
-            map.put(resolve.key, viewInfo);
-            if (resolve.key.startsWith("@app/modules/") && !resolve.relativePath.startsWith("/modules/")) {
-                map.put("@app/views/modules" + resolve.key.substring(12), viewInfo);
-                //System.out.println("ViewDataIndexer.map > " + absolutePath + " => @app/views/modules" + resolve.key.substring(12));
+            if (inputData.getFileType() == PhpFileType.INSTANCE) {
+                viewInfo.parameters = ArrayUtil.toStringArray(ViewVariableExtractor.extract(inputData.getContentAsText(), project));
+                Arrays.sort(viewInfo.parameters);
             }
 
-            if (resolve.key.startsWith("@app/widgets/") && !resolve.relativePath.startsWith("/widgets/")) {
-                map.put("@app/views/widgets" + resolve.key.substring(12), viewInfo);
-                //System.out.println("ViewDataIndexer.map > " + absolutePath + " => @app/views/widgets" + resolve.key.substring(12));
+            for (String key : getKeys(resolve)) {
+                map.put(key, viewInfo);
             }
 
             return map;
         }
     }
 
+    /**
+     * Value layout: file id, application id, theme id, parameter count and sorted parameters.
+     * Numbers and string lengths are written as varints, parameters as UTF-8. Application and theme names
+     * repeat in every value, so they are written as ids of {@link NameEnumerator}.
+     */
     private static class ViewInfoDataExternalizer implements DataExternalizer<ViewInfo> {
+        private final Interner<String> myInterner = Interner.createWeakInterner();
+        // one storage per application, externalizers of index instances share it
+        private static final NameEnumerator NAMES = new NameEnumerator();
+
         @Override
         public void save(@NotNull DataOutput dataOutput, @NotNull ViewInfo viewInfo) throws IOException {
-            //System.out.println("ViewInfoDataExternalizer.save ==> " + viewInfo.fileUrl);
-
-            writeString(dataOutput, viewInfo.fileUrl);
-            writeString(dataOutput, viewInfo.application);
-            writeString(dataOutput, viewInfo.theme);
-            dataOutput.writeInt(viewInfo.parameters.size());
+            DataInputOutputUtil.writeINT(dataOutput, viewInfo.fileId);
+            DataInputOutputUtil.writeINT(dataOutput, NAMES.enumerate(viewInfo.application));
+            DataInputOutputUtil.writeINT(dataOutput, NAMES.enumerate(viewInfo.theme));
+            DataInputOutputUtil.writeINT(dataOutput, viewInfo.parameters.length);
             for (String parameter : viewInfo.parameters) {
                 writeString(dataOutput, parameter);
             }
@@ -127,23 +222,24 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
         @NotNull
         public ViewInfo read(@NotNull DataInput dataInput) throws IOException {
             ViewInfo viewInfo = new ViewInfo();
-            viewInfo.fileUrl = readString(dataInput);
-            viewInfo.application = readString(dataInput);
-            viewInfo.theme = readString(dataInput);
-
-            final int parameterCount = dataInput.readInt();
-            viewInfo.parameters = new HashSet<>(parameterCount);
-            for (int i = 0; i < parameterCount; i++) {
-                viewInfo.parameters.add(readString(dataInput));
+            viewInfo.fileId = DataInputOutputUtil.readINT(dataInput);
+            viewInfo.application = myInterner.intern(NAMES.valueOf(DataInputOutputUtil.readINT(dataInput)));
+            viewInfo.theme = myInterner.intern(NAMES.valueOf(DataInputOutputUtil.readINT(dataInput)));
+
+            final int parameterCount = DataInputOutputUtil.readINT(dataInput);
+            if (parameterCount > 0) {
+                viewInfo.parameters = new String[parameterCount];
+                for (int i = 0; i < parameterCount; i++) {
+                    viewInfo.parameters[i] = readString(dataInput);
+                }
             }
 
-            //System.out.println("ViewInfoDataExternalizer.read <== " + viewInfo.fileUrl);
             return viewInfo;
         }
 
         private void writeString(@NotNull DataOutput dataOutput, @NotNull String data) throws IOException {
-            byte[] bytes = data.getBytes();
-            dataOutput.writeInt(bytes.length);
+            byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+            DataInputOutputUtil.writeINT(dataOutput, bytes.length);
 
             if (bytes.length > 0) {
                 dataOutput.write(bytes);
@@ -152,7 +248,7 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
 
         @NotNull
         private String readString(@NotNull DataInput dataInput) throws IOException {
-            final int length = dataInput.readInt();
+            final int length = DataInputOutputUtil.readINT(dataInput);
             if (length == 0) {
                 return "";
             }
@@ -160,32 +256,72 @@ public class ViewFileIndex extends FileBasedIndexExtension<String, ViewInfo> {
             byte[] bytes = new byte[length];
             dataInput.readFully(bytes, 0, length);
 
-            return new String(bytes);
+            return myInterner.intern(new String(bytes, StandardCharsets.UTF_8));
         }
     }
 
-    private class ViewFileInputFilter implements FileBasedIndex.InputFilter {
-        private boolean twigSupported;
+    /**
+     * Id table of application and theme names owned by the index, stored next to index data.
+     * Storage which can not be opened (e.g. after crash) is recreated together with index data,
+     * unknown ids are reported as corrupted index data.
+     */
+    private static class NameEnumerator {
+        private PersistentStringEnumerator myEnumerator;
 
-        ViewFileInputFilter() {
-            try {
-                twigSupported = Class.forName("com.jetbrains.twig.TwigFileType") != null;
-            } catch (ClassNotFoundException e) {
-                twigSupported = false;
+        synchronized int enumerate(@Nullable String name) throws IOException {
+            return getEnumerator().enumerate(StringUtil.notNullize(name));
+        }
+
+        @NotNull
+        synchronized String valueOf(int id) throws IOException {
+            final String name = getEnumerator().valueOf(id);
+            if (name == null) {
+                throw new IOException("Unknown view name id: " + id);
             }
+
+            return name;
         }
 
-        @Override
-        public boolean acceptInput(@NotNull VirtualFile virtualFile) {
-            if (virtualFile.getFileType() == PhpFileType.INSTANCE) {
-                return true;
+        @NotNull
+        private PersistentStringEnumerator getEnumerator() throws IOException {
+            if (myEnumerator == null) {
+                final Path file = PathManager.getIndexRoot().resolve("yii2support.views").resolve("names");
+                try {
+                    myEnumerator = new PersistentStringEnumerator(file);
+                } catch (IOException e) {
+                    IOUtil.deleteAllFilesStartingWith(file);
+                    myEnumerator = new PersistentStringEnumerator(file);
+                    FileBasedIndex.getInstance().requestRebuild(identity);
+                }
+
+                final PersistentStringEnumerator enumerator = myEnumerator;
+                ShutDownTracker.getInstance().registerShutdownTask(() -> {
+                    try {
+                        enumerator.close();
+                    } catch (IOException ignored) {
+                    }
+                });
             }
 
-            if (virtualFile.getFileType() == SmartyFileType.INSTANCE) {
-                return true;
+            return myEnumerator;
+        }
+    }
+
+    /**
+     * Accepts view file types located in "views" directories or directories of view path map,
+     * the indexer skips files which are not resolved as views. Only path is checked here (see {@link #isViewPath}),
+     * as filter is called often.
+     */
+    private class ViewFileInputFilter implements FileBasedIndex.ProjectSpecificInputFilter {
+        @Override
+        public boolean acceptInput(@NotNull IndexedFile file) {
+            final VirtualFile virtualFile = file.getFile();
+            if (!isViewFileType(virtualFile.getFileType())) {
+                return false;
             }
 
-            return twigSupported && virtualFile.getFileType() == TwigFileType.INSTANCE;
+            final Project project = file.getProject();
+            return project == null || isViewPath(virtualFile.getPath(), project);
         }
     }
 }
@@ -0,0 +1,72 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * View keys depend on file path only, so renamed and moved views (and views inside renamed or moved directories)
+ * are re-indexed one by one instead of rebuilding the whole index. Files are re-indexed when old or new location
+ * is inside Yii root, index data is stored per file, so entries of old path are replaced.
+ */
+public class ViewFileMoveListener implements BulkFileListener {
+    private final Project myProject;
+
+    public ViewFileMoveListener(Project project) {
+        myProject = project;
+    }
+
+    @Override
+    public void after(@NotNull List<? extends VFileEvent> events) {
+        if (myProject.isDisposed()) {
+            return;
+        }
+
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(myProject);
+        for (VFileEvent event : events) {
+            final String oldPath;
+            if (event instanceof VFileMoveEvent) {
+                oldPath = ((VFileMoveEvent) event).getOldPath();
+            } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                oldPath = ((VFilePropertyChangeEvent) event).getOldPath();
+            } else {
+                continue;
+            }
+
+            // file moved out of Yii root still has entries of old path, re-indexing removes them
+            final VirtualFile file = event.getFile();
+            if (file != null && file.isValid() && (layout.getRoot(file) != null || layout.getRoot(oldPath) != null)) {
+                reindexViews(file);
+            }
+        }
+    }
+
+    private static void reindexViews(@NotNull VirtualFile root) {
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        if (!root.isDirectory()) {
+            fileBasedIndex.requestReindex(root);
+            return;
+        }
+
+        VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                if (!file.isDirectory() && ViewFileIndex.isViewFileType(file.getFileType())) {
+                    fileBasedIndex.requestReindex(file);
+                }
+
+                return true;
+            }
+        });
+    }
+}
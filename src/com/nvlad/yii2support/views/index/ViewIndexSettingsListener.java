@@ -0,0 +1,156 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import com.nvlad.yii2support.utils.Yii2SupportSettingsListener;
+import com.nvlad.yii2support.views.entities.ViewResolve;
+import com.nvlad.yii2support.views.util.ViewUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * View index depends on settings, so after settings change (or project opened with settings changed outside)
+ * files indexed with old settings are re-indexed. Settings hash of indexed data is stored in project properties.
+ */
+public class ViewIndexSettingsListener implements Yii2SupportSettingsListener {
+    private static final String SETTINGS_HASH_PROPERTY = "yii2support.views.index.settings.hash";
+    private static final int CHUNK_SIZE = 200;
+
+    private final Project myProject;
+
+    public ViewIndexSettingsListener(Project project) {
+        myProject = project;
+    }
+
+    @Override
+    public void settingsChanged() {
+        scheduleUpdate(myProject);
+    }
+
+    public static void scheduleUpdate(@NotNull Project project) {
+        DumbService.getInstance(project).runWhenSmart(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+
+            final String settingsHash = String.valueOf(Yii2SupportSettings.getInstance(project).getViewIndexSettingsHash());
+            final PropertiesComponent properties = PropertiesComponent.getInstance(project);
+            if (settingsHash.equals(properties.getValue(SETTINGS_HASH_PROPERTY))) {
+                return;
+            }
+
+            new Task.Backgroundable(project, "Updating Yii2 views index", true) {
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    final Set<VirtualFile> files = findOutdatedFiles(project, indicator);
+
+                    final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+                    for (VirtualFile file : files) {
+                        fileBasedIndex.requestReindex(file);
+                    }
+
+                    properties.setValue(SETTINGS_HASH_PROPERTY, settingsHash);
+                }
+            }.queue();
+        });
+    }
+
+    /**
+     * Files whose indexed view keys differ from keys resolved with current settings.
+     * Index data is read and files are resolved in chunks of short non-blocking read actions.
+     */
+    @NotNull
+    private static Set<VirtualFile> findOutdatedFiles(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+
+        final List<String> keys = read(project, indicator, () -> new ArrayList<>(fileBasedIndex.getAllKeys(ViewFileIndex.identity, project)));
+        final Map<VirtualFile, Set<String>> indexedEntries = new HashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            final Map<VirtualFile, Set<String>> chunkEntries = read(project, indicator, () -> {
+                final Map<VirtualFile, Set<String>> entries = new HashMap<>();
+                for (String key : chunk) {
+                    fileBasedIndex.processValues(ViewFileIndex.identity, key, null, (file, viewInfo) -> {
+                        entries.computeIfAbsent(file, k -> new HashSet<>()).add(entry(key, viewInfo.application, viewInfo.theme));
+                        return true;
+                    }, scope);
+                }
+
+                return entries;
+            });
+
+            for (Map.Entry<VirtualFile, Set<String>> entry : chunkEntries.entrySet()) {
+                indexedEntries.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).addAll(entry.getValue());
+            }
+        }
+
+        final List<VirtualFile> files = read(project, indicator, () -> {
+            final List<VirtualFile> result = new ArrayList<>();
+            for (FileType fileType : ViewFileIndex.getViewFileTypes()) {
+                result.addAll(FileTypeIndex.getFiles(fileType, scope));
+            }
+
+            return result;
+        });
+
+        final Set<VirtualFile> result = new HashSet<>();
+        for (List<VirtualFile> chunk : chunks(files)) {
+            final Map<VirtualFile, Set<String>> resolvedEntries = read(project, indicator, () -> {
+                final Map<VirtualFile, Set<String>> entries = new HashMap<>();
+                for (VirtualFile file : chunk) {
+                    final Set<String> fileEntries = new HashSet<>();
+                    final ViewResolve resolve = file.isValid() ? ViewUtil.resolveView(file, project) : null;
+                    if (resolve != null) {
+                        for (String key : ViewFileIndex.getKeys(resolve)) {
+                            fileEntries.add(entry(key, resolve.application, resolve.theme));
+                        }
+                    }
+                    entries.put(file, fileEntries);
+                }
+
+                return entries;
+            });
+
+            for (Map.Entry<VirtualFile, Set<String>> entry : resolvedEntries.entrySet()) {
+                final Set<String> indexed = indexedEntries.remove(entry.getKey());
+                if (!entry.getValue().equals(indexed == null ? Collections.emptySet() : indexed)) {
+                    result.add(entry.getKey());
+                }
+            }
+        }
+        result.addAll(indexedEntries.keySet());
+
+        return result;
+    }
+
+    private static <T> T read(@NotNull Project project, @NotNull ProgressIndicator indicator, @NotNull Callable<T> callable) {
+        return ReadAction.nonBlocking(callable).inSmartMode(project).wrapProgress(indicator).executeSynchronously();
+    }
+
+    @NotNull
+    private static <T> List<List<T>> chunks(@NotNull List<T> list) {
+        final List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += CHUNK_SIZE) {
+            result.add(list.subList(i, Math.min(i + CHUNK_SIZE, list.size())));
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private static String entry(@NotNull String key, String application, String theme) {
+        return key + '\n' + application + '\n' + theme;
+    }
+}
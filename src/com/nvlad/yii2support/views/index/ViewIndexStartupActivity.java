@@ -0,0 +1,15 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Re-indexes views when settings were changed while the project was closed.
+ */
+public class ViewIndexStartupActivity implements StartupActivity.DumbAware {
+    @Override
+    public void runActivity(@NotNull Project project) {
+        ViewIndexSettingsListener.scheduleUpdate(project);
+    }
+}
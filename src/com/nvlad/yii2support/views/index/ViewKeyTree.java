@@ -0,0 +1,103 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keys of {@link ViewFileIndex} split by "/" into a directory tree.
+ * Rebuilt lazily after the view index changes.
+ */
+public class ViewKeyTree {
+    private final Node myRoot = new Node();
+
+    private ViewKeyTree() {
+
+    }
+
+    @NotNull
+    public static ViewKeyTree getInstance(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+                CachedValueProvider.Result.create(build(project), ViewFileIndex.getModificationTracker(project)));
+    }
+
+    /**
+     * Returns entries located directly in directory, directory must be empty or end with "/".
+     */
+    @NotNull
+    public Map<String, Node> getChildren(@NotNull String directory) {
+        Node node = myRoot;
+        int start = 0;
+        int slashPosition;
+        while ((slashPosition = directory.indexOf('/', start)) != -1) {
+            node = node.getChild(directory.substring(start, slashPosition));
+            if (node == null) {
+                return Collections.emptyMap();
+            }
+
+            start = slashPosition + 1;
+        }
+
+        return node.children == null ? Collections.emptyMap() : Collections.unmodifiableMap(node.children);
+    }
+
+    @NotNull
+    private static ViewKeyTree build(@NotNull Project project) {
+        final ViewKeyTree tree = new ViewKeyTree();
+        FileBasedIndex.getInstance().processAllKeys(ViewFileIndex.identity, key -> {
+            tree.add(key);
+            return true;
+        }, GlobalSearchScope.projectScope(project), null);
+
+        return tree;
+    }
+
+    private void add(@NotNull String key) {
+        Node node = myRoot;
+        int start = 0;
+        int slashPosition;
+        while ((slashPosition = key.indexOf('/', start)) != -1) {
+            node = node.getOrCreateChild(key.substring(start, slashPosition));
+            start = slashPosition + 1;
+        }
+
+        if (start < key.length()) {
+            node.getOrCreateChild(key.substring(start)).view = true;
+        }
+    }
+
+    public static class Node {
+        private Map<String, Node> children;
+        private boolean view;
+
+        public boolean isView() {
+            return view;
+        }
+
+        public boolean isDirectory() {
+            return children != null;
+        }
+
+        @Nullable
+        private Node getChild(@NotNull String name) {
+            return children == null ? null : children.get(name);
+        }
+
+        @NotNull
+        private Node getOrCreateChild(@NotNull String name) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+
+            return children.computeIfAbsent(name, k -> new Node());
+        }
+    }
+}
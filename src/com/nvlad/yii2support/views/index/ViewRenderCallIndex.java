@@ -0,0 +1,287 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.parser.PhpElementTypes;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.views.entities.RenderCall;
+import com.nvlad.yii2support.views.util.ViewUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Reverse view index: view name => "render" and mailer "compose" calls with that view literal in the file.
+ * Calls are stored as written on any receiver together with receiver known from the file itself, they are resolved
+ * to views at query time (see {@link com.nvlad.yii2support.views.util.RenderUtil#processRenderCalls}),
+ * so index does not depend on settings and callers are not parsed on queries.
+ */
+public class ViewRenderCallIndex extends FileBasedIndexExtension<String, List<RenderCall>> {
+    public static final ID<String, List<RenderCall>> identity = ID.create("Yii2Support.ViewRenderCallIndex");
+    /**
+     * Argument signature of values without local type.
+     */
+    public static final String UNKNOWN_TYPE = "?";
+    /**
+     * Separator of types in argument signature, e.g. "#C\\app\\models\\User|null".
+     */
+    public static final char TYPE_SEPARATOR = '|';
+    private static final String[] MAILER_VIEW_KEYS = {"html", "text"};
+    private final RenderCallDataIndexer myRenderCallDataIndexer;
+    private final RenderCallDataExternalizer myRenderCallDataExternalizer;
+
+    public ViewRenderCallIndex() {
+        myRenderCallDataIndexer = new RenderCallDataIndexer();
+        myRenderCallDataExternalizer = new RenderCallDataExternalizer();
+    }
+
+    @NotNull
+    @Override
+    public ID<String, List<RenderCall>> getName() {
+        return identity;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<RenderCall>, FileContent> getIndexer() {
+        return myRenderCallDataIndexer;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<RenderCall>> getValueExternalizer() {
+        return myRenderCallDataExternalizer;
+    }
+
+    @Override
+    public int getVersion() {
+        return 7;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return virtualFile -> virtualFile.getFileType() == PhpFileType.INSTANCE;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Index key of view: file name without extensions, "site/index.tpl.php" => "index".
+     */
+    @NotNull
+    public static String getViewName(@NotNull String path) {
+        final int start = path.lastIndexOf('/') + 1;
+        final int end = path.indexOf('.', start);
+        return end == -1 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static class RenderCallDataIndexer implements DataIndexer<String, List<RenderCall>, FileContent> {
+        @Override
+        @NotNull
+        public Map<String, List<RenderCall>> map(@NotNull final FileContent inputData) {
+            final CharSequence content = inputData.getContentAsText();
+            if (!StringUtil.contains(content, "render") && !StringUtil.contains(content, "compose")) {
+                return Collections.emptyMap();
+            }
+
+            final Map<String, List<RenderCall>> map = new HashMap<>();
+            for (MethodReference reference : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), MethodReference.class)) {
+                final boolean compose = "compose".equals(reference.getName());
+                if (!compose && !ArrayUtil.contains(reference.getName(), ViewUtil.renderMethods)) {
+                    continue;
+                }
+
+                final PsiElement[] parameters = reference.getParameters();
+                if (parameters.length == 0) {
+                    continue;
+                }
+
+                final RenderCall template = new RenderCall();
+                if (parameters.length > 1 && parameters[1] instanceof ArrayCreationExpression) {
+                    template.arguments = getArgumentSignatures((ArrayCreationExpression) parameters[1]);
+                }
+                setOrigin(template, reference, compose);
+
+                if (parameters[0] instanceof StringLiteralExpression) {
+                    addRenderCall(map, (StringLiteralExpression) parameters[0], template);
+                } else if (compose && parameters[0] instanceof ArrayCreationExpression) {
+                    // $mailer->compose(['html' => 'contact-html', 'text' => 'contact-text'])
+                    for (ArrayHashElement item : ((ArrayCreationExpression) parameters[0]).getHashElements()) {
+                        final PhpPsiElement key = item.getKey();
+                        if (key instanceof StringLiteralExpression && item.getValue() instanceof StringLiteralExpression
+                                && ArrayUtil.contains(((StringLiteralExpression) key).getContents(), MAILER_VIEW_KEYS)) {
+                            addRenderCall(map, (StringLiteralExpression) item.getValue(), template);
+                        }
+                    }
+                }
+            }
+
+            return map;
+        }
+
+        /**
+         * Receiver known without resolving: "$this" outside of classes is view, "$this" in class is that class
+         * (its role is checked at query time), "compose()" is called on mailer.
+         */
+        private static void setOrigin(@NotNull RenderCall renderCall, @NotNull MethodReference reference, boolean compose) {
+            if (compose) {
+                renderCall.origin = RenderCall.Origin.Mailer;
+                return;
+            }
+
+            final PhpExpression classReference = reference.getClassReference();
+            if (!(classReference instanceof Variable) || !"this".equals(classReference.getName())) {
+                return;
+            }
+
+            final PhpClass phpClass = PsiTreeUtil.getParentOfType(reference, PhpClass.class);
+            if (phpClass == null) {
+                renderCall.origin = RenderCall.Origin.View;
+            } else if (!phpClass.isAnonymous()) {
+                renderCall.origin = RenderCall.Origin.Class;
+                renderCall.className = phpClass.getFQN();
+            }
+        }
+
+        private static void addRenderCall(@NotNull Map<String, List<RenderCall>> map, @NotNull StringLiteralExpression literal, @NotNull RenderCall template) {
+            final String value = literal.getContents();
+            if (!literal.isSingleQuote() && value.indexOf('$') != -1) {
+                return;
+            }
+
+            final String viewName = getViewName(value);
+            if (viewName.isEmpty()) {
+                return;
+            }
+
+            final RenderCall renderCall = new RenderCall(literal.getTextRange().getStartOffset(), value);
+            renderCall.arguments = template.arguments;
+            renderCall.origin = template.origin;
+            renderCall.className = template.className;
+            map.computeIfAbsent(viewName, k -> new ArrayList<>()).add(renderCall);
+        }
+
+        /**
+         * Argument types known from the caller file, without resolving references: literal types
+         * and local type signatures ("#C", "#M" ...) of variables and calls, completed at query time.
+         */
+        @NotNull
+        private static Map<String, String> getArgumentSignatures(@NotNull ArrayCreationExpression array) {
+            final Map<String, String> result = new LinkedHashMap<>();
+            for (ArrayHashElement item : array.getHashElements()) {
+                final PhpPsiElement key = item.getKey();
+                final PhpPsiElement value = item.getValue();
+                if (key instanceof StringLiteralExpression && value != null) {
+                    result.put(((StringLiteralExpression) key).getContents(), getLocalType(value));
+                }
+            }
+
+            return result.isEmpty() ? Collections.emptyMap() : result;
+        }
+
+        @NotNull
+        private static String getLocalType(@NotNull PhpPsiElement value) {
+            if (value instanceof StringLiteralExpression) {
+                return "string";
+            }
+            if (value instanceof ArrayCreationExpression) {
+                return "array";
+            }
+            if (value.getNode().getElementType() == PhpElementTypes.NUMBER) {
+                return StringUtil.containsAnyChar(value.getText(), ".eE") && !StringUtil.startsWithIgnoreCase(value.getText(), "0x") ? "float" : "int";
+            }
+            if (value instanceof ConstantReference) {
+                final String name = StringUtil.toLowerCase(StringUtil.notNullize(value.getName()));
+                if (name.equals("true") || name.equals("false")) {
+                    return "bool";
+                }
+                if (name.equals("null")) {
+                    return "null";
+                }
+            }
+            if (value instanceof NewExpression) {
+                final ClassReference classReference = ((NewExpression) value).getClassReference();
+                final String name = classReference == null ? null : classReference.getName();
+                if (name != null && !name.equals("self") && !name.equals("static") && !name.equals("parent")) {
+                    final String fqn = classReference.getFQN();
+                    if (fqn != null) {
+                        return fqn;
+                    }
+                }
+            }
+            if (value instanceof PhpTypedElement) {
+                final Set<String> types = ((PhpTypedElement) value).getType().getTypes();
+                if (!types.isEmpty()) {
+                    return StringUtil.join(types, String.valueOf(TYPE_SEPARATOR));
+                }
+            }
+
+            return UNKNOWN_TYPE;
+        }
+    }
+
+    private static class RenderCallDataExternalizer implements DataExternalizer<List<RenderCall>> {
+        private static final RenderCall.Origin[] ORIGINS = RenderCall.Origin.values();
+
+        @Override
+        public void save(@NotNull DataOutput dataOutput, List<RenderCall> renderCalls) throws IOException {
+            DataInputOutputUtil.writeINT(dataOutput, renderCalls.size());
+            for (RenderCall renderCall : renderCalls) {
+                DataInputOutputUtil.writeINT(dataOutput, renderCall.offset);
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, renderCall.value);
+                DataInputOutputUtil.writeINT(dataOutput, renderCall.arguments.size());
+                for (Map.Entry<String, String> argument : renderCall.arguments.entrySet()) {
+                    EnumeratorStringDescriptor.INSTANCE.save(dataOutput, argument.getKey());
+                    EnumeratorStringDescriptor.INSTANCE.save(dataOutput, argument.getValue());
+                }
+                dataOutput.writeByte(renderCall.origin.ordinal());
+                EnumeratorStringDescriptor.INSTANCE.save(dataOutput, renderCall.className);
+            }
+        }
+
+        @Override
+        public List<RenderCall> read(@NotNull DataInput dataInput) throws IOException {
+            final int count = DataInputOutputUtil.readINT(dataInput);
+            final List<RenderCall> renderCalls = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RenderCall renderCall = new RenderCall();
+                renderCall.offset = DataInputOutputUtil.readINT(dataInput);
+                renderCall.value = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                final int argumentCount = DataInputOutputUtil.readINT(dataInput);
+                if (argumentCount > 0) {
+                    renderCall.arguments = new LinkedHashMap<>(argumentCount);
+                    for (int j = 0; j < argumentCount; j++) {
+                        final String name = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                        renderCall.arguments.put(name, EnumeratorStringDescriptor.INSTANCE.read(dataInput));
+                    }
+                }
+                renderCall.origin = ORIGINS[dataInput.readByte()];
+                renderCall.className = EnumeratorStringDescriptor.INSTANCE.read(dataInput);
+                renderCalls.add(renderCall);
+            }
+
+            return renderCalls;
+        }
+    }
+}
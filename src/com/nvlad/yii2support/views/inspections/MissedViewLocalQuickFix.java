@@ -19,7 +19,6 @@ import com.jetbrains.php.lang.psi.resolve.types.PhpType;
 import com.jetbrains.php.templates.PhpFileTemplateUtil;
 import com.jetbrains.smarty.SmartyFileType;
 import com.jetbrains.twig.TwigFileType;
-import com.nvlad.yii2support.common.YiiApplicationUtils;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -32,12 +31,14 @@ import java.util.*;
  */
 class MissedViewLocalQuickFix implements LocalQuickFix {
     final private String myName;
+    final private String myRootUrl;
     final private String myPath;
     final private Map<String, PhpType> myParameters;
     final private Logger LOGGER = Logger.getInstance(MissedViewLocalQuickFix.class);
 
-    MissedViewLocalQuickFix(String name, String path, Map<String, PhpType> parameters) {
+    MissedViewLocalQuickFix(String name, String rootUrl, String path, Map<String, PhpType> parameters) {
         myName = name;
+        myRootUrl = rootUrl;
         myPath = path;
         myParameters = parameters;
     }
@@ -58,15 +59,14 @@ class MissedViewLocalQuickFix implements LocalQuickFix {
 
     @Override
     public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-        final String projectUrl = YiiApplicationUtils.getYiiRootUrl(project);
         final VirtualFileManager virtualFileManager = VirtualFileManager.getInstance();
-        VirtualFile virtualFile = virtualFileManager.findFileByUrl(projectUrl + myPath);
+        VirtualFile virtualFile = virtualFileManager.findFileByUrl(myRootUrl + myPath);
         if (virtualFile != null) {
-            System.out.println("File " + projectUrl + myPath + " already exist.");
+            System.out.println("File " + myRootUrl + myPath + " already exist.");
             return;
         }
 
-        VirtualFile yiiRoot = YiiApplicationUtils.getYiiRootVirtualFile(project);
+        VirtualFile yiiRoot = virtualFileManager.findFileByUrl(myRootUrl);
         if (yiiRoot == null) {
             return;
         }
@@ -0,0 +1,199 @@
+package com.nvlad.yii2support.views.inspections;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefElement;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.NonBlockingReadAction;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.views.entities.RenderCall;
+import com.nvlad.yii2support.views.entities.ViewInfo;
+import com.nvlad.yii2support.views.entities.ViewResolve;
+import com.nvlad.yii2support.views.index.ViewFileIndex;
+import com.nvlad.yii2support.views.index.ViewRenderCallIndex;
+import com.nvlad.yii2support.views.util.RenderUtil;
+import com.nvlad.yii2support.views.util.ViewUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Batch inspection comparing view index with render call index: reports views never rendered
+ * and render calls targeting views which do not exist. Render calls are resolved from render call index data,
+ * one short non-blocking read action per caller file.
+ */
+public class UnusedViewInspection extends GlobalInspectionTool {
+    private static final Pattern LAYOUT_PATTERN = Pattern.compile("^@app/((modules/[\\w-]+/)*views|views/modules/[\\w-]+)/layouts/[^/]+$");
+
+    @NotNull
+    @Override
+    public String getShortName() {
+        return "UnusedViewInspection";
+    }
+
+    @Override
+    public void runInspection(@NotNull AnalysisScope scope,
+                              @NotNull InspectionManager manager,
+                              @NotNull GlobalInspectionContext globalContext,
+                              @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        final Project project = globalContext.getProject();
+        final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final GlobalSearchScope searchScope = GlobalSearchScope.projectScope(project);
+
+        final Map<String, List<Pair<VirtualFile, ViewInfo>>> views = new ConcurrentHashMap<>();
+        final List<String> viewKeys = new ArrayList<>(read(project, indicator, () -> fileBasedIndex.getAllKeys(ViewFileIndex.identity, project)));
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(viewKeys, indicator, key -> {
+            final List<Pair<VirtualFile, ViewInfo>> keyViews = read(project, indicator, () -> {
+                final List<Pair<VirtualFile, ViewInfo>> result = new ArrayList<>();
+                fileBasedIndex.processValues(ViewFileIndex.identity, key, null, (file, viewInfo) -> {
+                    result.add(Pair.create(file, viewInfo));
+                    return true;
+                }, searchScope);
+
+                return result;
+            });
+            if (!keyViews.isEmpty()) {
+                views.put(key, keyViews);
+            }
+
+            return true;
+        });
+
+        // caller files are listed by keys, then each file is resolved from its index data in own read action
+        final Set<VirtualFile> callerFiles = ConcurrentHashMap.newKeySet();
+        final List<String> renderKeys = new ArrayList<>(read(project, indicator, () -> fileBasedIndex.getAllKeys(ViewRenderCallIndex.identity, project)));
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(renderKeys, indicator, key -> {
+            callerFiles.addAll(read(project, indicator, () -> fileBasedIndex.getContainingFiles(ViewRenderCallIndex.identity, key, searchScope)));
+            return true;
+        });
+
+        final Set<VirtualFile> renderedViews = ConcurrentHashMap.newKeySet();
+        final Queue<Pair<VirtualFile, RenderCall>> deadRenderCalls = new ConcurrentLinkedQueue<>();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(new ArrayList<>(callerFiles), indicator, file -> {
+            final Pair<List<VirtualFile>, List<RenderCall>> result = read(project, indicator, () -> resolveRenderCalls(project, file, views, scope));
+            renderedViews.addAll(result.first);
+            for (RenderCall renderCall : result.second) {
+                deadRenderCalls.add(Pair.create(file, renderCall));
+            }
+
+            return true;
+        });
+
+        final PsiManager psiManager = PsiManager.getInstance(project);
+        final Set<VirtualFile> unusedViews = new LinkedHashSet<>();
+        ReadAction.run(() -> {
+            for (Map.Entry<String, List<Pair<VirtualFile, ViewInfo>>> entry : views.entrySet()) {
+                if (isLayout(entry.getKey())) {
+                    continue;
+                }
+
+                for (Pair<VirtualFile, ViewInfo> view : entry.getValue()) {
+                    if (!renderedViews.contains(view.first) && scope.contains(view.first)) {
+                        unusedViews.add(view.first);
+                    }
+                }
+            }
+        });
+
+        ReadAction.run(() -> {
+            for (VirtualFile file : unusedViews) {
+                final PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+                final RefElement refElement = psiFile == null ? null : globalContext.getRefManager().getReference(psiFile);
+                if (refElement != null) {
+                    final ProblemDescriptor descriptor = manager.createProblemDescriptor(psiFile,
+                            "View is never rendered", (LocalQuickFix) null, ProblemHighlightType.LIKE_UNUSED_SYMBOL, false);
+                    problemDescriptionsProcessor.addProblemElement(refElement, descriptor);
+                }
+            }
+
+            for (Pair<VirtualFile, RenderCall> deadRenderCall : deadRenderCalls) {
+                final PsiFile psiFile = deadRenderCall.first.isValid() ? psiManager.findFile(deadRenderCall.first) : null;
+                final PsiElement element = psiFile == null ? null : psiFile.findElementAt(deadRenderCall.second.offset);
+                final RefElement refElement = element == null ? null : globalContext.getRefManager().getReference(psiFile);
+                if (refElement != null) {
+                    final ProblemDescriptor descriptor = manager.createProblemDescriptor(element.getParent(),
+                            "Rendered view not found", (LocalQuickFix) null, ProblemHighlightType.GENERIC_ERROR_OR_WARNING, false);
+                    problemDescriptionsProcessor.addProblemElement(refElement, descriptor);
+                }
+            }
+        });
+    }
+
+    /**
+     * Views rendered by calls of caller file and calls of file targeting views which do not exist.
+     */
+    @NotNull
+    private static Pair<List<VirtualFile>, List<RenderCall>> resolveRenderCalls(@NotNull Project project,
+                                                                              @NotNull VirtualFile file,
+                                                                              @NotNull Map<String, List<Pair<VirtualFile, ViewInfo>>> views,
+                                                                              @NotNull AnalysisScope scope) {
+        final List<VirtualFile> renderedViews = new ArrayList<>();
+        final List<RenderCall> deadRenderCalls = new ArrayList<>();
+        if (!file.isValid()) {
+            return Pair.create(renderedViews, deadRenderCalls);
+        }
+
+        for (List<RenderCall> renderCalls : FileBasedIndex.getInstance().getFileData(ViewRenderCallIndex.identity, file, project).values()) {
+            for (RenderCall renderCall : renderCalls) {
+                final ViewResolve resolve = RenderUtil.resolveRenderCall(project, file, renderCall);
+                if (resolve == null) {
+                    continue;
+                }
+
+                final String viewKey = ViewUtil.appendDefaultExtension(resolve.key, project);
+                boolean found = false;
+                for (Pair<VirtualFile, ViewInfo> view : views.getOrDefault(viewKey, Collections.emptyList())) {
+                    if (RenderUtil.isRenderCallOf(resolve, view.second)) {
+                        renderedViews.add(view.first);
+                        found = true;
+                    }
+                }
+
+                if (!found && isStaticRenderCall(renderCall, resolve) && scope.contains(file)) {
+                    deadRenderCalls.add(renderCall);
+                }
+            }
+        }
+
+        return Pair.create(renderedViews, deadRenderCalls);
+    }
+
+    /**
+     * Short cancellable read action, restarted when write action comes.
+     */
+    private static <T> T read(@NotNull Project project, @Nullable ProgressIndicator indicator, @NotNull Callable<T> callable) {
+        final NonBlockingReadAction<T> action = ReadAction.nonBlocking(callable).inSmartMode(project);
+        return (indicator == null ? action : action.wrapProgress(indicator)).executeSynchronously();
+    }
+
+    /**
+     * Render call resolved relative to its controller, view or widget. Calls through aliases and mailers
+     * may target views outside of view index, so they are never reported as not found.
+     */
+    private static boolean isStaticRenderCall(@NotNull RenderCall renderCall, @NotNull ViewResolve resolve) {
+        return resolve.from != null && !renderCall.value.startsWith("@");
+    }
+
+    /**
+     * Views of application or module layout path ("views/layouts"), they are rendered by layout name.
+     */
+    private static boolean isLayout(@NotNull String key) {
+        return LAYOUT_PATTERN.matcher(key).matches();
+    }
+}
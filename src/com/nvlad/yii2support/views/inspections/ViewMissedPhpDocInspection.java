@@ -3,15 +3,13 @@ package com.nvlad.yii2support.views.inspections;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.lang.documentation.phpdoc.psi.PhpDocVariable;
 import com.jetbrains.php.lang.inspections.PhpInspection;
 import com.jetbrains.php.lang.psi.PhpFile;
-import com.jetbrains.php.lang.psi.elements.MethodReference;
 import com.jetbrains.php.lang.psi.resolve.types.PhpType;
 import com.jetbrains.php.lang.psi.visitors.PhpElementVisitor;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import com.nvlad.yii2support.views.entities.ViewResolve;
 import com.nvlad.yii2support.views.util.RenderUtil;
 import com.nvlad.yii2support.views.util.ViewUtil;
@@ -23,10 +21,6 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ViewMissedPhpDocInspection extends PhpInspection {
-    public ViewMissedPhpDocInspection() {
-        super();
-        System.out.println("test");
-    }
     @NotNull
     @Override
     public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder problemsHolder, boolean b) {
@@ -34,7 +28,6 @@ public class ViewMissedPhpDocInspection extends PhpInspection {
         return new PhpElementVisitor() {
             @Override
             public void visitPhpFile(PhpFile PhpFile) {
-                System.out.println("test");
                 Project project = PhpFile.getProject();
                 ViewResolve resolve = ViewUtil.resolveView(PhpFile.getVirtualFile(), project);
                 if (resolve == null) {
@@ -65,30 +58,24 @@ public class ViewMissedPhpDocInspection extends PhpInspection {
             }
 
             private Map<String, String> getVariables(PhpFile phpFile) {
-                Collection<PsiReference> references = ReferencesSearch.search(phpFile).findAll();
-                Map<String, String> result = new HashMap<>();
-                Map<String, PhpType> viewArgumentCollection = new LinkedHashMap<>();
-                for (PsiReference reference : references) {
-                    MethodReference methodReference = PsiTreeUtil.getParentOfType(reference.getElement(), MethodReference.class);
-                    if (methodReference == null) {
-                        continue;
+                final Project project = phpFile.getProject();
+                final Map<String, PhpType> viewArguments = new LinkedHashMap<>();
+                RenderUtil.processRenderCalls(phpFile.getVirtualFile(), project, (file, renderCall) -> {
+                    if (viewArguments.isEmpty()) {
+                        viewArguments.put("this", new PhpType().add(Yii2SupportSettings.getInstance(project).defaultViewClass));
                     }
 
-                    Map<String, PhpType> params = RenderUtil.getViewArguments(methodReference);
-                    for (Map.Entry<String, PhpType> entry : params.entrySet()) {
-                        if (viewArgumentCollection.containsKey(entry.getKey())) {
-                            PhpType.PhpTypeBuilder typeBuilder = new PhpType.PhpTypeBuilder();
-                            typeBuilder.add(viewArgumentCollection.get(entry.getKey()));
-                            typeBuilder.add(entry.getValue());
-                            viewArgumentCollection.replace(entry.getKey(), typeBuilder.build());
-                        } else {
-                            viewArgumentCollection.put(entry.getKey(), entry.getValue());
-                        }
+                    for (String name : renderCall.arguments.keySet()) {
+                        viewArguments.computeIfAbsent(name, k -> new PhpType())
+                                .add(RenderUtil.getArgumentType(renderCall, name));
                     }
-                }
 
-                for (String key : viewArgumentCollection.keySet()) {
-                    result.put(key, viewArgumentCollection.get(key).toString());
+                    return true;
+                });
+
+                Map<String, String> result = new HashMap<>();
+                for (Map.Entry<String, PhpType> entry : viewArguments.entrySet()) {
+                    result.put(entry.getKey(), entry.getValue().global(project).toString());
                 }
 
                 return result;
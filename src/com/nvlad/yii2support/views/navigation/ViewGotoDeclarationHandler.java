@@ -7,9 +7,10 @@ import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.indexing.FileBasedIndex;
+import com.nvlad.yii2support.common.FileUtil;
 import com.nvlad.yii2support.common.PhpUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
 import com.nvlad.yii2support.views.entities.ViewInfo;
 import com.nvlad.yii2support.views.entities.ViewResolve;
@@ -41,7 +42,7 @@ public class ViewGotoDeclarationHandler implements GotoDeclarationHandler {
             }
 
             final Collection<ViewInfo> views = FileBasedIndex.getInstance()
-                    .getValues(ViewFileIndex.identity, key, GlobalSearchScope.projectScope(project));
+                    .getValues(ViewFileIndex.identity, key, YiiApplicationLayout.getInstance(project).getSearchScope(FileUtil.getVirtualFile(psiElement.getContainingFile())));
 
             if (views.size() > 0) {
                 boolean localViewSearch = false;
@@ -5,13 +5,11 @@ import com.intellij.psi.PsiReference;
 import com.intellij.refactoring.RefactoringSettings;
 import com.intellij.refactoring.listeners.RefactoringElementListener;
 import com.intellij.refactoring.rename.RenamePsiFileProcessor;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.lang.psi.PhpFile;
 import com.jetbrains.php.lang.psi.PhpPsiElementFactory;
 import com.jetbrains.php.lang.psi.elements.ParameterList;
 import com.jetbrains.php.lang.psi.elements.StringLiteralExpression;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
-import com.nvlad.yii2support.views.index.ViewFileIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -65,8 +63,6 @@ public class RenameViewProcessor extends RenamePsiFileProcessor {
                     element.replace(newValue);
                 }
             }
-
-            FileBasedIndex.getInstance().requestRebuild(ViewFileIndex.identity);
         };
     }
 }
@@ -2,10 +2,7 @@ package com.nvlad.yii2support.views.settings;
 
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
-import com.nvlad.yii2support.views.index.ViewFileIndex;
-import com.nvlad.yii2support.views.util.ViewUtil;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
@@ -71,8 +68,7 @@ public class ViewSettings implements Configurable {
             }
             mySettings.defaultViewExtension = defaultViewFileExt.getModel().getSelectedItem().toString();
 
-            ViewUtil.resetPathMapPatterns(myProject);
-            FileBasedIndex.getInstance().requestRebuild(ViewFileIndex.identity);
+            mySettings.settingsChanged();
         }
         mySettings.defaultViewClass = defaultViewClass.getText();
     }
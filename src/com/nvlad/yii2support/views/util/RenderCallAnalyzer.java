@@ -0,0 +1,171 @@
+package com.nvlad.yii2support.views.util;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.FileUtil;
+import com.nvlad.yii2support.common.PhpUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
+import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import com.nvlad.yii2support.views.entities.ViewInfo;
+import com.nvlad.yii2support.views.entities.ViewResolve;
+import com.nvlad.yii2support.views.entities.ViewResolveFrom;
+import com.nvlad.yii2support.views.index.ViewFileIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Analysis of all "render" calls of the file, shared by view inspections.
+ * Cached on file until PSI, view index or settings change.
+ */
+public class RenderCallAnalyzer {
+    public static class RenderCallInfo {
+        public final MethodReference reference;
+        public final ViewResolve resolve;
+        public final String key;
+        public final boolean localViewSearch;
+        /**
+         * Views of the caller application.
+         */
+        public final List<ViewInfo> views = new ArrayList<>();
+        /**
+         * Views of the caller application and theme (for local view search), used to check view existence.
+         */
+        public final List<ViewInfo> themeViews = new ArrayList<>();
+        /**
+         * Parameters used by all found views.
+         */
+        public final Set<String> viewParameters = new HashSet<>();
+        /**
+         * Parameters passed to view by array or compact(), null when these can not be detected.
+         */
+        @Nullable
+        public final Set<String> passedParameters;
+
+        private RenderCallInfo(MethodReference reference, ViewResolve resolve, String key, boolean localViewSearch) {
+            this.reference = reference;
+            this.resolve = resolve;
+            this.key = key;
+            this.localViewSearch = localViewSearch;
+            this.passedParameters = getPassedParameters(reference);
+        }
+
+        @NotNull
+        public Set<String> getMissedParameters() {
+            final Set<String> result = new HashSet<>(viewParameters);
+            if (passedParameters != null) {
+                result.removeAll(passedParameters);
+            }
+
+            return result;
+        }
+    }
+
+    @Nullable
+    public static RenderCallInfo getRenderCall(@NotNull MethodReference reference) {
+        final PsiFile file = reference.getContainingFile();
+        if (file == null) {
+            return null;
+        }
+
+        return getRenderCalls(file).get(reference);
+    }
+
+    @NotNull
+    public static Map<MethodReference, RenderCallInfo> getRenderCalls(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> {
+            final Project project = file.getProject();
+            return CachedValueProvider.Result.create(
+                    analyze(file),
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    ViewFileIndex.getModificationTracker(project),
+                    Yii2SupportSettings.getInstance(project).getModificationTracker()
+            );
+        });
+    }
+
+    @NotNull
+    private static Map<MethodReference, RenderCallInfo> analyze(@NotNull PsiFile file) {
+        final Map<MethodReference, RenderCallInfo> result = new HashMap<>();
+        final Project project = file.getProject();
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final GlobalSearchScope scope = YiiApplicationLayout.getInstance(project).getSearchScope(FileUtil.getVirtualFile(file));
+        for (MethodReference reference : PsiTreeUtil.findChildrenOfType(file, MethodReference.class)) {
+            if (!ArrayUtil.contains(reference.getName(), ViewUtil.renderMethods)) {
+                continue;
+            }
+
+            final PsiElement[] parameters = reference.getParameters();
+            if (parameters.length == 0 || !ViewUtil.isValidRenderMethod(reference)) {
+                continue;
+            }
+
+            final ViewResolve resolve = ViewUtil.resolveView(parameters[0]);
+            if (resolve == null) {
+                continue;
+            }
+
+            boolean localViewSearch = false;
+            if (resolve.from == ViewResolveFrom.View) {
+                final String value = PhpUtil.getValue(parameters[0]);
+                localViewSearch = !value.startsWith("@") && !value.startsWith("//");
+            }
+
+            final String key = ViewUtil.appendDefaultExtension(resolve.key, project);
+            final RenderCallInfo info = new RenderCallInfo(reference, resolve, key, localViewSearch);
+            for (ViewInfo view : fileBasedIndex.getValues(ViewFileIndex.identity, key, scope)) {
+                if (!resolve.application.equals(view.application)) {
+                    continue;
+                }
+
+                info.views.add(view);
+                Collections.addAll(info.viewParameters, view.parameters);
+                if (!localViewSearch || resolve.theme.equals(view.theme)) {
+                    info.themeViews.add(view);
+                }
+            }
+
+            result.put(reference, info);
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private static Set<String> getPassedParameters(@NotNull MethodReference reference) {
+        final PsiElement[] parameters = reference.getParameters();
+        if (parameters.length < 2) {
+            return Collections.emptySet();
+        }
+
+        if (parameters[1] instanceof ArrayCreationExpression) {
+            return new HashSet<>(PhpUtil.getArrayKeys((ArrayCreationExpression) parameters[1]));
+        }
+
+        if (parameters[1] instanceof FunctionReference) {
+            final FunctionReference function = (FunctionReference) parameters[1];
+            if ("compact".equals(function.getName())) {
+                final Set<String> result = new HashSet<>();
+                for (PsiElement element : function.getParameters()) {
+                    if (element instanceof StringLiteralExpression) {
+                        result.add(((StringLiteralExpression) element).getContents());
+                    }
+                }
+
+                return result;
+            }
+        }
+
+        return null;
+    }
+}
@@ -1,13 +1,30 @@
 package com.nvlad.yii2support.views.util;
 
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PairProcessor;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.jetbrains.php.lang.psi.resolve.types.PhpType;
+import com.nvlad.yii2support.common.FileUtil;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import com.nvlad.yii2support.views.entities.RenderCall;
+import com.nvlad.yii2support.views.entities.ViewInfo;
+import com.nvlad.yii2support.views.entities.ViewResolve;
+import com.nvlad.yii2support.views.entities.ViewResolveFrom;
+import com.nvlad.yii2support.views.index.ViewFileIndex;
+import com.nvlad.yii2support.views.index.ViewRenderCallIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 
 public class RenderUtil {
     @NotNull
@@ -53,4 +70,107 @@ public class RenderUtil {
 
         return result;
     }
+
+    @NotNull
+    public static Collection<MethodReference> findRenderCalls(@NotNull PsiFile viewFile) {
+        final Project project = viewFile.getProject();
+        final PsiManager psiManager = PsiManager.getInstance(project);
+
+        final Set<MethodReference> result = new LinkedHashSet<>();
+        processRenderCalls(FileUtil.getVirtualFile(viewFile), project, (file, renderCall) -> {
+            final PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile != null) {
+                final PsiElement element = psiFile.findElementAt(renderCall.offset);
+                final MethodReference reference = PsiTreeUtil.getParentOfType(element, MethodReference.class);
+                if (reference != null) {
+                    result.add(reference);
+                }
+            }
+
+            return true;
+        });
+
+        return result;
+    }
+
+    /**
+     * Processes indexed render calls of view file, stops when processor returns false.
+     * Candidates are looked up by view name and resolved against the view keys from index data, so calls through aliases,
+     * other receivers and mailers are found as well and caller files are not parsed.
+     */
+    public static void processRenderCalls(@NotNull VirtualFile viewFile, @NotNull Project project, @NotNull PairProcessor<VirtualFile, RenderCall> processor) {
+        final FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+        final Map<String, ViewInfo> views = fileBasedIndex.getFileData(ViewFileIndex.identity, viewFile, project);
+        if (views.isEmpty()) {
+            return;
+        }
+
+        final GlobalSearchScope scope = YiiApplicationLayout.getInstance(project).getSearchScope(viewFile);
+        final String viewName = ViewRenderCallIndex.getViewName(viewFile.getName());
+        fileBasedIndex.processValues(ViewRenderCallIndex.identity, viewName, null, (file, renderCalls) -> {
+            for (RenderCall renderCall : renderCalls) {
+                final ViewResolve resolve = resolveRenderCall(project, file, renderCall);
+                if (resolve == null) {
+                    continue;
+                }
+
+                final ViewInfo view = views.get(ViewUtil.appendDefaultExtension(resolve.key, project));
+                if (view != null && isRenderCallOf(resolve, view) && !processor.process(file, renderCall)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }, scope);
+    }
+
+    /**
+     * Type of render call argument stored in index, signatures of caller file are not completed.
+     */
+    @NotNull
+    public static PhpType getArgumentType(@NotNull RenderCall renderCall, @NotNull String name) {
+        final String signature = renderCall.arguments.get(name);
+        if (signature == null || signature.equals(ViewRenderCallIndex.UNKNOWN_TYPE)) {
+            return PhpType.EMPTY;
+        }
+
+        final PhpType result = new PhpType();
+        for (String type : StringUtil.split(signature, String.valueOf(ViewRenderCallIndex.TYPE_SEPARATOR))) {
+            result.add(type);
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolves indexed render call from index data. Only relative views rendered on receivers unknown to index
+     * are resolved in caller file, null when view literal is changed or not resolved.
+     */
+    @Nullable
+    public static ViewResolve resolveRenderCall(@NotNull Project project, @NotNull VirtualFile file, @NotNull RenderCall renderCall) {
+        ViewResolve resolve = ViewUtil.resolveView(renderCall, file, project);
+        if (resolve == null && renderCall.origin == RenderCall.Origin.Unknown) {
+            final PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            final PsiElement element = psiFile == null ? null : psiFile.findElementAt(renderCall.offset);
+            final StringLiteralExpression literal = PsiTreeUtil.getParentOfType(element, StringLiteralExpression.class, false);
+            if (literal == null || !renderCall.value.equals(literal.getContents())) {
+                return null;
+            }
+
+            resolve = ViewUtil.resolveView(literal);
+        }
+
+        return resolve == null || resolve.key == null || resolve.application == null ? null : resolve;
+    }
+
+    /**
+     * Resolved render call targets view of same application, calls relative to view file also of same theme.
+     */
+    public static boolean isRenderCallOf(@NotNull ViewResolve resolve, @NotNull ViewInfo view) {
+        if (!resolve.application.equals(view.application)) {
+            return false;
+        }
+
+        return resolve.from != ViewResolveFrom.View || resolve.theme == null || resolve.theme.equals(view.theme);
+    }
 }
@@ -2,19 +2,28 @@ package com.nvlad.yii2support.views.util;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.php.PhpIndex;
-import com.jetbrains.php.lang.parser.PhpElementTypes;
 import com.jetbrains.php.lang.psi.elements.*;
+import com.nvlad.yii2support.common.AliasIndex;
+import com.nvlad.yii2support.common.ClassHierarchy;
 import com.nvlad.yii2support.common.ClassUtils;
+import com.nvlad.yii2support.common.FileUtil;
 import com.nvlad.yii2support.common.PhpUtil;
 import com.nvlad.yii2support.common.StringUtils;
+import com.nvlad.yii2support.common.YiiAlias;
+import com.nvlad.yii2support.common.YiiApplicationLayout;
 import com.nvlad.yii2support.common.YiiApplicationUtils;
+import com.nvlad.yii2support.common.YiiClassRole;
+import com.nvlad.yii2support.configurations.ConfigIndex;
 import com.nvlad.yii2support.utils.Yii2SupportSettings;
+import com.nvlad.yii2support.views.entities.RenderCall;
 import com.nvlad.yii2support.views.entities.ViewResolve;
 import com.nvlad.yii2support.views.entities.ViewResolveFrom;
 import org.jetbrains.annotations.NotNull;
@@ -26,31 +35,32 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ViewUtil {
-    private static final Set<String> ignoredVariables = getIgnoredVariables();
-    private static final Map<Project, Map<Pattern, String>> projectViewPatterns = new HashMap<>();
-
     public static final String[] renderMethods = {"render", "renderAjax", "renderPartial"};
 
     @Nullable
     public static ViewResolve resolveView(VirtualFile virtualFile, Project project) {
-        final String projectPath = YiiApplicationUtils.getYiiRootPath(project);
-        if (projectPath == null) {
-            return null;
-        }
+        return resolveView(virtualFile.getPath(), project);
+    }
 
-        int projectBaseDirLength = projectPath.length();
-        final String absolutePath = virtualFile.getPath();
-        if (!absolutePath.startsWith(projectPath)) {
+    /**
+     * Resolve view by absolute path, file may not exist.
+     */
+    @Nullable
+    public static ViewResolve resolveView(@NotNull String filePath, @NotNull Project project) {
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(project);
+        final YiiApplicationLayout.Owner owner = layout.getOwner(filePath);
+        final VirtualFile yiiRoot = layout.getRoot(filePath);
+        if (owner == null || yiiRoot == null) {
             return null;
         }
 
-        String path = absolutePath.substring(projectBaseDirLength);
+        String path = filePath.substring(yiiRoot.getPath().length());
         //if (!path.startsWith("/vendor/")) {
             ViewResolve result = new ViewResolve();
-            result.application = YiiApplicationUtils.getApplicationName(virtualFile, project);
+            result.application = layout.getApplicationName(filePath);
             result.theme = "";
-            if (path.startsWith("/" + result.application + "/")) {
-                path = path.substring(result.application.length() + 1);
+            if (!owner.basePath.isEmpty()) {
+                path = path.substring(owner.basePath.length() + 1);
             }
 
             result.relativePath = path;
@@ -85,18 +95,31 @@ public class ViewUtil {
         //return null;
     }
 
+    /**
+     * Resolve view for render call parameter, cached until any PSI, settings or alias definitions change.
+     */
     @Nullable
     public static ViewResolve resolveView(PsiElement element) {
-        String value = PhpUtil.getValue(element);
-        if (value.startsWith("@")) {
-            ViewResolve resolve = new ViewResolve(value);
-            resolve.application = YiiApplicationUtils.getApplicationName(element.getContainingFile());
-            return resolve;
+        final Yii2SupportSettings settings = Yii2SupportSettings.getInstance(element.getProject());
+        return CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(
+                doResolveView(element),
+                PsiModificationTracker.MODIFICATION_COUNT,
+                settings.getModificationTracker(),
+                AliasIndex.getModificationTracker(element.getProject()),
+                ConfigIndex.getModificationTracker(element.getProject())
+        ));
+    }
+
+    @Nullable
+    private static ViewResolve doResolveView(PsiElement element) {
+        final String value = PhpUtil.getValue(element);
+        final VirtualFile callerFile = FileUtil.getVirtualFile(element.getContainingFile());
+        if (callerFile == null) {
+            return null;
         }
-        if (value.startsWith("//")) {
-            ViewResolve resolve = new ViewResolve("@app/views" + value.substring(1));
-            resolve.application = YiiApplicationUtils.getApplicationName(element.getContainingFile());
-            return resolve;
+
+        if (isAbsoluteView(value)) {
+            return resolveAbsoluteView(value, callerFile, element.getProject());
         }
 
         final MethodReference method = PsiTreeUtil.getParentOfType(element, MethodReference.class);
@@ -104,19 +127,78 @@ public class ViewUtil {
             return null;
         }
         PhpClass callerClass = ClassUtils.getPhpClassByCallChain(method);
-        if (callerClass == null) {
+        if (callerClass == null && !isViewFileThis(method)) {
             return null;
         }
 
-        final PhpIndex phpIndex = PhpIndex.getInstance(element.getProject());
+        return resolveRelativeView(value, callerClass, callerFile, element.getProject());
+    }
+
+    /**
+     * Resolve view of indexed render call from its literal and receiver, caller file is not parsed.
+     * Null for relative views rendered on {@link RenderCall.Origin#Unknown} receivers, they are resolved from PSI only.
+     */
+    @Nullable
+    public static ViewResolve resolveView(@NotNull RenderCall renderCall, @NotNull VirtualFile callerFile, @NotNull Project project) {
+        final String value = renderCall.value;
+        if (isAbsoluteView(value)) {
+            return resolveAbsoluteView(value, callerFile, project);
+        }
+
+        switch (renderCall.origin) {
+            case View:
+                return resolveRelativeView(value, null, callerFile, project);
+            case Class:
+                final PhpClass callerClass = ClassUtils.getClass(PhpIndex.getInstance(project), renderCall.className);
+                return callerClass == null ? null : resolveRelativeView(value, callerClass, callerFile, project);
+            case Mailer:
+                final ViewResolve resolve = resolveViewFromMailer(value);
+                if (resolve != null) {
+                    resolve.application = YiiApplicationUtils.getApplicationName(callerFile, project);
+                }
+
+                return resolve;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * "@alias/path/view" or "//controller/view", these views do not depend on receiver of call.
+     */
+    public static boolean isAbsoluteView(@NotNull String value) {
+        return value.startsWith("@") || value.startsWith("//");
+    }
+
+    @NotNull
+    private static ViewResolve resolveAbsoluteView(@NotNull String value, @NotNull VirtualFile callerFile, @NotNull Project project) {
+        if (value.startsWith("@")) {
+            final ViewResolve aliasResolve = resolveViewByAlias(value, callerFile, project);
+            if (aliasResolve != null) {
+                return aliasResolve;
+            }
+        }
+
+        final ViewResolve resolve = new ViewResolve(value.startsWith("//") ? "@app/views" + value.substring(1) : value);
+        resolve.application = YiiApplicationUtils.getApplicationName(callerFile, project);
+        return resolve;
+    }
+
+    /**
+     * View relative to receiver of call: view file for "$this" of view (caller class is null), controller, widget or mailer.
+     */
+    @Nullable
+    private static ViewResolve resolveRelativeView(@NotNull String value, @Nullable PhpClass callerClass, @NotNull VirtualFile callerFile, @NotNull Project project) {
         final ViewResolve viewResolve;
         try {
-            if (callerClass.getName().endsWith("Controller") && ClassUtils.isClassInheritsOrEqual(callerClass, "\\yii\\base\\Controller", phpIndex)) {
+            if (callerClass == null || ClassHierarchy.hasRole(callerClass, YiiClassRole.View)) {
+                viewResolve = resolveViewFromView(callerFile, project, value);
+            } else if (ClassHierarchy.hasRole(callerClass, YiiClassRole.Controller)) {
                 viewResolve = resolveViewFromController(callerClass, value);
-            } else if (ClassUtils.isClassInheritsOrEqual(callerClass, "\\yii\\base\\View", phpIndex)) {
-                viewResolve = resolveViewFromView(element, value);
-            } else if (ClassUtils.isClassInheritsOrEqual(callerClass, "\\yii\\base\\Widget", phpIndex)) {
+            } else if (ClassHierarchy.hasRole(callerClass, YiiClassRole.Widget)) {
                 viewResolve = resolveViewFromWidget(callerClass, value);
+            } else if (ClassHierarchy.hasRole(callerClass, YiiClassRole.BaseMailer)) {
+                viewResolve = resolveViewFromMailer(value);
             } else {
                 return null;
             }
@@ -124,82 +206,65 @@ public class ViewUtil {
             return null;
         }
 
-        viewResolve.application = YiiApplicationUtils.getApplicationName(element.getContainingFile());
+        if (viewResolve == null) {
+            return null;
+        }
+
+        viewResolve.application = YiiApplicationUtils.getApplicationName(callerFile, project);
         return viewResolve;
     }
 
-    @NotNull
-    public static Collection<String> getPhpViewVariables(PsiFile psiFile) {
-        final Set<String> result = new HashSet<>();
-        final Set<String> allVariables = new HashSet<>();
-        final Set<String> declaredVariables = new HashSet<>();
-        final Collection<Variable> viewVariables = PsiTreeUtil.findChildrenOfType(psiFile, Variable.class);
-
-        for (FunctionReference reference : PsiTreeUtil.findChildrenOfType(psiFile, FunctionReference.class)) {
-            if (reference.getNode().getElementType() == PhpElementTypes.FUNCTION_CALL && psiFile.getUseScope().equals(reference.getUseScope())) {
-                if (reference.getName() != null && reference.getName().equals("compact")) {
-                    for (PsiElement element : reference.getParameters()) {
-                        if (element instanceof StringLiteralExpression) {
-                            allVariables.add(((StringLiteralExpression) element).getContents());
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * BaseMailer::$viewPath defaults to "@app/mail".
+     */
+    @Nullable
+    private static ViewResolve resolveViewFromMailer(@NotNull String value) {
+        return value.startsWith("/") ? null : new ViewResolve("@app/mail/" + value);
+    }
 
-        final SearchScope fileScope = psiFile.getUseScope();
-        final Set<String> usedBeforeDeclaration = new HashSet<>();
-        for (Variable variable : viewVariables) {
-            String variableName = variable.getName();
-            if (variable.isDeclaration()
-                    && fileScope.equals(variable.getUseScope())
-                    && !(variable.getParent() instanceof PhpUseList)
-                    && !(variable.getParent() instanceof UnaryExpression)
-                    && !(variable.getParent() instanceof SelfAssignmentExpression)
-                    && !usedBeforeDeclaration.contains(variableName)) {
-                declaredVariables.add(variableName);
-            } else {
-                if (!ignoredVariables.contains(variableName)) {
-                    if (fileScope.equals(variable.getUseScope()) || variable.getParent() instanceof PhpUseList) {
-                        if (variable.getName().equals("") && variable.getParent() instanceof StringLiteralExpression) {
-                            Variable inlineVariable = PsiTreeUtil.findChildOfType(variable, Variable.class);
-                            if (inlineVariable != null) {
-                                allVariables.add(inlineVariable.getName());
-                                usedBeforeDeclaration.add(variableName);
-                            }
-                        } else {
-                            allVariables.add(variableName);
-                            usedBeforeDeclaration.add(variableName);
-                        }
-                    }
-                }
-            }
+    /**
+     * "$this" outside of classes in view file, it is not typed when view has no "@var" tag.
+     */
+    private static boolean isViewFileThis(@NotNull MethodReference method) {
+        final PhpExpression classReference = method.getClassReference();
+        return classReference instanceof Variable && "this".equals(classReference.getName())
+                && PsiTreeUtil.getParentOfType(method, PhpClass.class) == null;
+    }
+
+    /**
+     * Resolve "@alias/path/view" to view of application or module containing aliased path.
+     * "@app" views are resolved against caller application by key, so they are skipped.
+     */
+    @Nullable
+    private static ViewResolve resolveViewByAlias(@NotNull String value, @NotNull VirtualFile callerFile, @NotNull Project project) {
+        if (value.startsWith("@app/")) {
+            return null;
         }
 
-        for (String variable : allVariables) {
-            if (!declaredVariables.contains(variable)) {
-                result.add(variable);
-            }
+        final String path = YiiAlias.getInstance(project).resolvePath(value, false, callerFile);
+        return path == null ? null : resolveView(path, project);
+    }
+
+    @NotNull
+    public static String appendDefaultExtension(@NotNull String key, @NotNull Project project) {
+        if (FileUtilRt.getExtension(key).isEmpty()) {
+            return key + '.' + Yii2SupportSettings.getInstance(project).defaultViewExtension;
         }
 
-        return result;
+        return key;
     }
 
     public static boolean isValidRenderMethod(MethodReference methodReference) {
         final PhpClass clazz = ClassUtils.getPhpClassByCallChain(methodReference);
-        if (clazz == null) {
-            return false;
-        }
-        final PhpIndex phpIndex = PhpIndex.getInstance(clazz.getProject());
 
-        return ClassUtils.isClassInheritsOrEqual(clazz, "\\yii\\base\\Controller", phpIndex)
-                || ClassUtils.isClassInheritsOrEqual(clazz, "\\yii\\base\\View", phpIndex)
-                || ClassUtils.isClassInheritsOrEqual(clazz, "\\yii\\base\\Widget", phpIndex)
-                || ClassUtils.isClassInheritsOrEqual(clazz, "\\yii\\mail\\BaseMailer", phpIndex);
+        return ClassHierarchy.hasAnyRole(clazz, YiiClassRole.Controller, YiiClassRole.View, YiiClassRole.Widget, YiiClassRole.BaseMailer);
     }
 
     @NotNull
-    public static Collection<String> viewResolveToPaths(@NotNull ViewResolve resolve, @NotNull Project project) {
+    /**
+     * Paths of view files relative to Yii root of caller file.
+     */
+    public static Collection<String> viewResolveToPaths(@NotNull ViewResolve resolve, @NotNull VirtualFile callerFile, @NotNull Project project) {
         Set<String> result = new HashSet<>();
 
         String path = resolve.key;
@@ -210,33 +275,36 @@ public class ViewUtil {
             path = path.substring(4);
         }
 
-        VirtualFile yiiRoot = YiiApplicationUtils.getYiiRootVirtualFile(project);
-        if (yiiRoot != null && yiiRoot.findChild("controllers") == null) {
-            path = '/' + resolve.application + path;
+        final YiiApplicationLayout layout = YiiApplicationLayout.getInstance(project);
+        YiiApplicationLayout.Owner owner = resolve.application == null ? null : layout.findOwner(resolve.application);
+        if (owner == null) {
+            owner = layout.getOwner(callerFile);
+        }
+
+        if (owner != null && !owner.basePath.isEmpty()) {
+            path = '/' + owner.basePath + path;
         }
         result.add(path);
 
         return result;
     }
 
-    public static void resetPathMapPatterns(Project project) {
-        projectViewPatterns.remove(project);
-    }
-
+    /**
+     * View path map patterns, cached on project until settings change.
+     */
     @NotNull
     private static Map<Pattern, String> getPatterns(Project project) {
-        Map<Pattern, String> patterns = projectViewPatterns.get(project);
-        if (patterns == null) {
-            patterns = new LinkedHashMap<>();
-            Yii2SupportSettings settings = Yii2SupportSettings.getInstance(project);
+        final Yii2SupportSettings settings = Yii2SupportSettings.getInstance(project);
+        return CachedValuesManager.getManager(project).getCachedValue(project, () -> {
+            final Map<Pattern, String> patterns = new LinkedHashMap<>();
             for (Map.Entry<String, String> entry : settings.viewPathMap.entrySet()) {
                 String patternString = "^(" + entry.getKey().replace("*", "([\\w-]+)") + ").+";
                 Pattern pattern = Pattern.compile(patternString);
                 patterns.put(pattern, entry.getValue());
             }
-            projectViewPatterns.put(project, patterns);
-        }
-        return patterns;
+
+            return CachedValueProvider.Result.create(Collections.unmodifiableMap(patterns), settings.getModificationTracker());
+        });
     }
 
     @Nullable
@@ -290,8 +358,9 @@ public class ViewUtil {
             return result;
         }
         final String className = clazz.getName();
+        final String controllerName = StringUtil.trimEnd(className, "Controller");
         key.append(path, 0, path.length() - className.length());
-        key.append(StringUtils.CamelToId(className.substring(0, className.length() - 10), "-"));
+        key.append(StringUtils.CamelToId(controllerName, "-"));
         key.append('/');
         key.append(value);
         result.key = normalizePath(key.toString());
@@ -300,12 +369,8 @@ public class ViewUtil {
     }
 
     @NotNull
-    private static ViewResolve resolveViewFromView(PsiElement element, String value) {
-        VirtualFile virtualFile = element.getContainingFile().getVirtualFile();
-        if (virtualFile == null) {
-            virtualFile = element.getContainingFile().getOriginalFile().getVirtualFile();
-        }
-        ViewResolve result = resolveView(virtualFile, element.getProject());
+    private static ViewResolve resolveViewFromView(VirtualFile virtualFile, Project project, String value) {
+        ViewResolve result = resolveView(virtualFile, project);
         if (result == null) {
             throw new InvalidPathException(virtualFile.getPath(), "Not resolved");
         }
@@ -367,19 +432,56 @@ public class ViewUtil {
         return end == -1 ? path : path.substring(start, end+1);
     }
 
-    private static String normalizePath(String path) {
-        Pattern pattern = Pattern.compile("/([a-z0-9-]+/\\.\\./)");
-        Matcher matcher = pattern.matcher(path);
-        while (matcher.find()) {
-            path = pattern.matcher(path).replaceAll("/");
-            matcher = pattern.matcher(path);
+    /**
+     * Removes "segment/../" parts of path, where segment contains lowercase letters, digits and dashes only.
+     */
+    static String normalizePath(String path) {
+        if (!path.contains("/../")) {
+            return path;
+        }
+
+        final StringBuilder result = new StringBuilder(path.length());
+        final int[] segmentStarts = new int[path.length() + 1];
+        int segmentCount = 0;
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('/', start);
+            final boolean last = end == -1;
+            if (last) {
+                end = path.length();
+            }
+
+            if (!last && segmentCount > 1 && end - start == 2 && path.startsWith("..", start)
+                    && isSimpleSegment(result, segmentStarts[segmentCount - 1], result.length() - 1)) {
+                segmentCount--;
+                result.setLength(segmentStarts[segmentCount]);
+            } else {
+                segmentStarts[segmentCount++] = result.length();
+                result.append(path, start, end);
+                if (!last) {
+                    result.append('/');
+                }
+            }
+
+            if (last) {
+                return result.toString();
+            }
+            start = end + 1;
         }
-        return path;
     }
 
-    private static Set<String> getIgnoredVariables() {
-        final Set<String> set = new HashSet<>(Arrays.asList("this", "_file_", "_params_"));
-        set.addAll(Variable.SUPERGLOBALS);
-        return set;
+    private static boolean isSimpleSegment(CharSequence path, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            final char c = path.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-')) {
+                return false;
+            }
+        }
+
+        return true;
     }
 }
@@ -0,0 +1,382 @@
+package com.nvlad.yii2support.views.util;
+
+import com.intellij.lang.LanguageParserDefinitions;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import com.jetbrains.php.lang.PhpLanguage;
+import com.jetbrains.php.lang.lexer.PhpTokenTypes;
+import com.jetbrains.php.lang.psi.elements.Variable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Collects variables of php view which are used before assignment (view parameters) from lexer tokens,
+ * so view files are indexed without building PSI.
+ */
+public class ViewVariableExtractor {
+    private static final Set<String> ignoredVariables = getIgnoredVariables();
+
+    private final List<IElementType> myTypes = new ArrayList<>();
+    private final List<String> myTexts = new ArrayList<>();
+    private int[] myPairs;
+    private boolean[] myDeclarations;
+
+    private ViewVariableExtractor() {
+
+    }
+
+    @NotNull
+    public static Collection<String> extract(@NotNull CharSequence text, @NotNull Project project) {
+        final ViewVariableExtractor extractor = new ViewVariableExtractor();
+        extractor.tokenize(text, project);
+        extractor.matchPairs();
+        extractor.markDestructuring();
+
+        return extractor.collect();
+    }
+
+    private void tokenize(@NotNull CharSequence text, @NotNull Project project) {
+        final Lexer lexer = LanguageParserDefinitions.INSTANCE.forLanguage(PhpLanguage.INSTANCE).createLexer(project);
+        lexer.start(text);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type != TokenType.WHITE_SPACE && !PhpTokenTypes.tsCOMMENTS.contains(type)) {
+                final String tokenText = lexer.getTokenText();
+                if (!StringUtil.isEmptyOrSpaces(tokenText)) {
+                    myTypes.add(type);
+                    myTexts.add(tokenText);
+                }
+            }
+            lexer.advance();
+        }
+    }
+
+    /**
+     * Index of matching bracket for every "(", "[", "{" and back, -1 for other tokens.
+     */
+    private void matchPairs() {
+        myPairs = new int[myTexts.size()];
+        Arrays.fill(myPairs, -1);
+        final Deque<Integer> stack = new ArrayDeque<>();
+        for (int i = 0; i < myTexts.size(); i++) {
+            if (isOpening(i)) {
+                stack.push(i);
+            } else if (isClosing(i) && !stack.isEmpty()) {
+                final int start = stack.pop();
+                myPairs[start] = i;
+                myPairs[i] = start;
+            }
+        }
+    }
+
+    /**
+     * Variables assigned by "list(...) =" and "[...] =".
+     */
+    private void markDestructuring() {
+        myDeclarations = new boolean[myTexts.size()];
+        for (int i = 0; i < myTexts.size(); i++) {
+            final int end = myPairs[i];
+            if (end <= i || !"=".equals(text(end + 1))) {
+                continue;
+            }
+
+            boolean destructuring;
+            if ("(".equals(text(i))) {
+                destructuring = "list".equalsIgnoreCase(text(i - 1));
+            } else if ("[".equals(text(i))) {
+                destructuring = i == 0 || !(isVariable(i - 1)
+                        || myTypes.get(i - 1) == PhpTokenTypes.IDENTIFIER
+                        || isString(i - 1)
+                        || ")".equals(text(i - 1))
+                        || "]".equals(text(i - 1)));
+            } else {
+                destructuring = false;
+            }
+
+            if (destructuring) {
+                for (int j = i + 1; j < end; j++) {
+                    if (isVariable(j) && isOneOf(text(j + 1), ",", "]", ")")) {
+                        myDeclarations[j] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private Collection<String> collect() {
+        final Set<String> allVariables = new HashSet<>();
+        final Set<String> declaredVariables = new HashSet<>();
+        final Set<String> usedBeforeDeclaration = new HashSet<>();
+
+        // Closing token of function or class bodies the cursor is in
+        final Deque<Integer> bodies = new ArrayDeque<>();
+        // Arrow functions the cursor is in: parameters and end of expression
+        final Deque<ArrowFunction> arrowFunctions = new ArrayDeque<>();
+
+        boolean functionHeader = false;
+        boolean useList = false;
+        boolean classHeader = false;
+        int declarationEnd = -1;
+        boolean declarationUntilSemicolon = false;
+
+        for (int i = 0; i < myTexts.size(); i++) {
+            while (!bodies.isEmpty() && i > bodies.peek()) {
+                bodies.pop();
+            }
+            while (!arrowFunctions.isEmpty() && i >= arrowFunctions.peek().end) {
+                arrowFunctions.pop();
+            }
+
+            final String text = myTexts.get(i);
+            final String previous = text(i - 1);
+            if (functionHeader || classHeader) {
+                if ("{".equals(text)) {
+                    bodies.push(myPairs[i] == -1 ? Integer.MAX_VALUE : myPairs[i]);
+                    functionHeader = false;
+                    classHeader = false;
+                    useList = false;
+                    continue;
+                }
+                if (functionHeader && ";".equals(text)) {
+                    functionHeader = false;
+                    useList = false;
+                    continue;
+                }
+                if (functionHeader && "use".equalsIgnoreCase(text)) {
+                    useList = true;
+                    continue;
+                }
+                if (functionHeader && isVariable(i)) {
+                    if (useList) {
+                        final String name = variableName(i);
+                        if (!ignoredVariables.contains(name)) {
+                            allVariables.add(name);
+                            usedBeforeDeclaration.add(name);
+                        }
+                    }
+                    continue;
+                }
+            }
+
+            if (isKeyword(i, "function")) {
+                functionHeader = true;
+                continue;
+            }
+
+            if (isKeyword(i, "class") || isKeyword(i, "interface") || isKeyword(i, "trait") || isKeyword(i, "enum")) {
+                classHeader = true;
+                continue;
+            }
+
+            if (!bodies.isEmpty()) {
+                continue;
+            }
+
+            if (isKeyword(i, "fn")) {
+                final ArrowFunction arrowFunction = parseArrowFunction(i);
+                if (arrowFunction != null) {
+                    arrowFunctions.push(arrowFunction);
+                    i = arrowFunction.bodyStart - 1;
+                }
+                continue;
+            }
+
+            if ((isKeyword(i, "foreach") || isKeyword(i, "catch")) && "(".equals(text(i + 1)) && myPairs[i + 1] != -1) {
+                if (isKeyword(i, "catch")) {
+                    declarationEnd = myPairs[i + 1];
+                } else {
+                    final int end = myPairs[i + 1];
+                    for (int j = i + 2; j < end; j++) {
+                        if ("as".equalsIgnoreCase(myTexts.get(j)) && myTypes.get(j) != PhpTokenTypes.IDENTIFIER) {
+                            for (int k = j + 1; k < end; k++) {
+                                if (isVariable(k) && isOneOf(text(k + 1), "=>", ")", ",", "]")) {
+                                    myDeclarations[k] = true;
+                                }
+                            }
+                            break;
+                        }
+                    }
+                }
+                continue;
+            }
+
+            if ((isKeyword(i, "global") || isKeyword(i, "static")) && isVariable(i + 1)) {
+                declarationUntilSemicolon = true;
+                continue;
+            }
+            if (";".equals(text) || text.startsWith("?>")) {
+                declarationUntilSemicolon = false;
+                continue;
+            }
+
+            if (isKeyword(i, "compact") && "(".equals(text(i + 1)) && myPairs[i + 1] != -1) {
+                final int end = myPairs[i + 1];
+                for (int j = i + 2; j < end; j++) {
+                    if (isString(j) && isOneOf(text(j - 1), "(", ",") && isOneOf(text(j + 1), ",", ")")) {
+                        allVariables.add(StringUtil.unquoteString(myTexts.get(j)));
+                    }
+                }
+                continue;
+            }
+
+            if ("${".equals(text) && !isVariable(i + 1) && "}".equals(text(i + 2))) {
+                final String name = myTexts.get(i + 1);
+                if (!ignoredVariables.contains(name)) {
+                    allVariables.add(name);
+                }
+                continue;
+            }
+
+            if (!isVariable(i) || "$".equals(previous)) {
+                continue;
+            }
+
+            final String name = variableName(i);
+            if (!arrowFunctions.isEmpty() && isArrowFunctionParameter(arrowFunctions, name)) {
+                continue;
+            }
+
+            final boolean declaration = myDeclarations[i]
+                    || i < declarationEnd
+                    || declarationUntilSemicolon
+                    || "=".equals(text(i + 1));
+            if (declaration && !usedBeforeDeclaration.contains(name)) {
+                declaredVariables.add(name);
+            } else if (!ignoredVariables.contains(name)) {
+                allVariables.add(name);
+                usedBeforeDeclaration.add(name);
+            }
+        }
+
+        final Set<String> result = new HashSet<>();
+        for (String variable : allVariables) {
+            if (!declaredVariables.contains(variable)) {
+                result.add(variable);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses "fn (...) => expression" started at index, returns null for not arrow function.
+     */
+    @Nullable
+    private ArrowFunction parseArrowFunction(int index) {
+        int i = index + 1;
+        if ("&".equals(text(i))) {
+            i++;
+        }
+        if (!"(".equals(text(i)) || myPairs[i] == -1) {
+            return null;
+        }
+
+        final ArrowFunction arrowFunction = new ArrowFunction();
+        final int parametersEnd = myPairs[i];
+        for (int j = i + 1; j < parametersEnd; j++) {
+            if (isVariable(j)) {
+                arrowFunction.parameters.add(variableName(j));
+            }
+        }
+
+        i = parametersEnd + 1;
+        while (i < myTexts.size() && !"=>".equals(myTexts.get(i))) {
+            i++;
+        }
+        arrowFunction.bodyStart = i + 1;
+
+        i = arrowFunction.bodyStart;
+        while (i < myTexts.size()) {
+            final String text = myTexts.get(i);
+            if (isOpening(i) && myPairs[i] != -1) {
+                i = myPairs[i] + 1;
+                continue;
+            }
+            if (isClosing(i) || isOneOf(text, ",", ";", "?>")) {
+                break;
+            }
+            i++;
+        }
+        arrowFunction.end = i;
+
+        return arrowFunction;
+    }
+
+    private static boolean isArrowFunctionParameter(@NotNull Deque<ArrowFunction> arrowFunctions, @NotNull String name) {
+        for (ArrowFunction arrowFunction : arrowFunctions) {
+            if (arrowFunction.parameters.contains(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isKeyword(int index, @NotNull String keyword) {
+        return keyword.equalsIgnoreCase(myTexts.get(index))
+                && !isOneOf(text(index - 1), "->", "?->", "::", "function", "const");
+    }
+
+    private boolean isVariable(int index) {
+        return index >= 0 && index < myTypes.size() && myTypes.get(index) == PhpTokenTypes.VARIABLE;
+    }
+
+    private boolean isString(int index) {
+        if (index < 0 || index >= myTypes.size()) {
+            return false;
+        }
+
+        final IElementType type = myTypes.get(index);
+        return type == PhpTokenTypes.STRING_LITERAL_SINGLE_QUOTE || type == PhpTokenTypes.STRING_LITERAL;
+    }
+
+    private boolean isOpening(int index) {
+        return isOneOf(myTexts.get(index), "(", "[", "{", "${");
+    }
+
+    private boolean isClosing(int index) {
+        return isOneOf(myTexts.get(index), ")", "]", "}");
+    }
+
+    @NotNull
+    private String variableName(int index) {
+        return myTexts.get(index).substring(1);
+    }
+
+    @Nullable
+    private String text(int index) {
+        return index >= 0 && index < myTexts.size() ? myTexts.get(index) : null;
+    }
+
+    private static boolean isOneOf(@Nullable String text, String... values) {
+        if (text == null) {
+            return false;
+        }
+
+        for (String value : values) {
+            if (value.equals(text)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Set<String> getIgnoredVariables() {
+        final Set<String> set = new HashSet<>(Arrays.asList("this", "_file_", "_params_"));
+        set.addAll(Variable.SUPERGLOBALS);
+        return set;
+    }
+
+    private static class ArrowFunction {
+        final Set<String> parameters = new HashSet<>();
+        int bodyStart;
+        int end;
+    }
+}
@@ -6,13 +6,11 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.ProcessingContext;
-import com.intellij.util.indexing.FileBasedIndex;
 import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.*;
 import com.nvlad.yii2support.common.ClassUtils;
-import com.nvlad.yii2support.configurations.ComponentsIndex;
+import com.nvlad.yii2support.configurations.ComponentsSnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -118,11 +116,11 @@ public class WidgetConfigCompletionProvider extends CompletionProvider<Completio
     }
 
     private void doFormatterCompletion(@NotNull CompletionResultSet completionResultSet, Project project, PhpIndex phpIndex){
-        final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-
         PhpClass completionClass = null;
-        for (String className : FileBasedIndex.getInstance().getValues(ComponentsIndex.identity, "formatter", scope)) {
-            completionClass = PhpIndex.getInstance(project).getAnyByFQN(className).iterator().next();
+        for (String className : ComponentsSnapshot.getInstance(project).getClasses("formatter", null)) {
+            for (PhpClass phpClass : phpIndex.getAnyByFQN(className)) {
+                completionClass = phpClass;
+            }
         }
         if(completionClass == null) {
             completionClass = ClassUtils.getClass(phpIndex, "yii\\i18n\\Formatter");
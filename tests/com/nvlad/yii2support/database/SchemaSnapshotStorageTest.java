@@ -0,0 +1,96 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaSnapshotStorageTest extends BasePlatformTestCase {
+    public void testRoundTrip() throws IOException {
+        final List<ColumnInfo> columns = Arrays.asList(
+                new ColumnInfo("id", "int", null, true),
+                new ColumnInfo("email", "varchar", "Login", false));
+        final List<IndexInfo> indexes = Collections.singletonList(new IndexInfo("idx_email", Collections.singletonList("email"), true));
+        final List<TableInfo> tables = Arrays.asList(
+                new TableInfo("user", "yii", "local", columns, indexes),
+                new TableInfo("post", null, "local", Collections.emptyList(), Collections.emptyList()));
+        final SchemaSnapshot snapshot = new SchemaSnapshot(Arrays.asList(
+                new SchemaSnapshot.DataSourceSchema("id-1", "local", "yii", tables),
+                new SchemaSnapshot.DataSourceSchema("id-2", null, null, Collections.emptyList())));
+
+        final SchemaSnapshot loaded = SchemaSnapshotStorage.load(write(snapshot));
+        assertEquals(2, loaded.getDataSources().size());
+
+        final SchemaSnapshot.DataSourceSchema dataSource = loaded.findDataSource("id-1");
+        assertNotNull(dataSource);
+        assertEquals("local", dataSource.getName());
+        assertEquals("yii", dataSource.getDatabaseName());
+        assertEquals(2, dataSource.getTables().size());
+
+        final TableInfo user = dataSource.findTable("user");
+        assertNotNull(user);
+        assertEquals("yii", user.getSchemaName());
+        assertEquals("local", user.getDataSourceName());
+        assertOrderedEquals(user.getColumnsName(), "id", "email");
+        assertOrderedEquals(user.getPrimaryKeys(), "id");
+        assertEquals("Login", user.findColumn("email").getComment());
+        assertNull(user.findColumn("id").getComment());
+        assertEquals(1, user.getIndexes().size());
+        assertTrue(user.getIndexes().get(0).isUnique());
+        assertOrderedEquals(user.getIndexes().get(0).getColumns(), "email");
+
+        final TableInfo post = dataSource.findTable("post");
+        assertNotNull(post);
+        assertNull(post.getSchemaName());
+        assertEmpty(post.getColumns());
+
+        final SchemaSnapshot.DataSourceSchema empty = loaded.findDataSource("id-2");
+        assertNotNull(empty);
+        assertNull(empty.getName());
+        assertEmpty(empty.getTables());
+    }
+
+    public void testQualifiedNames() {
+        final List<TableInfo> tables = Arrays.asList(
+                table("user", "other"),
+                table("user", "yii"),
+                table("log", "other"));
+        final SchemaSnapshot.DataSourceSchema dataSource = new SchemaSnapshot.DataSourceSchema("id", "local", "yii", tables);
+        assertSame(tables.get(1), dataSource.findTable("user"));
+        assertSame(tables.get(0), dataSource.findTable("other.user"));
+        assertSame(tables.get(1), dataSource.findTable("yii.user"));
+        // tables of other databases are reachable by qualified name only
+        assertNull(dataSource.findTable("log"));
+        assertSame(tables.get(2), dataSource.findTable("other.log"));
+        assertEquals(3, dataSource.getTables().size());
+
+        // no table of url database, e.g. PostgreSQL schemas
+        final SchemaSnapshot.DataSourceSchema postgres = new SchemaSnapshot.DataSourceSchema("id", "pg", "yii", Collections.singletonList(table("user", "public")));
+        assertNotNull(postgres.findTable("user"));
+        assertNotNull(postgres.findTable("public.user"));
+    }
+
+    public void testMissingAndBrokenFiles() throws IOException {
+        final File directory = FileUtil.createTempDirectory("schema", null);
+        assertTrue(SchemaSnapshotStorage.load(new File(directory, "missing.bin")).isEmpty());
+
+        final File broken = new File(directory, "broken.bin");
+        FileUtil.writeToFile(broken, "not a snapshot");
+        assertTrue(SchemaSnapshotStorage.load(broken).isEmpty());
+    }
+
+    private static TableInfo table(String name, String schema) {
+        return new TableInfo(name, schema, "local", Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static File write(SchemaSnapshot snapshot) throws IOException {
+        final File file = new File(FileUtil.createTempDirectory("schema", null), "snapshot.bin");
+        SchemaSnapshotStorage.write(snapshot, file);
+        assertTrue(file.isFile());
+        return file;
+    }
+}
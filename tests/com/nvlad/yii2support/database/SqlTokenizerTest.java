@@ -0,0 +1,31 @@
+package com.nvlad.yii2support.database;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class SqlTokenizerTest extends BasePlatformTestCase {
+    public void testParams() {
+        assertOrderedEquals(SqlTokenizer.getParams("id = :id AND status = :status"), ":id", ":status");
+        assertOrderedEquals(SqlTokenizer.getParams("id = :id OR parent_id = :id"), ":id");
+        assertOrderedEquals(SqlTokenizer.getParams("user_id=:user_id2"), ":user_id2");
+        assertEmpty(SqlTokenizer.getParams(""));
+        assertEmpty(SqlTokenizer.getParams("id = :1 OR id = :"));
+    }
+
+    public void testQuoted() {
+        assertOrderedEquals(SqlTokenizer.getParams("name = ':fake' AND id = :id"), ":id");
+        assertOrderedEquals(SqlTokenizer.getParams("name = 'it''s :fake' AND id = :id"), ":id");
+        assertOrderedEquals(SqlTokenizer.getParams("name = 'it\\' :fake' AND id = :id"), ":id");
+        assertOrderedEquals(SqlTokenizer.getParams("`:column` = :value AND \":column\" = :other"), ":value", ":other");
+        assertEmpty(SqlTokenizer.getParams("name = 'not closed :fake"));
+    }
+
+    public void testComments() {
+        assertOrderedEquals(SqlTokenizer.getParams("-- :fake\nid = :id /* :fake */ AND a - b = :diff / 2"), ":id", ":diff");
+        assertEmpty(SqlTokenizer.getParams("id = 1 /* :fake"));
+    }
+
+    public void testCastsAndPatterns() {
+        assertOrderedEquals(SqlTokenizer.getParams("price::numeric > :price"), ":price");
+        assertOrderedEquals(SqlTokenizer.getParams("name REGEXP [[:alpha:]] AND id = :id"), ":id");
+    }
+}
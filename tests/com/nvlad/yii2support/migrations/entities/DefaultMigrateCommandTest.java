@@ -0,0 +1,67 @@
+package com.nvlad.yii2support.migrations.entities;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DefaultMigrateCommandTest extends BasePlatformTestCase {
+    public void testOptionsOfRootDefaultCommand() {
+        List<MigrateCommand> commands = Arrays.asList(
+                command("migrate", "{{%migration}}", "", true),
+                command("api-migrate", "{{%api_migration}}", "api", true));
+
+        DefaultMigrateCommand primary = new DefaultMigrateCommand(commands);
+        assertEquals("migrate", primary.command);
+        assertEquals("", primary.yiiRootPath);
+
+        DefaultMigrateCommand additional = new DefaultMigrateCommand(commands, "api");
+        assertEquals("api-migrate", additional.command);
+        assertEquals("{{%api_migration}}", additional.migrationTable);
+        assertEquals("api", additional.yiiRootPath);
+    }
+
+    public void testOptionsOfPrimaryDefaultCommand() {
+        List<MigrateCommand> commands = Arrays.asList(
+                command("api-migrate", "{{%api_migration}}", "api", false),
+                command("migrate", "{{%migration}}", "", true));
+
+        DefaultMigrateCommand additional = new DefaultMigrateCommand(commands, "api");
+        assertEquals("migrate", additional.command);
+        assertEquals("{{%migration}}", additional.migrationTable);
+        assertEquals("api", additional.yiiRootPath);
+    }
+
+    public void testSortedByRoot() {
+        List<MigrateCommand> configured = Arrays.asList(
+                command("migrate", "{{%migration}}", "", true),
+                command("rbac-migrate", "{{%rbac_migration}}", "", false),
+                command("migrate", "{{%migration}}", "api", true));
+
+        List<MigrateCommand> commands = new ArrayList<>(configured);
+        commands.add(new DefaultMigrateCommand(configured, "api"));
+        commands.add(new DefaultMigrateCommand(configured));
+        commands.sort(new MigrateCommandComparator());
+
+        assertEquals("", commands.get(0).yiiRootPath);
+        assertTrue(commands.get(0).isDefault);
+        assertEquals("rbac-migrate", commands.get(1).command);
+        assertInstanceOf(commands.get(2), DefaultMigrateCommand.class);
+        assertEquals("api", commands.get(3).yiiRootPath);
+        assertTrue(commands.get(3).isDefault);
+        assertInstanceOf(commands.get(4), DefaultMigrateCommand.class);
+        assertFalse(commands.get(0).isSameCommand(commands.get(3)));
+    }
+
+    private static MigrateCommand command(String name, String table, String yiiRootPath, boolean isDefault) {
+        MigrateCommand command = new MigrateCommand();
+        command.command = name;
+        command.migrationTable = table;
+        command.db = "db";
+        command.yiiRootPath = yiiRootPath;
+        command.isDefault = isDefault;
+
+        return command;
+    }
+}
@@ -0,0 +1,67 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.io.DataExternalizer;
+import com.nvlad.yii2support.views.entities.ViewInfo;
+
+import java.io.*;
+
+public class ViewFileIndexTest extends BasePlatformTestCase {
+    public void testExternalizerRoundTrip() throws IOException {
+        final ViewInfo viewInfo = new ViewInfo();
+        viewInfo.fileId = 42;
+        viewInfo.application = "frontend";
+        viewInfo.theme = "\u0442\u0435\u043c\u0430";
+        viewInfo.parameters = new String[]{"model", "", "dataProvider"};
+
+        final ViewInfo loaded = roundTrip(viewInfo);
+        assertEquals(viewInfo, loaded);
+        assertOrderedEquals(loaded.parameters, "model", "", "dataProvider");
+    }
+
+    public void testExternalizerEmptyValues() throws IOException {
+        final ViewInfo viewInfo = new ViewInfo();
+        viewInfo.application = "";
+        viewInfo.theme = "";
+
+        final ViewInfo loaded = roundTrip(viewInfo);
+        assertEquals(viewInfo, loaded);
+        assertEmpty(loaded.parameters);
+    }
+
+    public void testExternalizerEnumeratesNames() throws IOException {
+        final ViewInfo first = new ViewInfo();
+        first.application = "backend";
+        first.theme = "";
+        final ViewInfo second = new ViewInfo();
+        second.fileId = 1;
+        second.application = "backend";
+        second.theme = "";
+
+        // names are written as ids, so values differ by file id only
+        assertEquals(write(first).length, write(second).length);
+        assertEquals(second, roundTrip(second));
+    }
+
+    private static byte[] write(ViewInfo viewInfo) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            new ViewFileIndex().getValueExternalizer().save(output, viewInfo);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static ViewInfo roundTrip(ViewInfo viewInfo) throws IOException {
+        final DataExternalizer<ViewInfo> externalizer = new ViewFileIndex().getValueExternalizer();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            externalizer.save(output, viewInfo);
+        }
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final ViewInfo result = externalizer.read(input);
+        assertEquals(0, input.available());
+        return result;
+    }
+}
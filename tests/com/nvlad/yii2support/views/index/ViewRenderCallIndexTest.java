@@ -0,0 +1,89 @@
+package com.nvlad.yii2support.views.index;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.io.DataExternalizer;
+import com.nvlad.yii2support.views.entities.RenderCall;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ViewRenderCallIndexTest extends BasePlatformTestCase {
+    public void testExternalizerRoundTrip() throws IOException {
+        final RenderCall index = new RenderCall(15, "index");
+        index.arguments = new LinkedHashMap<>();
+        index.arguments.put("model", "\\app\\models\\User");
+        index.arguments.put("items", ViewRenderCallIndex.UNKNOWN_TYPE);
+        index.origin = RenderCall.Origin.Class;
+        index.className = "\\app\\controllers\\SiteController";
+        final RenderCall form = new RenderCall(0, "@app/views/site/_form");
+        form.origin = RenderCall.Origin.View;
+        final RenderCall unicode = new RenderCall(Integer.MAX_VALUE, "\u0432\u0438\u0434");
+
+        final List<RenderCall> renderCalls = Arrays.asList(index, form, unicode);
+        final List<RenderCall> loaded = roundTrip(renderCalls);
+        assertOrderedEquals(loaded, renderCalls);
+        assertOrderedEquals(new ArrayList<>(loaded.get(0).arguments.keySet()), "model", "items");
+        assertEmpty(loaded.get(1).arguments.keySet());
+        assertEquals("\\app\\controllers\\SiteController", loaded.get(0).className);
+        assertEquals(RenderCall.Origin.Unknown, loaded.get(2).origin);
+    }
+
+    public void testIndexedOrigins() {
+        final PsiFile file = myFixture.configureByText("SiteController.php", "<?php\n" +
+                "namespace app\\controllers;\n" +
+                "class SiteController {\n" +
+                "    public function actionIndex() {\n" +
+                "        $this->render('index');\n" +
+                "        \\Yii::$app->mailer->compose(['html' => 'contact-html']);\n" +
+                "        $this->view->render('about');\n" +
+                "    }\n" +
+                "}\n" +
+                "$this->render('view');\n");
+        final Map<String, List<RenderCall>> data = FileBasedIndex.getInstance().getFileData(ViewRenderCallIndex.identity, file.getVirtualFile(), getProject());
+
+        final RenderCall index = data.get("index").get(0);
+        assertEquals(RenderCall.Origin.Class, index.origin);
+        assertEquals("\\app\\controllers\\SiteController", index.className);
+        assertEquals(RenderCall.Origin.Mailer, data.get("contact-html").get(0).origin);
+        assertEquals(RenderCall.Origin.Unknown, data.get("about").get(0).origin);
+        assertEquals(RenderCall.Origin.View, data.get("view").get(0).origin);
+        assertEquals("", data.get("view").get(0).className);
+    }
+
+    public void testIndexedArgumentSignatures() {
+        final PsiFile file = myFixture.configureByText("index.php", "<?php\n" +
+                "$model = new \\app\\models\\User();\n" +
+                "echo $this->render('_form', ['model' => $model, 'title' => 'Index', 'count' => 10, 'items' => []]);\n");
+        final Map<String, List<RenderCall>> data = FileBasedIndex.getInstance().getFileData(ViewRenderCallIndex.identity, file.getVirtualFile(), getProject());
+
+        final Map<String, String> arguments = data.get("_form").get(0).arguments;
+        assertTrue(arguments.get("model").contains("\\app\\models\\User"));
+        assertEquals("string", arguments.get("title"));
+        assertEquals("int", arguments.get("count"));
+        assertEquals("array", arguments.get("items"));
+    }
+
+    public void testExternalizerEmptyList() throws IOException {
+        assertEmpty(roundTrip(Collections.emptyList()));
+    }
+
+    private static List<RenderCall> roundTrip(List<RenderCall> renderCalls) throws IOException {
+        final DataExternalizer<List<RenderCall>> externalizer = new ViewRenderCallIndex().getValueExternalizer();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            externalizer.save(output, renderCalls);
+        }
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final List<RenderCall> result = externalizer.read(input);
+        assertEquals(0, input.available());
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.nvlad.yii2support.views.util;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ViewUtilTest extends BasePlatformTestCase {
+    private static final Pattern PARENT_PATTERN = Pattern.compile("/([a-z0-9-]+/\\.\\./)");
+    private static final String[] SEGMENTS = {"a", "b1", "-", "x-y", "A", "_", ".", "..", ""};
+
+    public void testNormalizePath() {
+        assertEquals("/views/site/index", ViewUtil.normalizePath("/views/site/index"));
+        assertEquals("/views/layouts/main", ViewUtil.normalizePath("/views/site/../layouts/main"));
+        assertEquals("/views/main", ViewUtil.normalizePath("/views/site/part/../../main"));
+        assertEquals("../views/main", ViewUtil.normalizePath("../views/main"));
+        assertEquals("site/../main", ViewUtil.normalizePath("site/../main"));
+        assertEquals("/views/Site/../main", ViewUtil.normalizePath("/views/Site/../main"));
+        assertEquals("//../main", ViewUtil.normalizePath("//../main"));
+    }
+
+    /**
+     * Linear normalization gives the same result as repeated regex replacement it replaced.
+     */
+    public void testNormalizePathMatchesRegex() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            final StringBuilder path = new StringBuilder();
+            if (random.nextBoolean()) {
+                path.append('/');
+            }
+
+            final int count = random.nextInt(8);
+            for (int j = 0; j < count; j++) {
+                if (j > 0) {
+                    path.append('/');
+                }
+                path.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+
+            if (random.nextBoolean()) {
+                path.append('/');
+            }
+
+            assertEquals(path.toString(), normalizeWithRegex(path.toString()), ViewUtil.normalizePath(path.toString()));
+        }
+    }
+
+    private static String normalizeWithRegex(String path) {
+        Matcher matcher = PARENT_PATTERN.matcher(path);
+        while (matcher.find()) {
+            path = PARENT_PATTERN.matcher(path).replaceAll("/");
+            matcher = PARENT_PATTERN.matcher(path);
+        }
+
+        return path;
+    }
+}
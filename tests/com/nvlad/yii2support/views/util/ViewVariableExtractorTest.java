@@ -0,0 +1,40 @@
+package com.nvlad.yii2support.views.util;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.Collection;
+
+public class ViewVariableExtractorTest extends BasePlatformTestCase {
+    public void testUsedBeforeAssignment() {
+        assertSameElements(extract("<?php\n$title = 'Index';\necho $title . $model->name;\n"), "model");
+    }
+
+    public void testCompact() {
+        assertSameElements(extract("<?php\n$title = 'Update';\necho $this->render('_form', compact('model', 'title'));\n"), "model");
+    }
+
+    public void testExtract() {
+        assertSameElements(extract("<?php\nextract($data);\necho $title;\n"), "data", "title");
+    }
+
+    public void testThisParams() {
+        assertSameElements(extract("<?php\n$this->params['breadcrumbs'][] = $this->title;\necho $content;\n"), "content");
+    }
+
+    public void testClosures() {
+        assertSameElements(extract("<?php\n$items = array_map(function ($item) use ($prefix) {\n    $local = 1;\n    return $prefix . $item . $inner;\n}, $list);\n"), "prefix", "list");
+        assertSameElements(extract("<?php\n$format = fn($value) => $value . $suffix;\n"), "suffix");
+    }
+
+    public void testHeredoc() {
+        assertSameElements(extract("<?php\necho <<<HTML\n<h1>$title</h1>\n<p>{$model->name}</p>\nHTML;\n"), "title", "model");
+    }
+
+    public void testDestructuringAndForeach() {
+        assertSameElements(extract("<?php\n[$first, $second] = $pair;\nforeach ($rows as $key => $row) {\n    echo $first . $second . $key . $row;\n}\n"), "pair", "rows");
+    }
+
+    private Collection<String> extract(String text) {
+        return ViewVariableExtractor.extract(text, getProject());
+    }
+}